@@ -0,0 +1,121 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the dictionary of clothing attribute values (types, colours,
+ * fits, moods and dress codes). Every distinct value is stored once and
+ * given a small int code, so clothing only has to keep codes and two items
+ * with the same colour share one String.
+ * We use the Singleton Design Pattern so that codes mean the same thing
+ * for every item in the system.
+ */
+public final class AttributeDictionary {
+    /** code returned by lookup() for values that were never encoded */
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final AttributeDictionary theDictionary = new AttributeDictionary();
+
+    private final Map<String, Integer> codes;
+    private volatile String[] values;   // code -> canonical value
+    private int size;
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     */
+    private AttributeDictionary() {
+        codes = new ConcurrentHashMap<>();
+        values = new String[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Gets instance of AttributeDictionary.
+     * (Singleton Design Pattern)
+     * @return  instance of AttributeDictionary
+     */
+    public static AttributeDictionary getInstance() {
+        return theDictionary;
+    }
+
+    /**
+     * Gets the code for the given value, adding the value to the
+     * dictionary if it is not there yet.
+     * @param value  an attribute value, or null
+     * @return  the code of value, or NOT_FOUND if value is null
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NOT_FOUND;
+        }
+
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    /**
+     * Gets the code for the given value without adding it.
+     * @param value  an attribute value, or null
+     * @return  the code of value, or NOT_FOUND if it was never encoded
+     */
+    public int lookup(String value) {
+        if (value == null) {
+            return NOT_FOUND;
+        }
+
+        Integer code = codes.get(value);
+        return code != null ? code : NOT_FOUND;
+    }
+
+    /**
+     * Gets the canonical value for the given code.
+     * @param code  a code returned by encode()
+     * @return  the value encoded as code, or null if code is NOT_FOUND
+     */
+    public String decode(int code) {
+        return code == NOT_FOUND ? null : values[code];
+    }
+
+    /**
+     * Gets the one shared instance equal to the given value.
+     * @param value  an attribute value, or null
+     * @return  the canonical instance of value
+     */
+    public String intern(String value) {
+        return decode(encode(value));
+    }
+
+    /**
+     * Gets the number of distinct values in the dictionary.
+     * @return  the number of values encoded so far
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gives value the next free code, unless another thread added
+     * it first.
+     * @param value  an attribute value that was not in the dictionary
+     * @return  the code of value
+     */
+    private synchronized int add(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[size] = value;
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+}
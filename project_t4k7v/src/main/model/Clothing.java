@@ -3,14 +3,21 @@ package model;
 import org.json.JSONObject;
 import persistence.Writable;
 
-// Represents an item of clothing with id, type, colour, etc. (see below)
+import java.util.Objects;
+
+// Represents an item of clothing with id, type, colour, etc. (see below).
+// every attribute other than id is kept as its code in the shared
+// AttributeDictionary, so items with the same colour, fit, etc. share one
+// instance of that value
 public class Clothing implements Writable {
+    private static final AttributeDictionary DICTIONARY = AttributeDictionary.getInstance();
+
     private String id;        // short description, e.g, "Silk slip dress"
-    private String type;      // either "top","bottom","jacket", or "accessory"
-    private String colour;    // one main colour of the clothing
-    private String fit;       // either "tight", "comfy", or "baggy"
-    private String mood;      // style of the clothing, e.g, "sporty", "chic"
-    private String dressCode; // either "casual", "business casual",
+    private int type;         // either "top","bottom","jacket", or "accessory"
+    private int colour;       // one main colour of the clothing
+    private int fit;          // either "tight", "comfy", or "baggy"
+    private int mood;         // style of the clothing, e.g, "sporty", "chic"
+    private int dressCode;    // either "casual", "business casual",
                               // "formal", "cocktail", or "black tie"
 
     // REQUIRES: - type is either "top", "bottom", "jacket", or "accessory"
@@ -21,6 +28,17 @@ public class Clothing implements Writable {
     public Clothing(String id, String type, String colour, String fit,
                     String mood, String dressCode) {
         this.id = id;
+        this.type = DICTIONARY.encode(type);
+        this.colour = DICTIONARY.encode(colour);
+        this.fit = DICTIONARY.encode(fit);
+        this.mood = DICTIONARY.encode(mood);
+        this.dressCode = DICTIONARY.encode(dressCode);
+    }
+
+    // REQUIRES: every code was returned by AttributeDictionary.encode()
+    // EFFECTS: constructs item of clothing from already encoded "tags"
+    Clothing(String id, int type, int colour, int fit, int mood, int dressCode) {
+        this.id = id;
         this.type = type;
         this.colour = colour;
         this.fit = fit;
@@ -32,12 +50,12 @@ public class Clothing implements Writable {
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("id", this.id);
-        json.put("type", this.type);
-        json.put("colour", this.colour);
-        json.put("fit", this.fit);
-        json.put("mood", this.mood);
-        json.put("dressCode", this.dressCode);
+        json.put("id", getId());
+        json.put("type", getType());
+        json.put("colour", getColour());
+        json.put("fit", getFit());
+        json.put("mood", getMood());
+        json.put("dressCode", getDressCode());
         return json;
     }
 
@@ -46,23 +64,65 @@ public class Clothing implements Writable {
     }
 
     public String getType() {
-        return this.type;
+        return DICTIONARY.decode(this.type);
     }
 
     public String getColour() {
-        return this.colour;
+        return DICTIONARY.decode(this.colour);
     }
 
     public String getFit() {
-        return this.fit;
+        return DICTIONARY.decode(this.fit);
     }
 
     public String getMood() {
-        return this.mood;
+        return DICTIONARY.decode(this.mood);
     }
 
     public String getDressCode() {
+        return DICTIONARY.decode(this.dressCode);
+    }
+
+    int getTypeCode() {
+        return this.type;
+    }
+
+    int getColourCode() {
+        return this.colour;
+    }
+
+    int getFitCode() {
+        return this.fit;
+    }
+
+    int getMoodCode() {
+        return this.mood;
+    }
+
+    int getDressCodeCode() {
         return this.dressCode;
     }
 
+    // EFFECTS: returns true if other is clothing with the same id and tags
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Clothing)) {
+            return false;
+        }
+
+        Clothing otherClothing = (Clothing) other;
+        return Objects.equals(getId(), otherClothing.getId())
+                && getTypeCode() == otherClothing.getTypeCode()
+                && getColourCode() == otherClothing.getColourCode()
+                && getFitCode() == otherClothing.getFitCode()
+                && getMoodCode() == otherClothing.getMoodCode()
+                && getDressCodeCode() == otherClothing.getDressCodeCode();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getTypeCode(), getColourCode(), getFitCode(),
+                getMoodCode(), getDressCodeCode());
+    }
+
 }
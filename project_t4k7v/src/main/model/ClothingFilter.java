@@ -0,0 +1,129 @@
+package model;
+
+import java.util.BitSet;
+
+// Represents a boolean filter over clothing tags made of exact matches
+// combined with AND, OR and NOT. e.g, "green OR blue, NOT baggy, casual" is
+//     is("colour", "green").or(is("colour", "blue"))
+//             .and(not(is("fit", "baggy")))
+//             .and(is("dress code", "casual"))
+// a filter is evaluated as a bitset with one bit per item, so combining
+// matches takes a few word-wide bit operations rather than a pass per item
+public abstract class ClothingFilter {
+
+    // REQUIRES: category is either "colour", "fit", "mood" or "dress code"
+    // EFFECTS: returns a filter matching clothing whose category is value;
+    //          throws IllegalArgumentException for any other category
+    public static ClothingFilter is(String category, String value) {
+        if (!category.equals("colour") && !category.equals("fit")
+                && !category.equals("mood") && !category.equals("dress code")) {
+            throw new IllegalArgumentException("Cannot filter by category: " + category);
+        }
+        return new Is(category, value);
+    }
+
+    // EFFECTS: returns a filter matching clothing that filter does not match
+    public static ClothingFilter not(ClothingFilter filter) {
+        return new Not(filter);
+    }
+
+    // EFFECTS: returns a filter matching clothing that both this and other match
+    public ClothingFilter and(ClothingFilter other) {
+        return new And(this, other);
+    }
+
+    // EFFECTS: returns a filter matching clothing that this or other matches
+    public ClothingFilter or(ClothingFilter other) {
+        return new Or(this, other);
+    }
+
+    // EFFECTS: returns a new bitset of the items in bitmaps matched by this
+    abstract BitSet evaluate(Bitmaps bitmaps);
+
+    // Represents a set of items with one bit per item that filters are
+    // evaluated against
+    interface Bitmaps {
+        // EFFECTS: returns a new bitset of every item
+        BitSet all();
+
+        // EFFECTS: returns a new bitset of the items whose category is the
+        //          value with the given dictionary code
+        BitSet matching(String category, int code);
+    }
+
+    // Represents a filter for one tag value
+    private static final class Is extends ClothingFilter {
+        private final String category;
+        private final String value;
+
+        // EFFECTS: constructs a filter for clothing whose category is value
+        private Is(String category, String value) {
+            this.category = category;
+            this.value = value;
+        }
+
+        @Override
+        BitSet evaluate(Bitmaps bitmaps) {
+            int code = AttributeDictionary.getInstance().lookup(value);
+            return code == AttributeDictionary.NOT_FOUND ? new BitSet()
+                    : bitmaps.matching(category, code);
+        }
+    }
+
+    // Represents the complement of a filter
+    private static final class Not extends ClothingFilter {
+        private final ClothingFilter filter;
+
+        // EFFECTS: constructs a filter for clothing that filter does not match
+        private Not(ClothingFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        BitSet evaluate(Bitmaps bitmaps) {
+            BitSet result = bitmaps.all();
+            result.andNot(filter.evaluate(bitmaps));
+            return result;
+        }
+    }
+
+    // Represents the intersection of two filters
+    private static final class And extends ClothingFilter {
+        private final ClothingFilter left;
+        private final ClothingFilter right;
+
+        // EFFECTS: constructs a filter for clothing both left and right match
+        private And(ClothingFilter left, ClothingFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        BitSet evaluate(Bitmaps bitmaps) {
+            BitSet result = left.evaluate(bitmaps);
+            if (!result.isEmpty()) {
+                result.and(right.evaluate(bitmaps));
+            }
+            return result;
+        }
+    }
+
+    // Represents the union of two filters
+    private static final class Or extends ClothingFilter {
+        private final ClothingFilter left;
+        private final ClothingFilter right;
+
+        // EFFECTS: constructs a filter for clothing left or right matches
+        private Or(ClothingFilter left, ClothingFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        BitSet evaluate(Bitmaps bitmaps) {
+            BitSet result = left.evaluate(bitmaps);
+            result.or(right.evaluate(bitmaps));
+            return result;
+        }
+    }
+}
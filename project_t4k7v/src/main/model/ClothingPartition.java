@@ -0,0 +1,156 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+// Represents an insertion-ordered run of clothing (e.g, all tops) in which
+// removing an item only empties the slot it was added to. emptied slots are
+// squeezed out when the removals are finished, in a single pass from the
+// first emptied slot, so a batch of removals costs one pass over the
+// partition in total and reading never changes it
+class ClothingPartition {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Slot[] slots;       // slots handed out so far, null once emptied
+    private int end;            // no. of slots handed out, emptied or not
+    private int size;           // no. of slots still holding clothing
+    private int firstEmptied;   // index of the first emptied slot, or end if none
+    private final View view;
+
+    // EFFECTS: constructs an empty partition
+    ClothingPartition() {
+        this.slots = new Slot[INITIAL_CAPACITY];
+        this.end = 0;
+        this.size = 0;
+        this.firstEmptied = 0;
+        this.view = new View();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends c to the end of this partition and returns the slot
+    //          holding it
+    Slot add(Clothing c) {
+        finishRemovals();
+        if (end == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+
+        Slot slot = new Slot(c, this, end);
+        slots[end] = slot;
+        end++;
+        firstEmptied = end;
+        size++;
+        view.changed();
+        return slot;
+    }
+
+    // REQUIRES: slot was handed out by this partition and not yet removed
+    // MODIFIES: this
+    // EFFECTS: empties the given slot; the partition must not be read until
+    //          finishRemovals() is called
+    private void remove(Slot slot) {
+        slots[slot.index] = null;
+        firstEmptied = Math.min(firstEmptied, slot.index);
+        slot.index = -1;
+        size--;
+        view.changed();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves every non-empty slot down over the emptied ones, keeping
+    //          their order, and updates each moved slot's index
+    void finishRemovals() {
+        if (size == end) {
+            return;
+        }
+
+        int write = firstEmptied;
+        for (int read = firstEmptied; read < end; read++) {
+            Slot slot = slots[read];
+            if (slot != null) {
+                slot.index = write;
+                slots[write] = slot;
+                write++;
+            }
+        }
+
+        Arrays.fill(slots, write, end, null);
+        end = write;
+        firstEmptied = end;
+    }
+
+    // EFFECTS: returns the no. of items in this partition
+    int size() {
+        return size;
+    }
+
+    // EFFECTS: returns a live, read-only list view of the items in this partition
+    List<Clothing> asList() {
+        return view;
+    }
+
+    // Represents the position of one item in one partition
+    static final class Slot {
+        private final Clothing item;
+        private final ClothingPartition owner;
+        private int index;  // position in owner, or -1 once removed
+
+        // EFFECTS: constructs a slot for item at index in owner
+        private Slot(Clothing item, ClothingPartition owner, int index) {
+            this.item = item;
+            this.owner = owner;
+            this.index = index;
+        }
+
+        // MODIFIES: this, owner
+        // EFFECTS: removes item from the partition holding it, if it is still
+        //          there, and returns that partition
+        ClothingPartition remove() {
+            if (index >= 0) {
+                owner.remove(this);
+            }
+            return owner;
+        }
+
+        Clothing getItem() {
+            return this.item;
+        }
+
+        // EFFECTS: returns the position of this slot in its partition, or -1
+        //          once it is removed
+        int getIndex() {
+            return this.index;
+        }
+
+        // EFFECTS: returns true if this slot was handed out by partition
+        boolean isIn(ClothingPartition partition) {
+            return this.owner == partition;
+        }
+    }
+
+    // Represents a read-only list view of the partition. its modCount moves
+    // on every add and remove, so iterating over it while the partition
+    // changes throws ConcurrentModificationException
+    private final class View extends AbstractList<Clothing> implements RandomAccess {
+        @Override
+        public Clothing get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return slots[index].item;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: records a change to the partition's structure
+        private void changed() {
+            modCount++;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package model;
+
+// Represents a store of clothing items that are read one field at a time,
+// e.g, a memory-mapped wardrobe file, so an item's fields need not be
+// decoded until they are asked for. items are numbered from 0 in the order
+// they were added
+public interface ClothingSource {
+    // numbers of the fields of an item
+    int ID = 0;
+    int TYPE = 1;
+    int COLOUR = 2;
+    int FIT = 3;
+    int MOOD = 4;
+    int DRESS_CODE = 5;
+
+    // EFFECTS: returns the no. of items in the store
+    int size();
+
+    // REQUIRES: 0 <= ordinal < size(), field is one of the field numbers
+    // EFFECTS: returns the given field of item no. ordinal
+    String field(int ordinal, int field);
+
+    // REQUIRES: 0 <= ordinal < size(), field is one of the field numbers
+    //           other than ID
+    // EFFECTS: returns the code in AttributeDictionary of the given field of
+    //          item no. ordinal
+    default int code(int ordinal, int field) {
+        return AttributeDictionary.getInstance().encode(field(ordinal, field));
+    }
+}
@@ -0,0 +1,557 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+// Represents a wardrobe that stores its clothing column by column rather than
+// as Clothing objects: one array of IDs, one int array per dictionary-encoded
+// tag, and a kind column (top, bottom, jacket or accessory) that takes the
+// place of the four sub-lists. filtering scans a single int column, and
+// clothing is only created when it is read from one of the list views. it
+// keeps none of the lists and indexes a Wardrobe keeps, and rows stay in the
+// order they were added, so removing an item moves every row after it, as
+// removing from an array list does
+public class ColumnarWardrobe extends Wardrobe {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final byte TOP = 0;
+    private static final byte BOTTOM = 1;
+    private static final byte JACKET = 2;
+    private static final byte ACCESSORY = 3;
+    private static final byte NO_KIND = -1;
+    private static final int KINDS = 4;
+
+    private String[] ids;       // row -> ID
+    private int[] types;        // row -> type code
+    private int[] colours;      // row -> colour code
+    private int[] fits;         // row -> fit code
+    private int[] moods;        // row -> mood code
+    private int[] dressCodes;   // row -> dress code code
+    private byte[] kinds;       // row -> TOP, BOTTOM, JACKET, ACCESSORY or NO_KIND
+    private int size;           // no. of rows in use
+
+    private int[][] rowsByKind;  // kind -> rows of that kind, in order
+    private int[] countByKind;   // kind -> no. of rows of that kind
+
+    private int[] colourCounts;     // colour code -> no. of rows with it
+    private int[] fitCounts;        // fit code -> no. of rows with it
+    private int[] moodCounts;       // mood code -> no. of rows with it
+    private int[] dressCodeCounts;  // dress code code -> no. of rows with it
+
+    private final List<Clothing> allView;
+    private final List<List<Clothing>> kindViews;  // kind -> view of its rows
+
+    // EFFECTS: constructs an empty columnar wardrobe
+    public ColumnarWardrobe() {
+        super(false);
+        this.ids = new String[INITIAL_CAPACITY];
+        this.types = new int[INITIAL_CAPACITY];
+        this.colours = new int[INITIAL_CAPACITY];
+        this.fits = new int[INITIAL_CAPACITY];
+        this.moods = new int[INITIAL_CAPACITY];
+        this.dressCodes = new int[INITIAL_CAPACITY];
+        this.kinds = new byte[INITIAL_CAPACITY];
+        this.size = 0;
+        this.rowsByKind = new int[KINDS][INITIAL_CAPACITY];
+        this.countByKind = new int[KINDS];
+        this.colourCounts = new int[INITIAL_CAPACITY];
+        this.fitCounts = new int[INITIAL_CAPACITY];
+        this.moodCounts = new int[INITIAL_CAPACITY];
+        this.dressCodeCounts = new int[INITIAL_CAPACITY];
+        this.allView = new AllView();
+        this.kindViews = new ArrayList<>(KINDS);
+        for (byte kind = 0; kind < KINDS; kind++) {
+            this.kindViews.add(new KindView(kind));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends c as a new row
+    @Override
+    public void addClothing(Clothing c) {
+        long start = System.nanoTime();
+        holdChanges(() -> addRow(c));
+        ADD_LATENCY.recordSince(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends c as a row to every column and indexes it, then logs
+    //          it as added
+    private void addRow(Clothing c) {
+        if (size == ids.length) {
+            grow();
+        }
+
+        ids[size] = c.getId();
+        types[size] = c.getTypeCode();
+        colours[size] = c.getColourCode();
+        fits[size] = c.getFitCode();
+        moods[size] = c.getMoodCode();
+        dressCodes[size] = c.getDressCodeCode();
+        kinds[size] = kindOf(c.getType());
+        addToKind(kinds[size], size);
+        count(size);
+        size++;
+
+        modified();
+        log(new Event(Event.Operation.ADDED, c));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every row with ID "str"
+    @Override
+    public void removeClothing(String str) {
+        long start = System.nanoTime();
+        holdChanges(() -> {
+            List<Clothing> removed = removeRows(str::equals);
+            if (!removed.isEmpty()) {
+                modified();
+            }
+            logRemovals(removed);
+        });
+        REMOVE_LATENCY.recordSince(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every row whose ID is in ids, in a single pass
+    @Override
+    public void removeClothing(Collection<String> ids) {
+        long start = System.nanoTime();
+        Set<String> toRemove = new HashSet<>(ids);
+        holdChanges(() -> {
+            List<Clothing> removed = removeRows(toRemove::contains);
+            if (!removed.isEmpty()) {
+                modified();
+            }
+            logRemovals(removed);
+        });
+        REMOVE_LATENCY.recordSince(start);
+    }
+
+    // REQUIRES: - category is either "colour", "fit", or "mood"
+    //           - toFilter must be a Wardrobe field, e.g, this.bottoms
+    // EFFECTS: filters given list of clothing, toFilter, by preference
+    //          (e.g, "preppy") in category (e.g, mood), and returns the
+    //          filtered list. when toFilter is one of this wardrobe's views,
+    //          only the category's column is scanned; otherwise toFilter has
+    //          already been narrowed down by the caller and each item's
+    //          attribute code is compared against the preference's code
+    @Override
+    public List<Clothing> filterAll(String category, String preference,
+                                    List<Clothing> toFilter) {
+        long start = System.nanoTime();
+        int code = AttributeDictionary.getInstance().lookup(preference);
+        List<Clothing> result = new ArrayList<>();
+        if (code != AttributeDictionary.NOT_FOUND && (toFilter == allView || isOwnView(toFilter))) {
+            result = scan(columnFor(category), code, toFilter);
+        } else if (code != AttributeDictionary.NOT_FOUND) {
+            ToIntFunction<Clothing> attribute = codeOf(category);
+            result = toFilter.stream().filter(c -> attribute.applyAsInt(c) == code)
+                    .collect(Collectors.toList());
+        }
+
+        log(new Event(Event.Operation.FILTERED));
+        FILTER_ALL_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // REQUIRES: view is allView or one of kindViews
+    // EFFECTS: returns the items of the rows in view whose value in column is code
+    private List<Clothing> scan(int[] column, int code, List<Clothing> view) {
+        List<Clothing> result = new ArrayList<>();
+        if (view == allView) {
+            for (int row = 0; row < size; row++) {
+                if (column[row] == code) {
+                    result.add(clothingAt(row));
+                }
+            }
+        } else {
+            byte kind = ((KindView) view).kind;
+            int[] rows = rowsByKind[kind];
+            for (int i = 0; i < countByKind[kind]; i++) {
+                if (column[rows[i]] == code) {
+                    result.add(clothingAt(rows[i]));
+                }
+            }
+        }
+        return result;
+    }
+
+    // EFFECTS: returns every item that matches filter in the order they were
+    //          added, turning each tag value the filter mentions into a bitset
+    //          of rows with one scan of its column
+    @Override
+    public List<Clothing> filter(ClothingFilter filter) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+
+        BitSet matches = filter.evaluate(new RowBitmaps());
+        List<Clothing> result = new ArrayList<>(matches.cardinality());
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            result.add(clothingAt(row));
+        }
+        FILTER_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // REQUIRES: every key of criteria is either "colour", "fit", "mood" or
+    //           "dress code"
+    // EFFECTS: returns every item that matches all of criteria (category ->
+    //          preference) in the order they were added, scanning the rows
+    //          once and checking the columns with the fewest matching rows first
+    @Override
+    public List<Clothing> query(Map<String, String> criteria) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        try {
+            return scanRows(criteria);
+        } finally {
+            QUERY_LATENCY.recordSince(start);
+        }
+    }
+
+    // EFFECTS: returns the items of the rows that match all of criteria,
+    //          checking the columns with the fewest matching rows first
+    private List<Clothing> scanRows(Map<String, String> criteria) {
+        int checks = criteria.size();
+        int[][] columns = new int[checks][];
+        int[] preferences = new int[checks];
+        int[] matches = new int[checks];
+        int i = 0;
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            int code = AttributeDictionary.getInstance().lookup(criterion.getValue());
+            int[] counts = countsFor(criterion.getKey());
+            if (code == AttributeDictionary.NOT_FOUND || code >= counts.length
+                    || counts[code] == 0) {
+                return new ArrayList<>();
+            }
+            insertBySelectivity(columns, preferences, matches, i,
+                    columnFor(criterion.getKey()), code, counts[code]);
+            i++;
+        }
+        return matchingRows(columns, preferences);
+    }
+
+    // EFFECTS: returns the items of every row whose value in columns[i] is
+    //          preferences[i] for every i, in order
+    private List<Clothing> matchingRows(int[][] columns, int[] preferences) {
+        List<Clothing> result = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (matchesAll(row, columns, preferences)) {
+                result.add(clothingAt(row));
+            }
+        }
+        return result;
+    }
+
+    // MODIFIES: columns, preferences, matches
+    // EFFECTS: inserts the given check into the first filled checks of columns,
+    //          preferences and matches, keeping them sorted by fewest matches
+    private void insertBySelectivity(int[][] columns, int[] preferences, int[] matches,
+                                     int filled, int[] column, int code, int count) {
+        int at = filled;
+        while (at > 0 && matches[at - 1] > count) {
+            columns[at] = columns[at - 1];
+            preferences[at] = preferences[at - 1];
+            matches[at] = matches[at - 1];
+            at--;
+        }
+        columns[at] = column;
+        preferences[at] = code;
+        matches[at] = count;
+    }
+
+    // EFFECTS: returns true if, for every i, columns[i] holds preferences[i]
+    //          at the given row
+    private boolean matchesAll(int row, int[][] columns, int[] preferences) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i][row] != preferences[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<Clothing> getAllClothes() {
+        return this.allView;
+    }
+
+    @Override
+    public List<Clothing> getTops() {
+        return this.kindViews.get(TOP);
+    }
+
+    @Override
+    public List<Clothing> getBottoms() {
+        return this.kindViews.get(BOTTOM);
+    }
+
+    @Override
+    public List<Clothing> getJackets() {
+        return this.kindViews.get(JACKET);
+    }
+
+    @Override
+    public List<Clothing> getAccessories() {
+        return this.kindViews.get(ACCESSORY);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves every row after the first removed one whose ID is not
+    //          removed down over the removed ones, keeping their order, and
+    //          returns the items in the removed rows. the rows before the
+    //          first removed one keep their place, in the columns and in the
+    //          rows of each kind, so only the rows after it are moved
+    private List<Clothing> removeRows(Predicate<String> isRemoved) {
+        List<Clothing> removed = new ArrayList<>();
+        int first = 0;
+        while (first < size && !isRemoved.test(ids[first])) {
+            first++;
+        }
+        truncateKinds(first);
+        int write = first;
+
+        for (int read = first; read < size; read++) {
+            if (!isRemoved.test(ids[read])) {
+                moveRow(read, write);
+                addToKind(kinds[write], write);
+                write++;
+            } else {
+                removed.add(clothingAt(read));
+                uncount(read);
+            }
+        }
+
+        Arrays.fill(ids, write, size, null);
+        size = write;
+        return removed;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets every row from the given one on in the rows of each kind
+    private void truncateKinds(int from) {
+        for (int kind = 0; kind < KINDS; kind++) {
+            while (countByKind[kind] > 0 && rowsByKind[kind][countByKind[kind] - 1] >= from) {
+                countByKind[kind]--;
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: copies every column of row from into row to
+    private void moveRow(int from, int to) {
+        ids[to] = ids[from];
+        types[to] = types[from];
+        colours[to] = colours[from];
+        fits[to] = fits[from];
+        moods[to] = moods[from];
+        dressCodes[to] = dressCodes[from];
+        kinds[to] = kinds[from];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records row as the next row of the given kind, if it has one
+    private void addToKind(byte kind, int row) {
+        if (kind == NO_KIND) {
+            return;
+        }
+
+        if (countByKind[kind] == rowsByKind[kind].length) {
+            rowsByKind[kind] = Arrays.copyOf(rowsByKind[kind], rowsByKind[kind].length * 2);
+        }
+        rowsByKind[kind][countByKind[kind]] = row;
+        countByKind[kind]++;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts the tags in the given row towards the no. of rows with
+    //          each value
+    private void count(int row) {
+        colourCounts = increment(colourCounts, colours[row]);
+        fitCounts = increment(fitCounts, fits[row]);
+        moodCounts = increment(moodCounts, moods[row]);
+        dressCodeCounts = increment(dressCodeCounts, dressCodes[row]);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: takes the tags in the given row off the no. of rows with each
+    //          value
+    private void uncount(int row) {
+        decrement(colourCounts, colours[row]);
+        decrement(fitCounts, fits[row]);
+        decrement(moodCounts, moods[row]);
+        decrement(dressCodeCounts, dressCodes[row]);
+    }
+
+    // REQUIRES: a row with the given code was counted in counts
+    // MODIFIES: counts
+    // EFFECTS: takes one off counts[code]; NOT_FOUND codes are not counted
+    private static void decrement(int[] counts, int code) {
+        if (code != AttributeDictionary.NOT_FOUND) {
+            counts[code]--;
+        }
+    }
+
+    // EFFECTS: adds one to counts[code], growing counts first if needed, and
+    //          returns counts; NOT_FOUND codes are not counted
+    private static int[] increment(int[] counts, int code) {
+        if (code == AttributeDictionary.NOT_FOUND) {
+            return counts;
+        }
+
+        int[] result = counts;
+        if (code >= counts.length) {
+            result = Arrays.copyOf(counts, Math.max(counts.length * 2, code + 1));
+        }
+        result[code]++;
+        return result;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: doubles the capacity of every column
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        colours = Arrays.copyOf(colours, capacity);
+        fits = Arrays.copyOf(fits, capacity);
+        moods = Arrays.copyOf(moods, capacity);
+        dressCodes = Arrays.copyOf(dressCodes, capacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+    }
+
+    // REQUIRES: 0 <= row < size
+    // EFFECTS: returns the clothing stored in the given row
+    private Clothing clothingAt(int row) {
+        return new Clothing(ids[row], types[row], colours[row], fits[row], moods[row],
+                dressCodes[row]);
+    }
+
+    // EFFECTS: returns the column for the given filter category; any category
+    //          other than "colour", "fit" or "mood" is treated as dress code
+    private int[] columnFor(String category) {
+        if (category.equals("colour")) {
+            return colours;
+        } else if (category.equals("fit")) {
+            return fits;
+        } else if (category.equals("mood")) {
+            return moods;
+        } else {
+            return dressCodes;
+        }
+    }
+
+    // EFFECTS: returns the no. of rows with each value of the given filter
+    //          category, following the same rules as columnFor
+    private int[] countsFor(String category) {
+        if (category.equals("colour")) {
+            return colourCounts;
+        } else if (category.equals("fit")) {
+            return fitCounts;
+        } else if (category.equals("mood")) {
+            return moodCounts;
+        } else {
+            return dressCodeCounts;
+        }
+    }
+
+    // EFFECTS: returns true if list is one of this wardrobe's four kind views
+    private boolean isOwnView(List<Clothing> list) {
+        for (List<Clothing> view : kindViews) {
+            if (view == list) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // EFFECTS: returns the kind of clothing with the given type, or NO_KIND
+    //          if the type is not "top", "bottom", "jacket" or "accessory"
+    private static byte kindOf(String type) {
+        if (type == null) {
+            return NO_KIND;
+        } else if (type.equalsIgnoreCase("top")) {
+            return TOP;
+        } else if (type.equalsIgnoreCase("bottom")) {
+            return BOTTOM;
+        } else if (type.equalsIgnoreCase("jacket")) {
+            return JACKET;
+        } else if (type.equalsIgnoreCase("accessory")) {
+            return ACCESSORY;
+        }
+        return NO_KIND;
+    }
+
+    // Represents the rows of this wardrobe as bitsets, one bit per row
+    private final class RowBitmaps implements ClothingFilter.Bitmaps {
+        @Override
+        public BitSet all() {
+            BitSet result = new BitSet(size);
+            result.set(0, size);
+            return result;
+        }
+
+        @Override
+        public BitSet matching(String category, int code) {
+            int[] column = columnFor(category);
+            BitSet result = new BitSet(size);
+            for (int row = 0; row < size; row++) {
+                if (column[row] == code) {
+                    result.set(row);
+                }
+            }
+            return result;
+        }
+    }
+
+    // Represents a read-only view of every row, in order
+    private final class AllView extends AbstractList<Clothing> implements RandomAccess {
+        @Override
+        public Clothing get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return clothingAt(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // Represents a read-only view of the rows of one kind, in order
+    private final class KindView extends AbstractList<Clothing> implements RandomAccess {
+        private final byte kind;
+
+        // EFFECTS: constructs a view of the rows of the given kind
+        private KindView(byte kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public Clothing get(int index) {
+            if (index < 0 || index >= countByKind[kind]) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+                        + countByKind[kind]);
+            }
+            return clothingAt(rowsByKind[kind][index]);
+        }
+
+        @Override
+        public int size() {
+            return countByKind[kind];
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package model;
+
+import org.json.JSONObject;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Represents a wardrobe that many threads can read while others add and
+// remove clothing. all of its lists and indexes live in one immutable
+// snapshot that is swapped in whole after every change, so a reader never
+// blocks and always sees allClothes, the four sub-lists and the indexes at
+// the same point in time.
+// the lists are append-only arrays that each snapshot only reads up to its
+// own size, and each snapshot indexes the positions of the items with each
+// colour, fit, mood and dress code the same way. so:
+//     adding an item writes past the ends of the arrays without copying
+//     them, and copies only each index's table of values, i.e, costs
+//     O(no. of distinct attribute values)
+//     removing items copies the remaining items and rebuilds the indexes,
+//     i.e, costs O(no. of items)
+//     filterAll, query and filter look up the snapshot's indexes, so they
+//     visit only the items with the values asked for, as Wardrobe's do
+// writers take turns on a single lock rather than on striped ones, since
+// every change must be published to allClothes, a sub-list and the indexes
+// as one snapshot; changes are also logged under it, so listeners see them
+// in the order they were made
+public class ConcurrentWardrobe extends Wardrobe {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int TYPES = 4;
+    private static final int COLOUR = 0;
+    private static final int FIT = 1;
+    private static final int MOOD = 2;
+    private static final int DRESS_CODE = 3;
+    private static final int COLUMNS = 4;
+
+    private final ReentrantLock writeLock;
+    private volatile Snapshot snapshot;
+
+    // EFFECTS: constructs an empty concurrent wardrobe
+    public ConcurrentWardrobe() {
+        super();
+        this.writeLock = new ReentrantLock();
+        this.snapshot = new Snapshot();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds c to allClothes then the appropriate sub-list depending
+    //          on its type, publishing both at once
+    @Override
+    public void addClothing(Clothing c) {
+        long start = System.nanoTime();
+        writeLock.lock();
+        try {
+            snapshot = snapshot.with(c);
+            modified();
+            log(new Event(Event.Operation.ADDED, c));
+        } finally {
+            writeLock.unlock();
+        }
+        ADD_LATENCY.recordSince(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes clothing item with ID "str" from list of all clothes
+    //          and from its sublist, publishing both at once
+    @Override
+    public void removeClothing(String str) {
+        removeIf(str::equals);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every clothing item whose ID is in ids, publishing
+    //          the result at once
+    @Override
+    public void removeClothing(Collection<String> ids) {
+        Set<String> toRemove = new HashSet<>(ids);
+        removeIf(toRemove::contains);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: publishes a snapshot without the items whose ID is removed
+    //          and logs their removal
+    private void removeIf(Predicate<String> isRemoved) {
+        long start = System.nanoTime();
+        List<Clothing> removed = new ArrayList<>();
+        writeLock.lock();
+        try {
+            snapshot = snapshot.without(isRemoved, removed);
+            if (!removed.isEmpty()) {
+                modified();
+            }
+            logRemovals(removed);
+        } finally {
+            writeLock.unlock();
+        }
+        REMOVE_LATENCY.recordSince(start);
+    }
+
+    // EFFECTS: runs action holding the write lock, so no clothing is added
+    //          or removed until it returns
+    @Override
+    public void holdChanges(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // REQUIRES: - category is either "colour", "fit", or "mood"
+    //           - toFilter must be a Wardrobe field, e.g, this.bottoms
+    // EFFECTS: filters given list of clothing, toFilter, by preference
+    //          (e.g, "preppy") in category (e.g, mood), and returns the
+    //          filtered list. when toFilter is one of this wardrobe's lists,
+    //          the items are looked up in the index of the snapshot it was
+    //          taken from, so only matching items are visited
+    @Override
+    public List<Clothing> filterAll(String category, String preference,
+                                    List<Clothing> toFilter) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+
+        int code = AttributeDictionary.getInstance().lookup(preference);
+        List<Clothing> result;
+        if (toFilter instanceof ArrayView) {
+            ArrayView view = (ArrayView) toFilter;
+            result = view.owner.matching(columnOf(category), code, view.type);
+        } else {
+            result = scan(toFilter, codeOf(category), code);
+        }
+        FILTER_ALL_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // EFFECTS: returns the items of items whose attribute is code, in order
+    private static List<Clothing> scan(List<Clothing> items, ToIntFunction<Clothing> attribute, int code) {
+        List<Clothing> result = new ArrayList<>();
+        if (code != AttributeDictionary.NOT_FOUND) {
+            for (Clothing c : items) {
+                if (attribute.applyAsInt(c) == code) {
+                    result.add(c);
+                }
+            }
+        }
+        return result;
+    }
+
+    // REQUIRES: every key of criteria is either "colour", "fit", "mood" or
+    //           "dress code"
+    // EFFECTS: returns every item in the current allClothes that matches all
+    //          of criteria (category -> preference) in the order they were
+    //          added. the criterion with the fewest matches is looked up in
+    //          its index, and the rest are checked against each of those
+    //          matches in one pass
+    @Override
+    public List<Clothing> query(Map<String, String> criteria) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        try {
+            return lookUp(snapshot, criteria);
+        } finally {
+            QUERY_LATENCY.recordSince(start);
+        }
+    }
+
+    // EFFECTS: returns every item in current that matches all of criteria,
+    //          looking up the most selective one in its index
+    private static List<Clothing> lookUp(Snapshot current, Map<String, String> criteria) {
+        List<ToIntFunction<Clothing>> attributes = new ArrayList<>();
+        int[] preferences = new int[criteria.size()];
+        int fewest = -1;
+        int fewestColumn = 0;
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            int i = attributes.size();
+            int column = columnOf(criterion.getKey());
+            preferences[i] = AttributeDictionary.getInstance().lookup(criterion.getValue());
+            attributes.add(codeOf(criterion.getKey()));
+            int count = current.columns[column].count(preferences[i]);
+            if (count == 0) {
+                return new ArrayList<>();
+            } else if (fewest < 0 || count < current.columns[fewestColumn].count(preferences[fewest])) {
+                fewest = i;
+                fewestColumn = column;
+            }
+        }
+        if (fewest < 0) {
+            return new ArrayList<>(current.allView());
+        }
+        return current.matchingAll(fewestColumn, preferences[fewest], attributes, preferences);
+    }
+
+    // EFFECTS: returns every item in the current allClothes that matches
+    //          filter, in the order they were added, turning each tag value
+    //          the filter mentions into a bitset from the snapshot's index
+    @Override
+    public List<Clothing> filter(ClothingFilter filter) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+
+        Snapshot current = snapshot;
+        BitSet matches = filter.evaluate(new SnapshotBitmaps(current));
+        List<Clothing> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(current.all[i]);
+        }
+        FILTER_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // EFFECTS: returns a lazy stream of every outfit from the current
+    //          sub-lists in which every pair of pieces is compatible
+    @Override
+    public Stream<Outfit> outfits(BiPredicate<Clothing, Clothing> compatible) {
+        Snapshot current = snapshot;
+        return StreamSupport.stream(new OutfitGenerator(current.view(Snapshot.TOP),
+                current.view(Snapshot.BOTTOM), current.view(Snapshot.JACKET),
+                current.view(Snapshot.ACCESSORY), compatible), false);
+    }
+
+    // EFFECTS: creates and returns the current snapshot as JSON object
+    @Override
+    public JSONObject toJson() {
+        Snapshot current = snapshot;
+        JSONObject json = new JSONObject();
+        json.put("allClothes", clothingToJson(current.allView()));
+        json.put("tops", clothingToJson(current.view(Snapshot.TOP)));
+        json.put("bottoms", clothingToJson(current.view(Snapshot.BOTTOM)));
+        json.put("jackets", clothingToJson(current.view(Snapshot.JACKET)));
+        json.put("accessories", clothingToJson(current.view(Snapshot.ACCESSORY)));
+        return json;
+    }
+
+    // EFFECTS: returns every item added so far, as of now; the list does not
+    //          change when the wardrobe does
+    @Override
+    public List<Clothing> getAllClothes() {
+        return snapshot.allView();
+    }
+
+    @Override
+    public List<Clothing> getTops() {
+        return snapshot.view(Snapshot.TOP);
+    }
+
+    @Override
+    public List<Clothing> getBottoms() {
+        return snapshot.view(Snapshot.BOTTOM);
+    }
+
+    @Override
+    public List<Clothing> getJackets() {
+        return snapshot.view(Snapshot.JACKET);
+    }
+
+    @Override
+    public List<Clothing> getAccessories() {
+        return snapshot.view(Snapshot.ACCESSORY);
+    }
+
+    // EFFECTS: returns true if, for every i, the attribute code given by
+    //          attributes[i] of c equals preferences[i]
+    private static boolean matchesAll(Clothing c, List<ToIntFunction<Clothing>> attributes,
+                                      int[] preferences) {
+        for (int i = 0; i < preferences.length; i++) {
+            if (attributes.get(i).applyAsInt(c) != preferences[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns the index column for the given filter category,
+    //          following the same rules as codeOf
+    private static int columnOf(String category) {
+        if (category.equals("colour")) {
+            return COLOUR;
+        } else if (category.equals("fit")) {
+            return FIT;
+        } else if (category.equals("mood")) {
+            return MOOD;
+        } else {
+            return DRESS_CODE;
+        }
+    }
+
+    // Represents the contents of the wardrobe at one point in time. a snapshot
+    // never changes once published: it only reads its arrays up to its sizes,
+    // and later snapshots only write past them
+    private static final class Snapshot {
+        private static final int TOP = 0;
+        private static final int BOTTOM = 1;
+        private static final int JACKET = 2;
+        private static final int ACCESSORY = 3;
+
+        private final Clothing[] all;
+        private final int allSize;
+        private final Clothing[][] byType;  // type -> items of that type
+        private final int[] typeSizes;      // type -> no. of items of that type
+        private final Column[] columns;     // COLOUR, FIT, MOOD, DRESS_CODE -> index
+
+        // EFFECTS: constructs an empty snapshot
+        private Snapshot() {
+            this(new Clothing[INITIAL_CAPACITY], 0, new Clothing[TYPES][INITIAL_CAPACITY],
+                    new int[TYPES], emptyColumns());
+        }
+
+        // EFFECTS: constructs a snapshot of the given arrays up to the given sizes
+        private Snapshot(Clothing[] all, int allSize, Clothing[][] byType, int[] typeSizes,
+                         Column[] columns) {
+            this.all = all;
+            this.allSize = allSize;
+            this.byType = byType;
+            this.typeSizes = typeSizes;
+            this.columns = columns;
+        }
+
+        // REQUIRES: the caller holds the write lock and this is the latest snapshot
+        // EFFECTS: returns a snapshot of this with c added
+        private Snapshot with(Clothing c) {
+            Clothing[] newAll = append(all, allSize, c);
+            Clothing[][] newByType = byType.clone();
+            int[] newTypeSizes = typeSizes.clone();
+
+            int type = typeOf(c.getType());
+            if (type >= 0) {
+                newByType[type] = append(byType[type], typeSizes[type], c);
+                newTypeSizes[type]++;
+            }
+            Column[] newColumns = new Column[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                newColumns[column] = new Column(columns[column]);
+            }
+            index(newColumns, c, allSize);
+            return new Snapshot(newAll, allSize + 1, newByType, newTypeSizes, newColumns);
+        }
+
+        // MODIFIES: removed
+        // EFFECTS: returns a snapshot of this without the items whose ID is
+        //          removed, leaving this snapshot's arrays untouched, and adds
+        //          those items to removed
+        private Snapshot without(Predicate<String> isRemoved, List<Clothing> removed) {
+            Clothing[] newAll = new Clothing[Math.max(INITIAL_CAPACITY, allSize)];
+            int newAllSize = 0;
+            Clothing[][] newByType = new Clothing[TYPES][];
+            int[] newTypeSizes = new int[TYPES];
+            Column[] newColumns = emptyColumns();
+            Arrays.setAll(newByType, type -> new Clothing[Math.max(INITIAL_CAPACITY, typeSizes[type])]);
+
+            for (int i = 0; i < allSize; i++) {
+                Clothing c = all[i];
+                if (!isRemoved.test(c.getId())) {
+                    index(newColumns, c, newAllSize);
+                    newAll[newAllSize] = c;
+                    newAllSize++;
+                    int type = typeOf(c.getType());
+                    if (type >= 0) {
+                        newByType[type][newTypeSizes[type]] = c;
+                        newTypeSizes[type]++;
+                    }
+                } else {
+                    removed.add(c);
+                }
+            }
+            return new Snapshot(newAll, newAllSize, newByType, newTypeSizes, newColumns);
+        }
+
+        // EFFECTS: returns a read-only list of every item in this snapshot
+        private List<Clothing> allView() {
+            return new ArrayView(this, -1, all, allSize);
+        }
+
+        // EFFECTS: returns a read-only list of the items of the given type
+        private List<Clothing> view(int type) {
+            return new ArrayView(this, type, byType[type], typeSizes[type]);
+        }
+
+        // EFFECTS: returns the items, of the given type unless it is -1, whose
+        //          value in column is code, in the order they were added
+        private List<Clothing> matching(int column, int code, int type) {
+            List<Clothing> result = new ArrayList<>();
+            Column index = columns[column];
+            for (int i = 0; i < index.count(code); i++) {
+                Clothing c = all[index.position(code, i)];
+                if (type < 0 || typeOf(c.getType()) == type) {
+                    result.add(c);
+                }
+            }
+            return result;
+        }
+
+        // EFFECTS: returns the items whose value in column is code and whose
+        //          attributes[i] is preferences[i] for every i, in order
+        private List<Clothing> matchingAll(int column, int code, List<ToIntFunction<Clothing>> attributes,
+                                           int[] preferences) {
+            List<Clothing> result = new ArrayList<>();
+            Column index = columns[column];
+            for (int i = 0; i < index.count(code); i++) {
+                Clothing c = all[index.position(code, i)];
+                if (matchesAll(c, attributes, preferences)) {
+                    result.add(c);
+                }
+            }
+            return result;
+        }
+
+        // EFFECTS: returns a new, empty index for each column
+        private static Column[] emptyColumns() {
+            Column[] columns = new Column[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                columns[column] = new Column();
+            }
+            return columns;
+        }
+
+        // REQUIRES: columns are not yet published in a snapshot
+        // MODIFIES: columns
+        // EFFECTS: indexes c at position under each of its attribute values
+        private static void index(Column[] columns, Clothing c, int position) {
+            columns[COLOUR].add(c.getColourCode(), position);
+            columns[FIT].add(c.getFitCode(), position);
+            columns[MOOD].add(c.getMoodCode(), position);
+            columns[DRESS_CODE].add(c.getDressCodeCode(), position);
+        }
+
+        // EFFECTS: writes c at index size of items, first copying items into
+        //          a larger array if it is full, and returns the array written to
+        private static Clothing[] append(Clothing[] items, int size, Clothing c) {
+            Clothing[] result = items;
+            if (size == items.length) {
+                result = Arrays.copyOf(items, items.length * 2);
+            }
+            result[size] = c;
+            return result;
+        }
+
+        // EFFECTS: returns TOP, BOTTOM, JACKET or ACCESSORY for the given
+        //          type, or -1 if it is none of them
+        private static int typeOf(String type) {
+            if (type == null) {
+                return -1;
+            } else if (type.equalsIgnoreCase("top")) {
+                return TOP;
+            } else if (type.equalsIgnoreCase("bottom")) {
+                return BOTTOM;
+            } else if (type.equalsIgnoreCase("jacket")) {
+                return JACKET;
+            } else if (type.equalsIgnoreCase("accessory")) {
+                return ACCESSORY;
+            }
+            return -1;
+        }
+    }
+
+    // Represents the positions in a snapshot's allClothes of the items with
+    // each code of one attribute. like the snapshot's arrays, the positions
+    // of each code are only read up to their count and only written past it
+    // by the indexes of later snapshots
+    private static final class Column {
+        private int[][] positions;  // code -> positions of the items with it
+        private int[] counts;       // code -> no. of those positions
+
+        // EFFECTS: constructs an empty index
+        private Column() {
+            this.positions = new int[0][];
+            this.counts = new int[0];
+        }
+
+        // EFFECTS: constructs an index of the same positions as other, to be
+        //          added to without changing other
+        private Column(Column other) {
+            this.positions = other.positions.clone();
+            this.counts = other.counts.clone();
+        }
+
+        // REQUIRES: this is not yet published in a snapshot
+        // MODIFIES: this
+        // EFFECTS: adds position under code, unless code is NOT_FOUND
+        private void add(int code, int position) {
+            if (code == AttributeDictionary.NOT_FOUND) {
+                return;
+            } else if (code >= counts.length) {
+                int length = Math.max(code + 1, counts.length * 2);
+                positions = Arrays.copyOf(positions, length);
+                counts = Arrays.copyOf(counts, length);
+            }
+            if (positions[code] == null) {
+                positions[code] = new int[INITIAL_CAPACITY];
+            } else if (counts[code] == positions[code].length) {
+                positions[code] = Arrays.copyOf(positions[code], counts[code] * 2);
+            }
+            positions[code][counts[code]] = position;
+            counts[code]++;
+        }
+
+        // EFFECTS: returns the no. of positions under code
+        private int count(int code) {
+            return code >= 0 && code < counts.length ? counts[code] : 0;
+        }
+
+        // REQUIRES: 0 <= i < count(code)
+        // EFFECTS: returns the i-th position under code
+        private int position(int code, int i) {
+            return positions[code][i];
+        }
+    }
+
+    // Represents a read-only list of the first size items of an array of a
+    // snapshot: its allClothes, or the sub-list of one type
+    private static final class ArrayView extends AbstractList<Clothing> implements RandomAccess {
+        private final Snapshot owner;
+        private final int type;     // the sub-list's type, or -1 for allClothes
+        private final Clothing[] items;
+        private final int size;
+
+        // EFFECTS: constructs a view of items[0, size) of owner
+        private ArrayView(Snapshot owner, int type, Clothing[] items, int size) {
+            this.owner = owner;
+            this.type = type;
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public Clothing get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // Represents the items of a snapshot as bitsets, one bit per position in
+    // its allClothes, built from its indexes
+    private static final class SnapshotBitmaps implements ClothingFilter.Bitmaps {
+        private final Snapshot snapshot;
+
+        // EFFECTS: constructs bitmaps over the items of snapshot
+        private SnapshotBitmaps(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public BitSet all() {
+            BitSet result = new BitSet(snapshot.allSize);
+            result.set(0, snapshot.allSize);
+            return result;
+        }
+
+        @Override
+        public BitSet matching(String category, int code) {
+            Column index = snapshot.columns[columnOf(category)];
+            BitSet result = new BitSet(snapshot.allSize);
+            for (int i = 0; i < index.count(code); i++) {
+                result.set(index.position(code, i));
+            }
+            return result;
+        }
+    }
+}
@@ -1,16 +1,51 @@
 package model;
 
-import java.util.Calendar;
 import java.util.Date;
+import java.util.Objects;
 
 
 /**
  * Represents an alarm system event.
+ * The time it was logged is kept as a primitive timestamp and only
+ * turned into a Date when read, so logging an event allocates nothing
+ * but the event itself. Events the model logs also record what was
+ * done and, when it was done to one item, the item with its attributes.
+ * An event may stand for a run of identical events coalesced by the
+ * EventLog, in which case it also records how many there were and
+ * when the last of them was logged.
  */
 public class Event {
+    /** descriptions of the events the model logs */
+    public static final String ITEM_ADDED = "Clothing item added.";
+    public static final String ITEM_REMOVED = "Clothing item removed.";
+    public static final String FILTERED = "Filtered wardrobe for search criteria.";
+    public static final String LOG_CLEARED = "Event log cleared.";
+
+    /**
+     * What was done in an event.
+     */
+    public enum Operation {
+        ADDED(ITEM_ADDED),
+        REMOVED(ITEM_REMOVED),
+        FILTERED(Event.FILTERED),
+        CLEARED(LOG_CLEARED),
+        OTHER(null);
+
+        private final String description;
+
+        Operation(String description) {
+            this.description = description;
+        }
+    }
+
     private static final int HASH_CONSTANT = 13;
-    private Date dateLogged;
-    private String description;
+    private final long timeLogged;   // milliseconds since the epoch
+    private final long nanoLogged;   // System.nanoTime() when logged
+    private final Operation operation;
+    private final String description;
+    private final Clothing item;     // item the event was about, or null
+    private final int count;         // no. of identical events this stands for
+    private final long lastLogged;   // milliseconds since the epoch of the last of them
 
     /**
      * Creates an event with the given description
@@ -18,8 +53,68 @@ public class Event {
      * @param description  a description of the event
      */
     public Event(String description) {
-        dateLogged = Calendar.getInstance().getTime();
+        this(Operation.OTHER, description, null);
+    }
+
+    /**
+     * Creates an event for the given operation that was not done
+     * to any one item, e.g, a search, with the current date/time stamp.
+     * @param operation  what was done
+     */
+    public Event(Operation operation) {
+        this(operation, operation.description, null);
+    }
+
+    /**
+     * Creates an event for the given operation done to item
+     * with the current date/time stamp.
+     * @param operation  what was done
+     * @param item  the item it was done to
+     */
+    public Event(Operation operation, Clothing item) {
+        this(operation, operation.description, item);
+    }
+
+    private Event(Operation operation, String description, Clothing item) {
+        timeLogged = System.currentTimeMillis();
+        nanoLogged = System.nanoTime();
+        this.operation = operation;
         this.description = description;
+        this.item = item;
+        this.count = 1;
+        this.lastLogged = timeLogged;
+    }
+
+    private Event(Event run, Event repeat) {
+        timeLogged = run.timeLogged;
+        nanoLogged = run.nanoLogged;
+        operation = run.operation;
+        description = run.description;
+        item = run.item;
+        count = run.count + 1;
+        lastLogged = Math.max(run.lastLogged, repeat.timeLogged);
+    }
+
+    /**
+     * Checks whether other is identical to this event but for when it
+     * was logged, i.e, the same operation on the same item, if any.
+     * @param other  the event to compare with
+     * @return  true if other repeats this event
+     */
+    boolean isRepeatedBy(Event other) {
+        return operation == other.operation
+                && description.equals(other.description)
+                && Objects.equals(getItemId(), other.getItemId());
+    }
+
+    /**
+     * Creates an event standing for this event and its repeat.
+     * @param repeat  an event this event isRepeatedBy
+     * @return  an event with this event's time, one more in its count,
+     *          and the later of the two last times
+     */
+    Event repeatedBy(Event repeat) {
+        return new Event(this, repeat);
     }
 
     /**
@@ -27,7 +122,42 @@ public class Event {
      * @return  the date of the event
      */
     public Date getDate() {
-        return dateLogged;
+        return new Date(timeLogged);
+    }
+
+    /**
+     * Gets the time this event was logged in milliseconds since the epoch.
+     * @return  the time of the event
+     */
+    public long getTime() {
+        return timeLogged;
+    }
+
+    /**
+     * Gets the value of System.nanoTime() when this event was logged;
+     * only meaningful compared with other such values in the same run,
+     * e.g, to time the gap between two events.
+     * @return  the monotonic time of the event in nanoseconds
+     */
+    public long getNanoTime() {
+        return nanoLogged;
+    }
+
+    /**
+     * Gets the no. of identical events this event stands for.
+     * @return  the count of the event, 1 unless coalesced
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the time the last of the identical events this event stands
+     * for was logged, in milliseconds since the epoch.
+     * @return  the time of the last repeat, getTime() unless coalesced
+     */
+    public long getLastTime() {
+        return lastLogged;
     }
 
     /**
@@ -38,6 +168,30 @@ public class Event {
         return description;
     }
 
+    /**
+     * Gets what was done in this event.
+     * @return  the operation of the event, OTHER if not known
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Gets the item this event was about, with its attributes.
+     * @return  the item, or null if the event was not about one item
+     */
+    public Clothing getItem() {
+        return item;
+    }
+
+    /**
+     * Gets the ID of the item this event was about.
+     * @return  the ID of the item, or null if the event was not about one item
+     */
+    public String getItemId() {
+        return item == null ? null : item.getId();
+    }
+
     @Override
     public boolean equals(Object other) {
         if (other == null) {
@@ -50,17 +204,22 @@ public class Event {
 
         Event otherEvent = (Event) other;
 
-        return (this.dateLogged.equals(otherEvent.dateLogged)
-                && this.description.equals(otherEvent.description));
+        return (this.timeLogged == otherEvent.timeLogged
+                && this.count == otherEvent.count
+                && this.operation == otherEvent.operation
+                && this.description.equals(otherEvent.description)
+                && Objects.equals(this.item, otherEvent.item));
     }
 
     @Override
     public int hashCode() {
-        return (HASH_CONSTANT * dateLogged.hashCode() + description.hashCode());
+        return (HASH_CONSTANT * Long.hashCode(timeLogged) + description.hashCode());
     }
 
     @Override
     public String toString() {
-        return dateLogged.toString() + "\n" + description;
+        String about = item == null ? "" : " (" + item.getId() + ")";
+        String repeats = count == 1 ? "" : " (x" + count + ", last at " + new Date(lastLogged) + ")";
+        return getDate().toString() + "\n" + description + about + repeats;
     }
 }
@@ -1,26 +1,90 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 /**
  * Represents a log of alarm system events.
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ *
+ * The log keeps only the most recent events in a fixed-size ring,
+ * overwriting the oldest once it is full. Any number of threads may
+ * log at once without locking: each claims the next sequence no. and
+ * then publishes its event into that sequence's slot.
+ *
+ * Each event is also given a log time when it claims its sequence no.:
+ * its own time, or the log time of the event before it if that is later.
+ * Log times never decrease along the ring, so the events logged in a
+ * time range are found by binary search rather than by reading them all.
+ *
+ * With a coalescing window set, an event identical to the latest one in
+ * the log, logged within the window after the first of its run, is not
+ * given a slot: the latest entry is replaced by one counting it, so a
+ * burst of repeated searches takes one slot. Listeners are given the
+ * first event of a run when it is logged and, if repeats were coalesced
+ * into it, the whole run with its count once the run ends: when another
+ * event is logged after it, e.g, a repeat after the window, or endRun()
+ * is called.
  */
 public class EventLog implements Iterable<Event> {
-    /** the only EventLog in the system (Singleton Design Pattern) */
-    private static EventLog theLog;
-    private Collection<Event> events;
+    /** system property giving the no. of events the log keeps */
+    public static final String CAPACITY_PROPERTY = "eventlog.capacity";
+    public static final int DEFAULT_CAPACITY = 4096;
+    /** system property giving the coalescing window in milliseconds */
+    public static final String COALESCE_PROPERTY = "eventlog.coalesceMillis";
+
+    private final AtomicReferenceArray<Entry> slots;
+    /** sequence no. and log time of the next event to be logged */
+    private final AtomicReference<Cursor> next;
+    /** sequence no. of the first event logged since the last clear */
+    private final AtomicLong first;
+    /** listeners told of every event logged, e.g, an on-disk journal */
+    private final List<Consumer<Event>> listeners;
+    /** repeats within this many milliseconds of a run's first event are coalesced */
+    private volatile long coalesceWindow;
+
+    /**
+     * Holds the only EventLog in the system, created when first used
+     * (Singleton Design Pattern).
+     */
+    private static final class Holder {
+        private static final EventLog THE_LOG = new EventLog(
+                Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY), Long.getLong(COALESCE_PROPERTY, 0));
+    }
 
     /**
      * Prevent external construction.
      * (Singleton Design Pattern).
+     * @param capacity  the no. of most recent events to keep; must be > 0
      */
-    private EventLog() {
-        events = new ArrayList<Event>();
+    EventLog(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     * @param capacity  the no. of most recent events to keep; must be > 0
+     * @param coalesceWindow  the coalescing window in milliseconds, 0 for none
+     */
+    EventLog(int capacity, long coalesceWindow) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        slots = new AtomicReferenceArray<>(capacity);
+        next = new AtomicReference<>(new Cursor(0, Long.MIN_VALUE));
+        first = new AtomicLong();
+        listeners = new CopyOnWriteArrayList<>();
+        setCoalesceWindow(coalesceWindow);
     }
 
     /**
@@ -30,31 +94,308 @@ public class EventLog implements Iterable<Event> {
      * @return  instance of EventLog
      */
     public static EventLog getInstance() {
-        if (theLog == null) {
-            theLog = new EventLog();
+        return Holder.THE_LOG;
+    }
+
+    /**
+     * Gets the no. of most recent events this log keeps.
+     * @return  the capacity of the log
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * Sets the window in which identical events are coalesced: a repeat of
+     * the latest event logged less than window milliseconds after the
+     * first of its run is counted in that event instead of being logged.
+     * @param window  the coalescing window in milliseconds, 0 for none
+     */
+    public void setCoalesceWindow(long window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("Invalid coalescing window: " + window);
         }
+        coalesceWindow = window;
+    }
 
-        return theLog;
+    /**
+     * Gets the window in which identical events are coalesced.
+     * @return  the coalescing window in milliseconds, 0 for none
+     */
+    public long getCoalesceWindow() {
+        return coalesceWindow;
     }
 
     /**
-     * Adds an event to the event log.
+     * Gets the no. of events in the log, including any still being
+     * published by another thread.
+     * @return  the no. of events logged since the last clear, up to
+     *          the capacity of the log
+     */
+    public int size() {
+        long end = next.get().sequence;
+        return (int) Math.min(slots.length(), end - first.get());
+    }
+
+    /**
+     * Adds an event to the event log, overwriting the oldest event
+     * if the log is full, unless it is coalesced into the latest event.
      * @param e the event to be added
      */
     public void logEvent(Event e) {
-        events.add(e);
+        if (coalesceWindow > 0 && coalesce(e)) {
+            return;
+        }
+
+        Cursor claimed;
+        Cursor after;
+        do {
+            claimed = next.get();
+            after = new Cursor(claimed.sequence + 1, Math.max(claimed.time, e.getTime()));
+        } while (!next.compareAndSet(claimed, after));
+
+        long sequence = claimed.sequence;
+        if (coalesceWindow > 0 && sequence > 0) {
+            endRun(sequence - 1);
+        }
+        Entry entry = new Entry(sequence, after.time, e, false);
+        int slot = (int) (sequence % slots.length());
+
+        // a producer that stalled after claiming its sequence must not
+        // overwrite a newer event published to the same slot meanwhile
+        while (true) {
+            Entry current = slots.get(slot);
+            if ((current != null && current.sequence > sequence)
+                    || slots.compareAndSet(slot, current, entry)) {
+                break;
+            }
+        }
+
+        tellListeners(e);
+    }
+
+    /**
+     * Ends the run of the latest event in the log, so nothing more is
+     * coalesced into it, and gives listeners the whole run if repeats
+     * were coalesced into it; e.g, before a listener is removed.
+     */
+    public void endRun() {
+        long end = next.get().sequence;
+        if (end > first.get()) {
+            endRun(end - 1);
+        }
+    }
+
+    /**
+     * Ends the run of the event logged under the given sequence no., if it
+     * is published and has not ended, and gives listeners the whole run if
+     * repeats were coalesced into it.
+     * @param sequence  the sequence no. of the run's event
+     */
+    private void endRun(long sequence) {
+        int slot = (int) (sequence % slots.length());
+        while (true) {
+            Entry run = published(sequence);
+            if (run == null || run.ended) {
+                return;
+            }
+            if (slots.compareAndSet(slot, run, new Entry(run.sequence, run.time, run.event, true))) {
+                if (run.event.getCount() > 1) {
+                    tellListeners(run.event);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives e to every listener, on this thread.
+     * @param e  the event to be given
+     */
+    private void tellListeners(Event e) {
+        for (Consumer<Event> listener : listeners) {
+            listener.accept(e);
+        }
+    }
+
+    /**
+     * Counts e in the latest event in the log if e repeats it within the
+     * coalescing window. An event logged by another thread at the same
+     * time may land before or after the run; either way nothing is lost.
+     * @param e  the event to be logged
+     * @return  true if e was coalesced, false if it must be logged
+     */
+    private boolean coalesce(Event e) {
+        while (true) {
+            long end = next.get().sequence;
+            Entry latest = end > first.get() ? published(end - 1) : null;
+            if (latest == null || latest.ended || !latest.event.isRepeatedBy(e)
+                    || e.getTime() - latest.event.getTime() >= coalesceWindow) {
+                return false;
+            }
+
+            Entry merged = new Entry(latest.sequence, latest.time, latest.event.repeatedBy(e), false);
+            if (slots.compareAndSet((int) (latest.sequence % slots.length()), latest, merged)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Adds a listener that is given every event logged from now on,
+     * on the thread that logs it; repeats that are coalesced are given
+     * to it once their run ends, counted in one event.
+     * @param listener  the listener to be added
+     */
+    public void addListener(Consumer<Event> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addListener, if it was added.
+     * @param listener  the listener to be removed
+     */
+    public void removeListener(Consumer<Event> listener) {
+        listeners.remove(listener);
     }
 
     /**
      * Clears the event log and logs the event.
      */
     public void clear() {
-        events.clear();
-        logEvent(new Event("Event log cleared."));
+        long end = next.get().sequence;
+        first.accumulateAndGet(end, Math::max);
+        logEvent(new Event(Event.Operation.CLEARED));
     }
 
+    /**
+     * Returns an iterator over the events in the log at the time of
+     * the call, oldest first. Events logged after the call are not
+     * seen; events still being published by another thread are skipped.
+     * @return  an iterator over a snapshot of the log
+     */
     @Override
     public Iterator<Event> iterator() {
-        return events.iterator();
+        long end = next.get().sequence;
+        long start = Math.max(first.get(), end - slots.length());
+        List<Event> snapshot = new ArrayList<>((int) Math.max(0, end - start));
+
+        for (long sequence = start; sequence < end; sequence++) {
+            Entry entry = published(sequence);
+            if (entry != null) {
+                snapshot.add(entry.event);
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+    /**
+     * Returns the events in the log that were logged at or after from
+     * and before to, oldest first.
+     * @param from  the earliest log time, in milliseconds since the epoch
+     * @param to  the log time to stop before, in milliseconds since the epoch
+     * @return  the events logged in [from, to)
+     */
+    public List<Event> between(long from, long to) {
+        return between(from, to, null);
+    }
+
+    /**
+     * Returns the events in the log for the given operation that were
+     * logged at or after from and before to, oldest first; e.g, every
+     * item removed in the last hour.
+     * @param from  the earliest log time, in milliseconds since the epoch
+     * @param to  the log time to stop before, in milliseconds since the epoch
+     * @param operation  the operation to find, or null for every operation
+     * @return  the events for operation logged in [from, to)
+     */
+    public List<Event> between(long from, long to, Event.Operation operation) {
+        long end = next.get().sequence;
+        long start = Math.max(first.get(), end - slots.length());
+        List<Event> result = new ArrayList<>();
+
+        for (long sequence = firstAtOrAfter(from, start, end); sequence < end; sequence++) {
+            Entry entry = published(sequence);
+            if (entry == null || entry.time < from) {
+                continue;
+            }
+            if (entry.time >= to) {
+                break;
+            }
+            if (operation == null || entry.event.getOperation() == operation) {
+                result.add(entry.event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the first sequence no. in [start, end) whose event was logged
+     * at or after time, skipping events not published yet.
+     * @return  the sequence no. found, or end if there is none
+     */
+    private long firstAtOrAfter(long time, long start, long end) {
+        long low = start;
+        long high = end;
+
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            long probe = mid;
+            Entry entry = null;
+            while (probe < high && entry == null) {
+                entry = published(probe);
+                probe++;
+            }
+
+            if (entry != null && entry.time < time) {
+                low = probe;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the entry for the given sequence no., if it has been published
+     * and not yet overwritten.
+     * @return  the entry, or null if the slot does not hold it
+     */
+    private Entry published(long sequence) {
+        Entry entry = slots.get((int) (sequence % slots.length()));
+        return entry != null && entry.sequence == sequence ? entry : null;
+    }
+
+    /**
+     * Represents an event together with the sequence no. it was logged
+     * under, so a reader can tell whether a slot still holds it, its
+     * log time, and whether its run of coalesced repeats has ended.
+     */
+    private static final class Entry {
+        private final long sequence;
+        private final long time;
+        private final Event event;
+        private final boolean ended;
+
+        private Entry(long sequence, long time, Event event, boolean ended) {
+            this.sequence = sequence;
+            this.time = time;
+            this.event = event;
+            this.ended = ended;
+        }
+    }
+
+    /**
+     * Represents the sequence no. of the next event to be logged and the
+     * log time of the event before it.
+     */
+    private static final class Cursor {
+        private final long sequence;
+        private final long time;
+
+        private Cursor(long sequence, long time) {
+            this.sequence = sequence;
+            this.time = time;
+        }
     }
 }
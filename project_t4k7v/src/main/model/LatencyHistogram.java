@@ -0,0 +1,95 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Represents a histogram of latencies in nanoseconds that any number of
+// threads can record into without locking. as in an HDR histogram, values
+// below 32 get a bucket each, and every power of two above that is split into
+// 16 buckets, so a percentile read from the buckets is within 1/16 (~6%) of
+// the true value while the whole histogram is a fixed array of under a
+// thousand counts
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;   // bucket -> no. of values in it
+    private final LongAdder count;          // no. of values recorded
+    private final LongAdder total;          // sum of values recorded
+    private final AtomicLong max;           // largest value recorded
+
+    // EFFECTS: constructs an empty histogram
+    LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records the time since startNanos, a value of System.nanoTime()
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records a latency of nanos, or of 0 if nanos is negative
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    // REQUIRES: 0 <= percentile <= 100
+    // EFFECTS: returns the latency at or below which the given percentage of
+    //          recorded values fall, rounded up to the end of its bucket; or 0
+    //          if nothing has been recorded
+    public long getPercentile(double percentile) {
+        long recorded = count.sum();
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS && recorded > 0; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(highestIn(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    // EFFECTS: returns the mean of the recorded values, or 0 if there are none
+    public long getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : total.sum() / recorded;
+    }
+
+    // EFFECTS: returns the bucket value falls in
+    private static int bucketOf(long value) {
+        int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    // EFFECTS: returns the largest value in bucket
+    private static long highestIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket - (long) shift * SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+// Represents an item of clothing that is a handle on item no. ordinal of a
+// ClothingSource: it holds no fields of its own, and each is read from the
+// source whenever it is asked for
+public final class MappedClothing extends Clothing {
+    private final ClothingSource source;
+    private final int ordinal;
+
+    // REQUIRES: 0 <= ordinal < source.size()
+    // EFFECTS: constructs a handle on item no. ordinal of source
+    public MappedClothing(ClothingSource source, int ordinal) {
+        super(null, AttributeDictionary.NOT_FOUND, AttributeDictionary.NOT_FOUND,
+                AttributeDictionary.NOT_FOUND, AttributeDictionary.NOT_FOUND, AttributeDictionary.NOT_FOUND);
+        this.source = source;
+        this.ordinal = ordinal;
+    }
+
+    public int getOrdinal() {
+        return this.ordinal;
+    }
+
+    @Override
+    public String getId() {
+        return source.field(ordinal, ClothingSource.ID);
+    }
+
+    @Override
+    public String getType() {
+        return source.field(ordinal, ClothingSource.TYPE);
+    }
+
+    @Override
+    public String getColour() {
+        return source.field(ordinal, ClothingSource.COLOUR);
+    }
+
+    @Override
+    public String getFit() {
+        return source.field(ordinal, ClothingSource.FIT);
+    }
+
+    @Override
+    public String getMood() {
+        return source.field(ordinal, ClothingSource.MOOD);
+    }
+
+    @Override
+    public String getDressCode() {
+        return source.field(ordinal, ClothingSource.DRESS_CODE);
+    }
+
+    @Override
+    int getTypeCode() {
+        return source.code(ordinal, ClothingSource.TYPE);
+    }
+
+    @Override
+    int getColourCode() {
+        return source.code(ordinal, ClothingSource.COLOUR);
+    }
+
+    @Override
+    int getFitCode() {
+        return source.code(ordinal, ClothingSource.FIT);
+    }
+
+    @Override
+    int getMoodCode() {
+        return source.code(ordinal, ClothingSource.MOOD);
+    }
+
+    @Override
+    int getDressCodeCode() {
+        return source.code(ordinal, ClothingSource.DRESS_CODE);
+    }
+}
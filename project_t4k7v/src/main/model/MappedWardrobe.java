@@ -0,0 +1,384 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// Represents a wardrobe over a ClothingSource, e.g, a memory-mapped file,
+// that builds nothing when it is opened. its lists hold item numbers into the
+// source and hand out a MappedClothing for an item only when it is asked for,
+// so each field is decoded the first time it is read. the handles handed out
+// last are kept in a small cache, so scrolling back and forth over the same
+// items does not create them again. filters scan the source's codes and only
+// create handles for the items that match.
+// the first add or remove indexes every item as a plain Wardrobe would, and
+// from then on this behaves as one.
+// it may be read on other threads, e.g, by an AutoSaver or the metrics
+// gauges, while it is read on the GUI's: the cache is guarded by its own
+// lock, and the type views and the switch to indexed items are published
+// through volatile fields
+public class MappedWardrobe extends Wardrobe {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final int TYPES = 4;
+    private static final String[] TYPE_NAMES = {"top", "bottom", "jacket", "accessory"};
+
+    private final ClothingSource source;
+    private final Map<Integer, MappedClothing> cache;  // ordinal -> handle,
+                                                       // least recently used
+                                                       // first; guarded by itself
+    private final OrdinalList all;
+    private volatile OrdinalList[] byType;    // type -> view of its items; null
+                                              // until a sub-list is first asked for
+    private volatile boolean materialised;    // true once every item has been indexed
+
+    // EFFECTS: constructs a wardrobe of the items in source, caching the
+    //          DEFAULT_CACHE_SIZE handles handed out last
+    public MappedWardrobe(ClothingSource source) {
+        this(source, DEFAULT_CACHE_SIZE);
+    }
+
+    // REQUIRES: cacheSize >= 0
+    // EFFECTS: constructs a wardrobe of the items in source, caching the
+    //          cacheSize handles handed out last
+    public MappedWardrobe(ClothingSource source, int cacheSize) {
+        super();
+        this.source = source;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, MappedClothing> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.all = new OrdinalList(null, source.size());
+        this.materialised = false;
+    }
+
+    // EFFECTS: returns true once every item has been indexed, i.e, after the
+    //          first add or remove
+    public boolean isMaterialised() {
+        return this.materialised;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: indexes every item, then adds c as Wardrobe does
+    @Override
+    public void addClothing(Clothing c) {
+        holdChanges(() -> {
+            materialise();
+            super.addClothing(c);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: indexes every item, then removes the item with ID str as
+    //          Wardrobe does
+    @Override
+    public void removeClothing(String str) {
+        holdChanges(() -> {
+            materialise();
+            super.removeClothing(str);
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: indexes every item, then removes every item whose ID is in ids
+    //          as Wardrobe does
+    @Override
+    public void removeClothing(Collection<String> ids) {
+        holdChanges(() -> {
+            materialise();
+            super.removeClothing(ids);
+        });
+    }
+
+    // REQUIRES: - category is either "colour", "fit", or "mood"
+    //           - toFilter is one of this wardrobe's lists, or a list of
+    //             items from them
+    // EFFECTS: returns the items of toFilter whose category is preference, in
+    //          order, comparing codes in the source for this wardrobe's lists
+    @Override
+    public List<Clothing> filterAll(String category, String preference, List<Clothing> toFilter) {
+        if (materialised) {
+            return super.filterAll(category, preference, toFilter);
+        }
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        List<Clothing> result = scan(toFilter, new int[] {fieldOf(category)},
+                new int[] {AttributeDictionary.getInstance().lookup(preference)});
+        FILTER_ALL_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // EFFECTS: returns every item in allClothes that matches filter, in the
+    //          order they were added
+    @Override
+    public List<Clothing> filter(ClothingFilter filter) {
+        if (materialised) {
+            return super.filter(filter);
+        }
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        BitSet matches = filter.evaluate(new SourceBitmaps());
+        List<Clothing> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(handle(i));
+        }
+        FILTER_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // REQUIRES: every key of criteria is either "colour", "fit", "mood" or
+    //           "dress code"
+    // EFFECTS: returns every item in allClothes that matches all of criteria,
+    //          in the order they were added, in one pass over the source
+    @Override
+    public List<Clothing> query(Map<String, String> criteria) {
+        if (materialised) {
+            return super.query(criteria);
+        }
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        int[] fields = new int[criteria.size()];
+        int[] codes = new int[criteria.size()];
+        int i = 0;
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            fields[i] = fieldOf(criterion.getKey());
+            codes[i] = AttributeDictionary.getInstance().lookup(criterion.getValue());
+            i++;
+        }
+        try {
+            return scan(this.all, fields, codes);
+        } finally {
+            QUERY_LATENCY.recordSince(start);
+        }
+    }
+
+    // EFFECTS: returns the items of items whose code of fields[i] is codes[i]
+    //          for every i, in order. the codes of this wardrobe's own lists
+    //          are read straight from the source
+    private List<Clothing> scan(List<Clothing> items, int[] fields, int[] codes) {
+        List<Clothing> result = new ArrayList<>();
+        for (int code : codes) {
+            if (code == AttributeDictionary.NOT_FOUND) {
+                return result;
+            }
+        }
+
+        if (items instanceof OrdinalList && ((OrdinalList) items).isOf(this)) {
+            OrdinalList view = (OrdinalList) items;
+            for (int i = 0; i < view.size(); i++) {
+                if (matchesAll(view.ordinalAt(i), fields, codes)) {
+                    result.add(handle(view.ordinalAt(i)));
+                }
+            }
+        } else {
+            for (Clothing c : items) {
+                if (matchesAll(c, fields, codes)) {
+                    result.add(c);
+                }
+            }
+        }
+        return result;
+    }
+
+    // EFFECTS: returns true if, for every i, the code of fields[i] of item
+    //          no. ordinal in the source is codes[i]
+    private boolean matchesAll(int ordinal, int[] fields, int[] codes) {
+        for (int i = 0; i < fields.length; i++) {
+            if (source.code(ordinal, fields[i]) != codes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns true if, for every i, the code of fields[i] of c is
+    //          codes[i]
+    private static boolean matchesAll(Clothing c, int[] fields, int[] codes) {
+        for (int i = 0; i < fields.length; i++) {
+            if (codeOf(c, fields[i]) != codes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns the code of the given field of c
+    private static int codeOf(Clothing c, int field) {
+        switch (field) {
+            case ClothingSource.TYPE: return c.getTypeCode();
+            case ClothingSource.COLOUR: return c.getColourCode();
+            case ClothingSource.FIT: return c.getFitCode();
+            case ClothingSource.MOOD: return c.getMoodCode();
+            default: return c.getDressCodeCode();
+        }
+    }
+
+    // EFFECTS: returns the field behind the given filter category; any
+    //          category other than "colour", "fit" or "mood" is treated as
+    //          dress code, as Wardrobe does
+    private static int fieldOf(String category) {
+        if (category.equals("colour")) {
+            return ClothingSource.COLOUR;
+        } else if (category.equals("fit")) {
+            return ClothingSource.FIT;
+        } else if (category.equals("mood")) {
+            return ClothingSource.MOOD;
+        } else {
+            return ClothingSource.DRESS_CODE;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the handle on item no. ordinal, from the cache if it
+    //          was handed out recently
+    private MappedClothing handle(int ordinal) {
+        synchronized (this.cache) {
+            return this.cache.computeIfAbsent(ordinal, o -> new MappedClothing(source, o));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if not done yet, indexes a handle on every item, in order, as
+    //          though it had been added, without counting or logging it
+    private void materialise() {
+        if (materialised) {
+            return;
+        }
+        for (int i = 0; i < source.size(); i++) {
+            addSlots(handle(i));
+        }
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+        this.byType = null;
+        this.materialised = true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the view of the items of the given type, sorting every
+    //          item by type in one pass over the source the first time; two
+    //          threads asking at once may both sort, and either's views are kept
+    private List<Clothing> typeView(int type) {
+        OrdinalList[] views = this.byType;
+        if (views == null) {
+            int[][] ordinals = new int[TYPES][source.size()];
+            int[] sizes = new int[TYPES];
+            for (int i = 0; i < source.size(); i++) {
+                int t = typeOf(source.field(i, ClothingSource.TYPE));
+                if (t >= 0) {
+                    ordinals[t][sizes[t]] = i;
+                    sizes[t]++;
+                }
+            }
+            views = new OrdinalList[TYPES];
+            for (int t = 0; t < TYPES; t++) {
+                views[t] = new OrdinalList(ordinals[t], sizes[t]);
+            }
+            this.byType = views;
+        }
+        return views[type];
+    }
+
+    // EFFECTS: returns the index of type in TYPE_NAMES, ignoring case, or -1
+    //          if it is not one of them
+    private static int typeOf(String type) {
+        for (int t = 0; t < TYPES; t++) {
+            if (TYPE_NAMES[t].equalsIgnoreCase(type)) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public List<Clothing> getAllClothes() {
+        return materialised ? super.getAllClothes() : this.all;
+    }
+
+    @Override
+    public List<Clothing> getTops() {
+        return materialised ? super.getTops() : typeView(0);
+    }
+
+    @Override
+    public List<Clothing> getBottoms() {
+        return materialised ? super.getBottoms() : typeView(1);
+    }
+
+    @Override
+    public List<Clothing> getJackets() {
+        return materialised ? super.getJackets() : typeView(2);
+    }
+
+    @Override
+    public List<Clothing> getAccessories() {
+        return materialised ? super.getAccessories() : typeView(3);
+    }
+
+    // Represents a read-only list of items of the source, by their numbers
+    private final class OrdinalList extends AbstractList<Clothing> implements RandomAccess {
+        private final int[] ordinals;  // item no. at each index; null if the
+                                       // list is every item in order
+        private final int size;
+
+        // EFFECTS: constructs a view of items no. ordinals[0, size), or of
+        //          the first size items if ordinals is null
+        private OrdinalList(int[] ordinals, int size) {
+            this.ordinals = ordinals;
+            this.size = size;
+        }
+
+        // EFFECTS: returns true if this is a view of wd
+        private boolean isOf(MappedWardrobe wd) {
+            return wd == MappedWardrobe.this;
+        }
+
+        // REQUIRES: 0 <= index < size()
+        // EFFECTS: returns the item no. at index
+        private int ordinalAt(int index) {
+            return ordinals == null ? index : ordinals[index];
+        }
+
+        @Override
+        public Clothing get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return handle(ordinalAt(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // Represents the items of the source as bitsets, one bit per item
+    private final class SourceBitmaps implements ClothingFilter.Bitmaps {
+        @Override
+        public BitSet all() {
+            BitSet result = new BitSet(source.size());
+            result.set(0, source.size());
+            return result;
+        }
+
+        @Override
+        public BitSet matching(String category, int code) {
+            int field = fieldOf(category);
+            BitSet result = new BitSet(source.size());
+            for (int i = 0; i < source.size(); i++) {
+                if (source.code(i, field) == code) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package model;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Represents the metrics of this process: a latency histogram per timed
+// operation (whose count doubles as the operation's counter) and gauges that
+// are read only when the metrics are. there is only one, registered over JMX
+// as model:type=Metrics when first used. recording a latency costs two
+// System.nanoTime() calls and a few atomic adds, so metrics are always on
+public final class Metrics implements MetricsMXBean {
+    public static final String OBJECT_NAME = "model:type=Metrics";
+
+    private final Map<String, LatencyHistogram> latencies;
+    private final Map<String, LongSupplier> gauges;
+
+    // Holds the only Metrics in the system, created when first used
+    private static final class Holder {
+        private static final Metrics THE_METRICS = new Metrics();
+    }
+
+    // EFFECTS: constructs metrics with a gauge for the depth of the event log
+    //          and registers them over JMX, if JMX allows it
+    private Metrics() {
+        this.latencies = new ConcurrentHashMap<>();
+        this.gauges = new ConcurrentHashMap<>();
+        gauge("eventlog.depth", () -> EventLog.getInstance().size());
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            // already registered by another class loader; metrics still work in-process
+        }
+    }
+
+    // EFFECTS: returns the only Metrics in the system
+    public static Metrics getInstance() {
+        return Holder.THE_METRICS;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the latency histogram of the operation with the given
+    //          name, creating it if needed
+    public LatencyHistogram latency(String name) {
+        return latencies.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a gauge with the given name that reads value, replacing
+    //          any gauge with that name
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds gauges for the no. of items of each type in wd, named
+    //          "wardrobe.<list>", replacing those of any wardrobe watched before
+    public void watch(Wardrobe wd) {
+        gauge("wardrobe.allClothes", () -> wd.getAllClothes().size());
+        gauge("wardrobe.tops", () -> wd.getTops().size());
+        gauge("wardrobe.bottoms", () -> wd.getBottoms().size());
+        gauge("wardrobe.jackets", () -> wd.getJackets().size());
+        gauge("wardrobe.accessories", () -> wd.getAccessories().size());
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        latencies.forEach((name, h) -> result.put(name + ".count", h.getCount()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> result = new TreeMap<>();
+        gauges.forEach((name, g) -> result.put(name, g.getAsLong()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getLatencies() {
+        Map<String, Long> result = new TreeMap<>();
+        latencies.forEach((name, h) -> {
+            result.put(name + ".mean", h.getMean());
+            result.put(name + ".p50", h.getPercentile(50));
+            result.put(name + ".p90", h.getPercentile(90));
+            result.put(name + ".p99", h.getPercentile(99));
+            result.put(name + ".max", h.getMax());
+        });
+        return result;
+    }
+
+    @Override
+    public String dump() {
+        Map<String, Long> all = new TreeMap<>(getCounters());
+        all.putAll(getGauges());
+        all.putAll(getLatencies());
+
+        StringBuilder builder = new StringBuilder();
+        all.forEach((name, value) -> builder.append(name).append(' ').append(value).append('\n'));
+        return builder.toString();
+    }
+
+    @Override
+    public void dumpTo(String path) throws IOException {
+        Files.write(Paths.get(path), dump().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,25 @@
+package model;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Represents the management interface through which Metrics is exposed over
+// JMX, e.g, in JConsole under model:type=Metrics
+public interface MetricsMXBean {
+    // EFFECTS: returns the no. of times each timed operation has run
+    Map<String, Long> getCounters();
+
+    // EFFECTS: returns the current value of each gauge
+    Map<String, Long> getGauges();
+
+    // EFFECTS: returns the mean, 50th, 90th, 99th percentile and max latency
+    //          of each timed operation, in nanoseconds
+    Map<String, Long> getLatencies();
+
+    // EFFECTS: returns every metric, one "name value" per line
+    String dump();
+
+    // EFFECTS: writes every metric to the file at path, one "name value" per
+    //          line; throws IOException if the file cannot be written
+    void dumpTo(String path) throws IOException;
+}
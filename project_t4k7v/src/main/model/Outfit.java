@@ -0,0 +1,53 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents an outfit: a top and a bottom, optionally worn with a jacket
+// and/or an accessory
+public class Outfit {
+    private final Clothing top;
+    private final Clothing bottom;
+    private final Clothing jacket;     // null if the outfit has no jacket
+    private final Clothing accessory;  // null if the outfit has no accessory
+
+    // REQUIRES: top and bottom are not null
+    // EFFECTS: constructs an outfit from the given pieces; jacket and
+    //          accessory may be null
+    public Outfit(Clothing top, Clothing bottom, Clothing jacket, Clothing accessory) {
+        this.top = top;
+        this.bottom = bottom;
+        this.jacket = jacket;
+        this.accessory = accessory;
+    }
+
+    // EFFECTS: returns every piece of this outfit, from top to accessory
+    public List<Clothing> getPieces() {
+        List<Clothing> pieces = new ArrayList<>(4);
+        pieces.add(top);
+        pieces.add(bottom);
+        if (jacket != null) {
+            pieces.add(jacket);
+        }
+        if (accessory != null) {
+            pieces.add(accessory);
+        }
+        return pieces;
+    }
+
+    public Clothing getTop() {
+        return this.top;
+    }
+
+    public Clothing getBottom() {
+        return this.bottom;
+    }
+
+    public Clothing getJacket() {
+        return this.jacket;
+    }
+
+    public Clothing getAccessory() {
+        return this.accessory;
+    }
+}
@@ -0,0 +1,151 @@
+package model;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+// Represents a lazy generator of every outfit that can be put together from
+// lists of tops, bottoms, jackets and accessories, where every pair of pieces
+// in an outfit must be compatible. outfits are built one at a time as they
+// are asked for, in order of top, then bottom, then jacket (none first), then
+// accessory (none first). a piece that is incompatible with the pieces chosen
+// so far is skipped together with every outfit that would build on it.
+// the generator splits off ranges of (top, bottom) pairs so that parallel
+// streams can share the work across cores
+public class OutfitGenerator implements Spliterator<Outfit> {
+    // two pieces are compatible if they share a dress code
+    public static final BiPredicate<Clothing, Clothing> SAME_DRESS_CODE =
+            (c1, c2) -> c1.getDressCodeCode() == c2.getDressCodeCode();
+
+    private final Clothing[] tops;
+    private final Clothing[] bottoms;
+    private final Clothing[] jackets;
+    private final Clothing[] accessories;
+    private final BiPredicate<Clothing, Clothing> compatible;
+
+    private long pair;        // next (top, bottom) pair to visit, as top * bottoms + bottom
+    private long fence;       // one past the last pair this generator visits
+    private boolean inPair;   // true if pair is compatible and being enumerated
+    private int jacket;       // next jacket to try in pair, -1 for none
+    private int accessory;    // next accessory to try with jacket, -1 for none
+
+    // EFFECTS: constructs a generator of outfits from the given pieces in
+    //          which every pair of pieces is compatible
+    public OutfitGenerator(List<Clothing> tops, List<Clothing> bottoms, List<Clothing> jackets,
+                           List<Clothing> accessories, BiPredicate<Clothing, Clothing> compatible) {
+        this(tops.toArray(new Clothing[0]), bottoms.toArray(new Clothing[0]),
+                jackets.toArray(new Clothing[0]), accessories.toArray(new Clothing[0]),
+                compatible, 0, (long) tops.size() * bottoms.size());
+    }
+
+    // EFFECTS: constructs a generator of the outfits in pairs [pair, fence)
+    private OutfitGenerator(Clothing[] tops, Clothing[] bottoms, Clothing[] jackets,
+                            Clothing[] accessories, BiPredicate<Clothing, Clothing> compatible,
+                            long pair, long fence) {
+        this.tops = tops;
+        this.bottoms = bottoms;
+        this.jackets = jackets;
+        this.accessories = accessories;
+        this.compatible = compatible;
+        this.pair = pair;
+        this.fence = fence;
+        this.inPair = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: if there is another outfit, passes it to action and returns
+    //          true; otherwise returns false
+    @Override
+    public boolean tryAdvance(Consumer<? super Outfit> action) {
+        while (pair < fence) {
+            Clothing top = tops[(int) (pair / bottoms.length)];
+            Clothing bottom = bottoms[(int) (pair % bottoms.length)];
+
+            if (!inPair && !compatible.test(top, bottom)) {
+                pair++;
+                continue;
+            } else if (!inPair) {
+                inPair = true;
+                jacket = -1;
+                accessory = -1;
+            }
+
+            Outfit next = nextInPair(top, bottom);
+            if (next != null) {
+                action.accept(next);
+                return true;
+            }
+
+            pair++;
+            inPair = false;
+        }
+        return false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next outfit with the given top and bottom, or null
+    //          if there are no more
+    private Outfit nextInPair(Clothing top, Clothing bottom) {
+        while (jacket < jackets.length) {
+            Clothing j = jacket < 0 ? null : jackets[jacket];
+
+            if (j == null || (compatible.test(top, j) && compatible.test(bottom, j))) {
+                while (accessory < accessories.length) {
+                    Clothing a = accessory < 0 ? null : accessories[accessory];
+                    accessory++;
+
+                    if (a == null || fitsWith(a, top, bottom, j)) {
+                        return new Outfit(top, bottom, j, a);
+                    }
+                }
+            }
+
+            jacket++;
+            accessory = -1;
+        }
+        return null;
+    }
+
+    // EFFECTS: returns true if accessory is compatible with top, bottom and
+    //          jacket (if there is one)
+    private boolean fitsWith(Clothing accessory, Clothing top, Clothing bottom, Clothing jacket) {
+        return compatible.test(top, accessory) && compatible.test(bottom, accessory)
+                && (jacket == null || compatible.test(jacket, accessory));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: hands the first half of the pairs left, including any pair
+    //          already started, to a new generator and returns it, keeping
+    //          the second half; returns null if there are too few pairs left
+    @Override
+    public Spliterator<Outfit> trySplit() {
+        if (fence - pair < 2) {
+            return null;
+        }
+
+        long mid = pair + (fence - pair) / 2;
+        OutfitGenerator prefix = new OutfitGenerator(tops, bottoms, jackets, accessories,
+                compatible, pair, mid);
+        prefix.inPair = inPair;
+        prefix.jacket = jacket;
+        prefix.accessory = accessory;
+
+        pair = mid;
+        inPair = false;
+        return prefix;
+    }
+
+    // EFFECTS: returns the no. of outfits left if no piece were pruned
+    @Override
+    public long estimateSize() {
+        long perPair = (long) (jackets.length + 1) * (accessories.length + 1);
+        long pairs = fence - pair;
+        return pairs > Long.MAX_VALUE / perPair ? Long.MAX_VALUE : pairs * perPair;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
@@ -0,0 +1,346 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+// Represents a recommender that ranks outfits against a wanted colour, mood
+// and dress code and keeps only the best few. an outfit scores
+//     2 points for each piece in the wanted mood
+//     2 points for each piece with the wanted dress code
+//     1 point for each piece in the wanted colour
+//     1 point for each pair of pieces that share a colour
+// the pieces are grouped by dress code, since only pieces that share one make
+// an outfit, and only the CANDIDATES_PER_SLOT pieces of each type in a group
+// that score the most on their own are candidates, so a large wardrobe costs
+// one sort per type and dress code, not a search through every outfit it can
+// make, and a dress code is never left without candidates because other
+// pieces score more. the candidates are searched in parallel, a top per
+// task, best pieces first, and every task keeps its best
+// k in a bounded heap that is merged with the others at the end. a (top,
+// bottom) pair, with or without a jacket, is only expanded while the most it
+// could score can still beat the worst outfit in a full heap, so most
+// outfits are never built; in the worst case, e.g, when every outfit scores
+// the same, time still grows with the no. of outfits of the candidates,
+// while memory grows only with k
+public class OutfitRecommender {
+    public static final int CANDIDATES_PER_SLOT = 64;
+
+    private static final int MOOD_POINTS = 2;
+    private static final int DRESS_CODE_POINTS = 2;
+    private static final int COLOUR_POINTS = 1;
+    private static final int SHARED_COLOUR_POINTS = 1;
+
+    private static final int TOP = 0;
+    private static final int BOTTOM = 1;
+    private static final int JACKET = 2;
+    private static final int ACCESSORY = 3;
+
+    // worst recommendation first, so the head of a heap is the one to drop
+    private static final Comparator<Recommendation> WORST_FIRST =
+            Comparator.comparingInt(Recommendation::getScore)
+                    .thenComparing(Recommendation::getKey, Comparator.reverseOrder());
+
+    private final int colour;
+    private final int mood;
+    private final int dressCode;
+
+    // EFFECTS: constructs a recommender for the given preferences; a null
+    //          preference is not scored
+    public OutfitRecommender(String colour, String mood, String dressCode) {
+        AttributeDictionary dictionary = AttributeDictionary.getInstance();
+        this.colour = dictionary.lookup(colour);
+        this.mood = dictionary.lookup(mood);
+        this.dressCode = dictionary.lookup(dressCode);
+    }
+
+    // EFFECTS: returns the (at most) k best scoring outfits of the candidates
+    //          in wd, whose pieces share a dress code, best first; outfits with
+    //          the same score are ordered by the IDs of their pieces
+    public List<Recommendation> recommend(Wardrobe wd, int k) {
+        return recommend(candidates(wd), k);
+    }
+
+    // EFFECTS: returns the (at most) k best scoring outfits of candidates
+    //          whose pieces share a dress code, ordered as recommend(wd, k)
+    //          orders them; candidates are only read, so this may run on any
+    //          thread, e.g, off the event thread
+    public List<Recommendation> recommend(Candidates candidates, int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Recommendation> heap = IntStream.range(0, candidates.groupOf.length).parallel()
+                .collect(() -> new PriorityQueue<>(k + 1, WORST_FIRST),
+                        (best, task) -> searchTop(best, candidates.groups.get(candidates.groupOf[task]),
+                                candidates.topOf[task], k),
+                        (best, other) -> {
+                            for (Recommendation r : other) {
+                                offer(best, r, k);
+                            }
+                        });
+        List<Recommendation> best = new ArrayList<>(heap);
+        best.sort(WORST_FIRST.reversed());
+        return best;
+    }
+
+    // EFFECTS: returns, for each dress code in wd, the CANDIDATES_PER_SLOT
+    //          pieces of each type with that dress code that score the most on
+    //          their own; pieces that score the same are taken in the order
+    //          they were added. the pieces are copied while wd's changes are
+    //          held, so this may run on any thread, e.g, off the event thread
+    public Candidates candidates(Wardrobe wd) {
+        List<List<Clothing>> slots = new ArrayList<>();
+        wd.holdChanges(() -> {
+            for (List<Clothing> items : Arrays.asList(wd.getTops(), wd.getBottoms(), wd.getJackets(),
+                    wd.getAccessories())) {
+                slots.add(new ArrayList<>(items));
+            }
+        });
+        Map<Integer, List<List<Clothing>>> byDressCode = new LinkedHashMap<>();
+        for (int slot = 0; slot < slots.size(); slot++) {
+            for (Clothing c : slots.get(slot)) {
+                byDressCode.computeIfAbsent(c.getDressCodeCode(), code -> emptySlots(slots.size()))
+                        .get(slot).add(c);
+            }
+        }
+        List<Group> groups = new ArrayList<>();
+        for (List<List<Clothing>> pieces : byDressCode.values()) {
+            if (!pieces.get(TOP).isEmpty() && !pieces.get(BOTTOM).isEmpty()) {
+                groups.add(groupOf(pieces));
+            }
+        }
+        return new Candidates(groups);
+    }
+
+    // EFFECTS: returns n empty lists, one per type
+    private static List<List<Clothing>> emptySlots(int n) {
+        List<List<Clothing>> slots = new ArrayList<>(n);
+        for (int slot = 0; slot < n; slot++) {
+            slots.add(new ArrayList<>());
+        }
+        return slots;
+    }
+
+    // REQUIRES: every piece of pieces has the same dress code
+    // EFFECTS: returns the group of the CANDIDATES_PER_SLOT pieces of each type
+    //          in pieces that score the most on their own, and their scores
+    private Group groupOf(List<List<Clothing>> pieces) {
+        Clothing[][] best = new Clothing[pieces.size()][];
+        int[][] scores = new int[pieces.size()][];
+        for (int slot = 0; slot < pieces.size(); slot++) {
+            best[slot] = best(pieces.get(slot));
+            scores[slot] = new int[best[slot].length];
+            for (int i = 0; i < best[slot].length; i++) {
+                scores[slot][i] = pieceScore(best[slot][i]);
+            }
+        }
+        return new Group(best, scores);
+    }
+
+    // EFFECTS: returns the CANDIDATES_PER_SLOT items that score the most on
+    //          their own, best first
+    private Clothing[] best(List<Clothing> items) {
+        List<Clothing> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingInt(this::pieceScore).reversed());
+        return sorted.subList(0, Math.min(CANDIDATES_PER_SLOT, sorted.size())).toArray(new Clothing[0]);
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: offers heap every outfit with top no. t of group, stopping at
+    //          the first bottom that cannot beat the worst outfit in a full
+    //          heap, since the bottoms after it score no more
+    private void searchTop(PriorityQueue<Recommendation> heap, Group group, int t, int k) {
+        Clothing top = group.pieces[TOP][t];
+        Clothing[] bottoms = group.pieces[BOTTOM];
+        for (int b = 0; b < bottoms.length; b++) {
+            int most = group.scores[TOP][t] + group.scores[BOTTOM][b] + SHARED_COLOUR_POINTS
+                    + group.mostAdded(JACKET) + group.mostAdded(ACCESSORY);
+            if (isBeaten(heap, k, most)) {
+                return;
+            }
+            searchPair(heap, group, top, bottoms[b], k);
+        }
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: offers heap every outfit of top and bottom, with no jacket or
+    //          each jacket of group, unless the most it could score cannot
+    //          beat the worst outfit in a full heap
+    private void searchPair(PriorityQueue<Recommendation> heap, Group group,
+                            Clothing top, Clothing bottom, int k) {
+        int pair = score(new Outfit(top, bottom, null, null));
+        if (isBeaten(heap, k, pair + group.mostAdded(JACKET) + group.mostAdded(ACCESSORY))) {
+            return;
+        }
+        searchAccessories(heap, group, new Outfit(top, bottom, null, null), k);
+        for (Clothing jacket : group.pieces[JACKET]) {
+            searchAccessories(heap, group, new Outfit(top, bottom, jacket, null), k);
+        }
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: offers heap outfit with no accessory and with each accessory of
+    //          group, unless the most it could score cannot beat the worst
+    //          outfit in a full heap
+    private void searchAccessories(PriorityQueue<Recommendation> heap, Group group,
+                                   Outfit outfit, int k) {
+        int base = score(outfit);
+        if (isBeaten(heap, k, base + group.mostAdded(ACCESSORY))) {
+            return;
+        }
+        offer(heap, outfit, k);
+        for (Clothing accessory : group.pieces[ACCESSORY]) {
+            offer(heap, new Outfit(outfit.getTop(), outfit.getBottom(), outfit.getJacket(), accessory), k);
+        }
+    }
+
+    // EFFECTS: returns true if heap holds k recommendations and the worst of
+    //          them scores more than most
+    private static boolean isBeaten(PriorityQueue<Recommendation> heap, int k, int most) {
+        return heap.size() >= k && most < heap.peek().getScore();
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: scores outfit and adds it to heap if heap has fewer than k
+    //          recommendations or it beats the worst one, which is then dropped
+    private void offer(PriorityQueue<Recommendation> heap, Outfit outfit, int k) {
+        int score = score(outfit);
+        if (heap.size() < k || score >= heap.peek().getScore()) {
+            offer(heap, new Recommendation(outfit, score), k);
+        }
+    }
+
+    // MODIFIES: heap
+    // EFFECTS: adds r to heap, dropping the worst recommendation if heap then
+    //          holds more than k
+    private static void offer(PriorityQueue<Recommendation> heap, Recommendation r, int k) {
+        heap.add(r);
+        if (heap.size() > k) {
+            heap.poll();
+        }
+    }
+
+    // EFFECTS: returns the score of outfit against this recommender's preferences
+    public int score(Outfit outfit) {
+        List<Clothing> pieces = outfit.getPieces();
+        int score = 0;
+
+        for (int i = 0; i < pieces.size(); i++) {
+            Clothing piece = pieces.get(i);
+            score += pieceScore(piece);
+
+            for (int j = i + 1; j < pieces.size(); j++) {
+                if (piece.getColourCode() == pieces.get(j).getColourCode()) {
+                    score += SHARED_COLOUR_POINTS;
+                }
+            }
+        }
+        return score;
+    }
+
+    // EFFECTS: returns the points piece scores on its own, leaving out any
+    //          colour it shares with other pieces
+    private int pieceScore(Clothing piece) {
+        return points(piece.getMoodCode(), mood, MOOD_POINTS)
+                + points(piece.getDressCodeCode(), dressCode, DRESS_CODE_POINTS)
+                + points(piece.getColourCode(), colour, COLOUR_POINTS);
+    }
+
+    // EFFECTS: returns points if code is the wanted code, and 0 otherwise
+    private static int points(int code, int wanted, int points) {
+        return wanted != AttributeDictionary.NOT_FOUND && code == wanted ? points : 0;
+    }
+
+    // Represents the pieces an outfit may be made of, as chosen by
+    // candidates(wd): a group per dress code with both tops and bottoms, and
+    // one search task per top of each group. it never changes, so it can be
+    // searched on another thread while the wardrobe changes
+    public static final class Candidates {
+        private final List<Group> groups;
+        private final int[] groupOf;   // task -> index of its group
+        private final int[] topOf;     // task -> index of its top in the group
+
+        // EFFECTS: constructs candidates of the given groups, with a task per top
+        private Candidates(List<Group> groups) {
+            this.groups = groups;
+            int tasks = 0;
+            for (Group group : groups) {
+                tasks += group.pieces[TOP].length;
+            }
+            this.groupOf = new int[tasks];
+            this.topOf = new int[tasks];
+            int task = 0;
+            for (int g = 0; g < groups.size(); g++) {
+                for (int t = 0; t < groups.get(g).pieces[TOP].length; t++) {
+                    groupOf[task] = g;
+                    topOf[task] = t;
+                    task++;
+                }
+            }
+        }
+    }
+
+    // Represents the pieces of each type with one dress code, best scoring
+    // first, so any of them make an outfit together
+    private static final class Group {
+        private final Clothing[][] pieces;  // slot -> pieces, best first
+        private final int[][] scores;       // slot -> score of each piece on its own
+
+        // EFFECTS: constructs a group of the given pieces and their scores
+        private Group(Clothing[][] pieces, int[][] scores) {
+            this.pieces = pieces;
+            this.scores = scores;
+        }
+
+        // EFFECTS: returns the most a piece of the given optional slot can add
+        //          to an outfit: its own score plus a shared colour with each
+        //          piece that may already be in the outfit
+        private int mostAdded(int slot) {
+            if (pieces[slot].length == 0) {
+                return 0;
+            }
+            return scores[slot][0] + SHARED_COLOUR_POINTS * (slot == JACKET ? 2 : 3);
+        }
+    }
+
+    // Represents an outfit together with its score
+    public static final class Recommendation {
+        private final Outfit outfit;
+        private final int score;
+        private String key;     // IDs of the outfit's pieces, built when first needed
+
+        // EFFECTS: constructs a recommendation of outfit with the given score
+        private Recommendation(Outfit outfit, int score) {
+            this.outfit = outfit;
+            this.score = score;
+        }
+
+        public Outfit getOutfit() {
+            return this.outfit;
+        }
+
+        public int getScore() {
+            return this.score;
+        }
+
+        // EFFECTS: returns the IDs of the outfit's pieces, separated by " + "
+        private String getKey() {
+            if (key == null) {
+                StringBuilder builder = new StringBuilder();
+                for (Clothing c : outfit.getPieces()) {
+                    if (builder.length() > 0) {
+                        builder.append(" + ");
+                    }
+                    builder.append(c.getId());
+                }
+                key = builder.toString();
+            }
+            return key;
+        }
+    }
+}
@@ -5,99 +5,540 @@ import org.json.JSONObject;
 import persistence.Writable;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 // Represents a digital wardrobe that contains arbitrary no. of clothing items
-// in allClothes and four "sub-lists" for all items of a certain type
+// in allClothes and four "sub-lists" for all items of a certain type, plus
+// an inverted index per filterable attribute that maps each value (e.g, "blue")
+// to every item carrying it, in the order the items were added. every item's
+// slots in these lists are also indexed by its ID, so it can be removed without
+// searching for it. boolean filters are answered from the same indexes, as
+// bitsets over the positions of the items in allClothes
 public class Wardrobe implements Writable {
-    private List<Clothing> allClothes;   // all clothing added so far
-    private List<Clothing> tops;         // all clothing of type "top" added
-    private List<Clothing> bottoms;      // all clothing of type "bottom" added
-    private List<Clothing> jackets;      // all clothing of type "jacket" added
-    private List<Clothing> accessories;  // all clothing of type "accessory" added
+    private ClothingPartition allClothes;   // all clothing added so far
+    private ClothingPartition tops;         // all clothing of type "top" added
+    private ClothingPartition bottoms;      // all clothing of type "bottom" added
+    private ClothingPartition jackets;      // all clothing of type "jacket" added
+    private ClothingPartition accessories;  // all clothing of type "accessory" added
+
+    private Map<String, ClothingPartition> byColour;     // colour -> clothing
+    private Map<String, ClothingPartition> byFit;        // fit -> clothing
+    private Map<String, ClothingPartition> byMood;       // mood -> clothing
+    private Map<String, ClothingPartition> byDressCode;  // dress code -> clothing
+
+    private Map<String, List<ClothingPartition.Slot>> byId;  // ID -> every slot
+                                                              // of items with it
+
+    static final LatencyHistogram ADD_LATENCY = Metrics.getInstance().latency("wardrobe.addClothing");
+    static final LatencyHistogram REMOVE_LATENCY = Metrics.getInstance().latency("wardrobe.removeClothing");
+    static final LatencyHistogram FILTER_ALL_LATENCY = Metrics.getInstance().latency("wardrobe.filterAll");
+    static final LatencyHistogram FILTER_LATENCY = Metrics.getInstance().latency("wardrobe.filter");
+    static final LatencyHistogram QUERY_LATENCY = Metrics.getInstance().latency("wardrobe.query");
+
+    private volatile int modifications;  // no. of adds and removes so far
+    private final List<Event> unsaved;   // adds and removes since last saved, in order
+    private final List<Consumer<Event>> listeners;  // told of every event this logs
+    private boolean restoring;           // true while restore() runs; changes are held
+    private final ReentrantLock changeLock;  // held while clothing is added or removed
 
     // EFFECTS: constructs a wardrobe and initializes every field as an
     //          empty list (of clothing)
     public Wardrobe() {
-        this.allClothes = new ArrayList<>();
-        this.tops = new ArrayList<>();
-        this.bottoms = new ArrayList<>();
-        this.jackets = new ArrayList<>();
-        this.accessories = new ArrayList<>();
+        this(true);
+    }
+
+    // EFFECTS: constructs a wardrobe that keeps its clothing in the lists and
+    //          indexes above if withLists; otherwise they are never allocated,
+    //          for a subclass that stores clothing its own way and overrides
+    //          every method that reads them
+    Wardrobe(boolean withLists) {
+        if (withLists) {
+            this.allClothes = new ClothingPartition();
+            this.tops = new ClothingPartition();
+            this.bottoms = new ClothingPartition();
+            this.jackets = new ClothingPartition();
+            this.accessories = new ClothingPartition();
+            this.byColour = new HashMap<>();
+            this.byFit = new HashMap<>();
+            this.byMood = new HashMap<>();
+            this.byDressCode = new HashMap<>();
+            this.byId = new HashMap<>();
+        }
+        this.modifications = 0;
+        this.unsaved = new ArrayList<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.changeLock = new ReentrantLock();
     }
 
     // MODIFIES: this
     // EFFECTS: adds c to allClothes then the appropriate sub-list depending
-    //          on its type
+    //          on its type, and indexes it under each of its attribute values
+    //          and its ID
     public void addClothing(Clothing c) {
-        this.allClothes.add(c);
+        long start = System.nanoTime();
+        holdChanges(() -> {
+            addSlots(c);
+            modified();
+            log(new Event(Event.Operation.ADDED, c));
+        });
+        ADD_LATENCY.recordSince(start);
+    }
 
-        if (c.getType().equalsIgnoreCase("top")) {
-            this.tops.add(c);
-        } else if (c.getType().equalsIgnoreCase("bottom")) {
-            this.bottoms.add(c);
-        } else if (c.getType().equalsIgnoreCase("jacket")) {
-            this.jackets.add(c);
-        } else if (c.getType().equalsIgnoreCase("accessory")) {
-            this.accessories.add(c);
-        }
+    // MODIFIES: this
+    // EFFECTS: adds c to allClothes, its sub-list and indexes, without
+    //          counting it as a change or logging it
+    void addSlots(Clothing c) {
+        List<ClothingPartition.Slot> slots = this.byId.computeIfAbsent(c.getId(),
+                id -> new ArrayList<>());
 
-        EventLog.getInstance().logEvent(new Event("Clothing item added."));
+        slots.add(this.allClothes.add(c));
+        slots.add(index(this.byColour, c.getColour(), c));
+        slots.add(index(this.byFit, c.getFit(), c));
+        slots.add(index(this.byMood, c.getMood(), c));
+        slots.add(index(this.byDressCode, c.getDressCode(), c));
+
+        ClothingPartition subList = subListFor(c);
+        if (subList != null) {
+            slots.add(subList.add(c));
+        }
     }
 
     // REQUIRES: this.allClothes is not empty
     // MODIFIES: this
     // EFFECTS: removes clothing item with ID "str" from list of all clothes
-    //          and also removes item from appropriate sublist
+    //          and also removes item from appropriate sublist and indexes;
+    //          does not count as a change if there is no such item. finding
+    //          the item's slots takes O(1) expected time, but each list it was
+    //          in is then squeezed from its slot to the end, so removing many
+    //          items is cheaper with removeClothing(Collection), which
+    //          squeezes each list once
     public void removeClothing(String str) {
-        this.allClothes.removeIf(c -> (c.getId().equals(str)));
-        this.tops.removeIf(c -> !(this.allClothes.contains(c)));
-        this.bottoms.removeIf(c -> !(this.allClothes.contains(c)));
-        this.jackets.removeIf(c -> !(this.allClothes.contains(c)));
-        this.accessories.removeIf(c -> !(this.allClothes.contains(c)));
+        long start = System.nanoTime();
+        holdChanges(() -> {
+            List<Clothing> removed = new ArrayList<>(1);
+            Set<ClothingPartition> emptied = new HashSet<>();
+            removeSlots(str, removed, emptied);
+            finishRemovals(emptied);
+            if (!removed.isEmpty()) {
+                modified();
+            }
+            logRemovals(removed);
+        });
+        REMOVE_LATENCY.recordSince(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every clothing item whose ID is in ids from list of all
+    //          clothes, sublists and indexes, in one pass over each list they
+    //          were in; IDs not in this are ignored, and removing none does
+    //          not count as a change
+    public void removeClothing(Collection<String> ids) {
+        long start = System.nanoTime();
+        holdChanges(() -> {
+            List<Clothing> removed = new ArrayList<>();
+            Set<ClothingPartition> emptied = new HashSet<>();
+            for (String id : ids) {
+                removeSlots(id, removed, emptied);
+            }
+            finishRemovals(emptied);
+            if (!removed.isEmpty()) {
+                modified();
+            }
+            logRemovals(removed);
+        });
+        REMOVE_LATENCY.recordSince(start);
+    }
 
-        EventLog.getInstance().logEvent(new Event("Clothing item removed."));
+    // MODIFIES: this, removed, emptied
+    // EFFECTS: empties every slot held by items with the given ID, adds those
+    //          items to removed and the partitions they were in to emptied
+    private void removeSlots(String id, List<Clothing> removed, Set<ClothingPartition> emptied) {
+        List<ClothingPartition.Slot> slots = this.byId.remove(id);
+
+        if (slots != null) {
+            for (ClothingPartition.Slot slot : slots) {
+                if (slot.isIn(this.allClothes)) {
+                    removed.add(slot.getItem());
+                }
+                emptied.add(slot.remove());
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: squeezes the emptied slots out of each of the given partitions
+    private static void finishRemovals(Set<ClothingPartition> emptied) {
+        for (ClothingPartition partition : emptied) {
+            partition.finishRemovals();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a listener that is given every event this wardrobe logs
+    //          from now on, in the order the changes were made, e.g, a journal
+    public void addListener(Consumer<Event> listener) {
+        this.listeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes a listener added with addListener, if it was added
+    public void removeListener(Consumer<Event> listener) {
+        this.listeners.remove(listener);
+    }
+
+    // EFFECTS: logs e in the event log and gives it to every listener; an add
+    //          or remove is also kept until it is saved
+    void log(Event e) {
+        if (this.restoring) {
+            return;
+        }
+        if (e.getOperation() == Event.Operation.ADDED || e.getOperation() == Event.Operation.REMOVED) {
+            synchronized (this.unsaved) {
+                this.unsaved.add(e);
+            }
+        }
+        EventLog.getInstance().logEvent(e);
+        for (Consumer<Event> listener : this.listeners) {
+            listener.accept(e);
+        }
+    }
+
+    // EFFECTS: logs a removal event for each item in removed
+    void logRemovals(List<Clothing> removed) {
+        for (Clothing c : removed) {
+            log(new Event(Event.Operation.REMOVED, c));
+        }
     }
 
     // REQUIRES: - category is either "colour", "fit", or "mood"
     //           - toFilter must be a Wardrobe field, e.g, this.bottoms
     // EFFECTS: filters given list of clothing, toFilter, by preference
     //          (e.g, "preppy") in category (e.g, mood), and returns the
-    //          filtered list
+    //          filtered list. items are looked up in the category's index and
+    //          intersected with toFilter, so only matching items are visited
     public List<Clothing> filterAll(String category, String preference,
                                     List<Clothing> toFilter) {
-        Predicate<Clothing> filter;
+        long start = System.nanoTime();
+        ClothingPartition matches = indexFor(category).get(preference);
+        List<Clothing> matchList = matches == null ? Collections.emptyList() : matches.asList();
+
+        log(new Event(Event.Operation.FILTERED));
+        List<Clothing> result = intersect(matchList, toFilter, codeOf(category),
+                AttributeDictionary.getInstance().lookup(preference));
+        FILTER_ALL_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // EFFECTS: returns every item in allClothes that matches filter, e.g,
+    //          "green OR blue, NOT baggy", in the order they were added
+    public List<Clothing> filter(ClothingFilter filter) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        BitSet matches = filter.evaluate(new PartitionBitmaps());
+        List<Clothing> all = getAllClothes();
+        List<Clothing> result = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            result.add(all.get(i));
+        }
+        FILTER_LATENCY.recordSince(start);
+        return result;
+    }
+
+    // REQUIRES: c is in allClothes after position after
+    // EFFECTS: returns the first position of c in allClothes after position
+    //          after, found through the slots indexed under its ID
+    private int positionOf(Clothing c, int after) {
+        for (ClothingPartition.Slot slot : this.byId.get(c.getId())) {
+            if (slot.getItem() == c && slot.isIn(this.allClothes) && slot.getIndex() > after) {
+                return slot.getIndex();
+            }
+        }
+        throw new IllegalStateException("Not in wardrobe: " + c.getId());
+    }
+
+    // REQUIRES: every key of criteria is either "colour", "fit", "mood" or
+    //           "dress code"
+    // EFFECTS: returns every item in allClothes that matches all of criteria
+    //          (category -> preference, e.g, "mood" -> "preppy") in the order
+    //          they were added. the criterion with the fewest matches is looked
+    //          up in its index, and the rest are checked against each of those
+    //          matches in one pass, most selective first
+    public List<Clothing> query(Map<String, String> criteria) {
+        long start = System.nanoTime();
+        log(new Event(Event.Operation.FILTERED));
+        try {
+            return lookUp(criteria);
+        } finally {
+            QUERY_LATENCY.recordSince(start);
+        }
+    }
+
+    // EFFECTS: returns every item in allClothes that matches all of criteria,
+    //          looking up the most selective one in its index
+    private List<Clothing> lookUp(Map<String, String> criteria) {
+        List<String> categories = new ArrayList<>(criteria.keySet());
+        List<ClothingPartition> matches = new ArrayList<>();
+        for (String category : categories) {
+            ClothingPartition match = indexFor(category).get(criteria.get(category));
+            if (match == null) {
+                return new ArrayList<>();
+            }
+            matches.add(match);
+        }
 
+        if (categories.isEmpty()) {
+            return new ArrayList<>(getAllClothes());
+        }
+
+        List<Integer> order = bySelectivity(matches);
+        int rest = order.size() - 1;
+        List<ToIntFunction<Clothing>> attributes = new ArrayList<>(rest);
+        int[] preferences = new int[rest];
+        for (int i = 0; i < rest; i++) {
+            String category = categories.get(order.get(i + 1));
+            attributes.add(codeOf(category));
+            preferences[i] = AttributeDictionary.getInstance().lookup(criteria.get(category));
+        }
+
+        return matchingIn(matches.get(order.get(0)), attributes, preferences);
+    }
+
+    // EFFECTS: returns the indexes of matches, from the smallest partition to
+    //          the largest
+    private static List<Integer> bySelectivity(List<ClothingPartition> matches) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < matches.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingInt(i -> matches.get(i).size()));
+        return order;
+    }
+
+    // EFFECTS: returns every item in partition whose attributes match all of
+    //          preferences, in order
+    private List<Clothing> matchingIn(ClothingPartition partition,
+                                      List<ToIntFunction<Clothing>> attributes, int[] preferences) {
+        List<Clothing> result = new ArrayList<>();
+        for (Clothing c : partition.asList()) {
+            if (matchesAll(c, attributes, preferences)) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    // EFFECTS: returns true if, for every i, the attribute code given by
+    //          attributes[i] of c equals preferences[i]
+    private boolean matchesAll(Clothing c, List<ToIntFunction<Clothing>> attributes,
+                               int[] preferences) {
+        for (int i = 0; i < preferences.length; i++) {
+            if (attributes.get(i).applyAsInt(c) != preferences[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns a lazy stream of every outfit of a top and a bottom,
+    //          optionally with a jacket and/or accessory, whose pieces all
+    //          share a dress code. call parallel() on it to spread the work
+    //          across cores
+    public Stream<Outfit> outfits() {
+        return outfits(OutfitGenerator.SAME_DRESS_CODE);
+    }
+
+    // EFFECTS: returns a lazy stream of every outfit of a top and a bottom,
+    //          optionally with a jacket and/or accessory, in which every pair
+    //          of pieces is compatible
+    public Stream<Outfit> outfits(BiPredicate<Clothing, Clothing> compatible) {
+        return StreamSupport.stream(new OutfitGenerator(getTops(), getBottoms(), getJackets(),
+                getAccessories(), compatible), false);
+    }
+
+    // EFFECTS: returns the items of toFilter that are also in matches, in the
+    //          order of toFilter. when toFilter is allClothes or one of the
+    //          sub-lists, only matches is walked; otherwise toFilter has
+    //          already been narrowed down by the caller and each item's
+    //          attribute code is compared against the preference's code
+    private List<Clothing> intersect(List<Clothing> matches, List<Clothing> toFilter,
+                                     ToIntFunction<Clothing> attribute,
+                                     int preference) {
+        if (toFilter == this.allClothes.asList()) {
+            return new ArrayList<>(matches);
+        } else if (isSubList(toFilter)) {
+            return matches.stream().filter(c -> isIn(c, toFilter))
+                    .collect(Collectors.toList());
+        } else if (preference == AttributeDictionary.NOT_FOUND) {
+            return new ArrayList<>();
+        }
+
+        return toFilter.stream().filter(c -> attribute.applyAsInt(c) == preference)
+                .collect(Collectors.toList());
+    }
+
+    // MODIFIES: index
+    // EFFECTS: appends c to the partition stored under value in index and
+    //          returns the slot holding it
+    private ClothingPartition.Slot index(Map<String, ClothingPartition> index,
+                                         String value, Clothing c) {
+        return index.computeIfAbsent(value, v -> new ClothingPartition()).add(c);
+    }
+
+    // EFFECTS: returns the index for the given filter category; any category
+    //          other than "colour", "fit" or "mood" is treated as dress code
+    private Map<String, ClothingPartition> indexFor(String category) {
         if (category.equals("colour")) {
-            filter = c -> c.getColour().equals(preference);
+            return this.byColour;
         } else if (category.equals("fit")) {
-            filter = c -> c.getFit().equals(preference);
+            return this.byFit;
         } else if (category.equals("mood")) {
-            filter = c -> c.getMood().equals(preference);
+            return this.byMood;
         } else {
-            filter = c -> c.getDressCode().equals(preference);
+            return this.byDressCode;
+        }
+    }
+
+    // EFFECTS: returns the getter for the code of the attribute behind the
+    //          given filter category, following the same rules as indexFor
+    static ToIntFunction<Clothing> codeOf(String category) {
+        if (category.equals("colour")) {
+            return Clothing::getColourCode;
+        } else if (category.equals("fit")) {
+            return Clothing::getFitCode;
+        } else if (category.equals("mood")) {
+            return Clothing::getMoodCode;
+        } else {
+            return Clothing::getDressCodeCode;
+        }
+    }
+
+    // EFFECTS: returns true if list is one of this wardrobe's four sub-lists
+    private boolean isSubList(List<Clothing> list) {
+        return list == this.tops.asList() || list == this.bottoms.asList()
+                || list == this.jackets.asList() || list == this.accessories.asList();
+    }
+
+    // EFFECTS: returns true if c was added to the given sub-list
+    private boolean isIn(Clothing c, List<Clothing> subList) {
+        ClothingPartition partition = subListFor(c);
+        return partition != null && partition.asList() == subList;
+    }
+
+    // EFFECTS: returns the sub-list that c was added to, or null if its type
+    //          does not belong to any of them
+    private ClothingPartition subListFor(Clothing c) {
+        if (c.getType().equalsIgnoreCase("top")) {
+            return this.tops;
+        } else if (c.getType().equalsIgnoreCase("bottom")) {
+            return this.bottoms;
+        } else if (c.getType().equalsIgnoreCase("jacket")) {
+            return this.jackets;
+        } else if (c.getType().equalsIgnoreCase("accessory")) {
+            return this.accessories;
+        }
+        return null;
+    }
+
+    // EFFECTS: returns the no. of times clothing has been added to or removed
+    //          from this; a wardrobe has changed since it was last saved if
+    //          this differs from what it was at the time
+    public int getModifications() {
+        return this.modifications;
+    }
+
+    // EFFECTS: returns true if clothing has been added to or removed from this
+    //          since it was last saved
+    public boolean isDirty() {
+        synchronized (this.unsaved) {
+            return !this.unsaved.isEmpty();
+        }
+    }
+
+    // EFFECTS: returns the events of every add and remove made since this was
+    //          last saved, in the order they were made
+    public List<Event> getUnsavedChanges() {
+        synchronized (this.unsaved) {
+            return new ArrayList<>(this.unsaved);
+        }
+    }
+
+    // REQUIRES: n <= getUnsavedChanges().size()
+    // MODIFIES: this
+    // EFFECTS: marks the first n unsaved changes as saved, e.g, the n that
+    //          getUnsavedChanges() returned before they were written
+    public void markSaved(int n) {
+        synchronized (this.unsaved) {
+            this.unsaved.subList(0, n).clear();
+        }
+    }
+
+    // EFFECTS: runs action while no clothing can be added or removed, so it
+    //          sees this and its unsaved changes at one point in time, e.g, to
+    //          write this and mark every change saved. clothing is added and
+    //          removed holding the same lock, so another thread can read this
+    //          in action while it is changed on one thread, e.g, the GUI's
+    public void holdChanges(Runnable action) {
+        changeLock.lock();
+        try {
+            action.run();
+        } finally {
+            changeLock.unlock();
         }
+    }
 
-        EventLog.getInstance().logEvent(new Event("Filtered wardrobe for search criteria."));
-        return toFilter.stream().filter(filter).collect(Collectors.toList());
+    // MODIFIES: this
+    // EFFECTS: runs load while no clothing can be added or removed on another
+    //          thread, applying the adds and removes it makes to this without
+    //          logging them, keeping them unsaved or telling listeners, e.g,
+    //          to read this from a file it was saved to
+    public void restore(Runnable load) {
+        holdChanges(() -> {
+            boolean outer = this.restoring;
+            this.restoring = true;
+            try {
+                load.run();
+            } finally {
+                this.restoring = outer;
+            }
+        });
+    }
+
+    // MODIFIES: this
+    // EFFECTS: counts one more change to this
+    void modified() {
+        this.modifications++;
     }
 
     // EFFECTS: creates and returns this as JSON object
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("allClothes", clothingToJson(this.allClothes));
-        json.put("tops", clothingToJson(this.tops));
-        json.put("bottoms", clothingToJson(this.bottoms));
-        json.put("jackets", clothingToJson(this.jackets));
-        json.put("accessories", clothingToJson(this.accessories));
+        json.put("allClothes", clothingToJson(getAllClothes()));
+        json.put("tops", clothingToJson(getTops()));
+        json.put("bottoms", clothingToJson(getBottoms()));
+        json.put("jackets", clothingToJson(getJackets()));
+        json.put("accessories", clothingToJson(getAccessories()));
         return json;
     }
 
     // EFFECTS: returns things in this workroom as a JSON array
-    private JSONArray clothingToJson(List<Clothing> field) {
+    JSONArray clothingToJson(List<Clothing> field) {
         JSONArray jsonArray = new JSONArray();
 
         for (Clothing c : field) {
@@ -108,22 +549,49 @@ public class Wardrobe implements Writable {
     }
 
     public List<Clothing> getAllClothes() {
-        return this.allClothes;
+        return this.allClothes.asList();
     }
 
     public List<Clothing> getTops() {
-        return this.tops;
+        return this.tops.asList();
     }
 
     public List<Clothing> getBottoms() {
-        return this.bottoms;
+        return this.bottoms.asList();
     }
 
     public List<Clothing> getJackets() {
-        return this.jackets;
+        return this.jackets.asList();
     }
 
     public List<Clothing> getAccessories() {
-        return this.accessories;
+        return this.accessories.asList();
+    }
+
+    // Represents the items of allClothes as bitsets, one bit per position;
+    // each value's bitset is read off its partition in the attribute index,
+    // so only the items carrying it are visited. a partition is in the order
+    // of allClothes, so each item's position is after the one before it
+    private final class PartitionBitmaps implements ClothingFilter.Bitmaps {
+        @Override
+        public BitSet all() {
+            BitSet result = new BitSet(allClothes.size());
+            result.set(0, allClothes.size());
+            return result;
+        }
+
+        @Override
+        public BitSet matching(String category, int code) {
+            BitSet result = new BitSet(allClothes.size());
+            ClothingPartition matches = indexFor(category).get(AttributeDictionary.getInstance().decode(code));
+            if (matches != null) {
+                int position = -1;
+                for (Clothing c : matches.asList()) {
+                    position = positionOf(c, position);
+                    result.set(position);
+                }
+            }
+            return result;
+        }
     }
 }
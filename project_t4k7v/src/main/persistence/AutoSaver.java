@@ -0,0 +1,241 @@
+package persistence;
+
+import model.Event;
+import model.LatencyHistogram;
+import model.Metrics;
+import model.Wardrobe;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Represents a service that saves a wardrobe on a background thread shortly
+// after it changes, so a crash loses at most the last moments of changes.
+// every add or remove (re)starts a debounce timer, and the wardrobe is saved
+// once debounceMillis pass without another change, or maxDelayMillis after the
+// first unsaved change of a burst, whichever comes first. a burst of many
+// changes is so saved with one write through writer, e.g, a DeltaStore, whose
+// writes end with a single force to disk. the wardrobe is read on the
+// background thread while it may be changed on others, so writer must read
+// it while holding its changes, as DeltaStore does. a save that fails is
+// reported to every failure listener on the background thread, then retried
+// every maxDelayMillis (at least MIN_RETRY_MILLIS), without reporting the
+// retries, until it succeeds or a change schedules a save of its own; the
+// first failure is thrown again by close()
+public class AutoSaver implements Consumer<Event> {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000;
+    public static final long MIN_RETRY_MILLIS = 100;
+    private static final LatencyHistogram SAVE_LATENCY = Metrics.getInstance().latency("autosave.save");
+
+    private final WardrobeWriter writer;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+
+    private ScheduledExecutorService saver;
+    private Wardrobe wardrobe;            // the wardrobe watched; null if none
+    private ScheduledFuture<?> pending;   // the save scheduled, if not yet started
+    private long scheduled;               // no. of saves scheduled so far
+    private long burstStart;              // when the first unsaved change of the
+                                          // burst was made, in nanoseconds; -1 if none
+    private long saves;                   // no. of saves written
+    private volatile IOException failure; // first error saving, thrown by close()
+    private final List<Consumer<IOException>> failureListeners;  // told of every failed save
+
+    // EFFECTS: constructs a saver writing through writer with the default
+    //          debounce and maximum delay
+    public AutoSaver(WardrobeWriter writer) {
+        this(writer, DEFAULT_DEBOUNCE_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    // REQUIRES: 0 <= debounceMillis <= maxDelayMillis
+    // EFFECTS: constructs a saver writing through writer debounceMillis after
+    //          the last change of a burst, or at most maxDelayMillis after its
+    //          first
+    public AutoSaver(WardrobeWriter writer, long debounceMillis, long maxDelayMillis) {
+        this.writer = writer;
+        this.debounceMillis = debounceMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.burstStart = -1;
+        this.failureListeners = new CopyOnWriteArrayList<>();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: tells listener of the error every time a save fails, on the
+    //          background thread, e.g, to show it to the user
+    public void addFailureListener(Consumer<IOException> listener) {
+        failureListeners.add(listener);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops telling listener of failed saves
+    public void removeFailureListener(Consumer<IOException> listener) {
+        failureListeners.remove(listener);
+    }
+
+    // MODIFIES: this, wd
+    // EFFECTS: stops watching the wardrobe watched so far, if any, and saves
+    //          wd in the background whenever it changes from now on, starting
+    //          with any changes it has not saved yet
+    public synchronized void watch(Wardrobe wd) {
+        if (wardrobe == wd) {
+            return;
+        }
+        if (wardrobe != null) {
+            wardrobe.removeListener(this);
+        }
+        if (saver == null) {
+            saver = startSaver();
+        }
+        wardrobe = wd;
+        wd.addListener(this);
+        if (wd.isDirty()) {
+            schedule(debounceMillis);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: schedules a save for a change in e, postponing the one already
+    //          scheduled; events other than adds and removes are ignored
+    @Override
+    public synchronized void accept(Event e) {
+        if (saver != null
+                && (e.getOperation() == Event.Operation.ADDED || e.getOperation() == Event.Operation.REMOVED)) {
+            schedule(debounceMillis);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: saves the wardrobe watched in the background as soon as
+    //          possible, e.g, when the user asks to save
+    public synchronized void saveSoon() {
+        if (saver != null) {
+            schedule(0);
+        }
+    }
+
+    // EFFECTS: returns the no. of saves written so far
+    public synchronized long getSaves() {
+        return saves;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops watching the wardrobe, saves any changes not yet saved,
+    //          waits for the saves scheduled to be written and stops the
+    //          background thread; throws IOException if a save failed
+    public void close() throws IOException {
+        ScheduledExecutorService running;
+        synchronized (this) {
+            if (wardrobe != null) {
+                wardrobe.removeListener(this);
+                if (wardrobe.isDirty()) {
+                    schedule(0);
+                }
+            }
+            running = saver;
+            saver = null;
+        }
+        if (running != null) {
+            running.shutdown();
+            try {
+                running.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // EFFECTS: returns a background thread to save on, which drops a save
+    //          from its queue as soon as it is cancelled, so a burst of changes
+    //          does not pile up cancelled saves
+    private static ScheduledExecutorService startSaver() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "wardrobe-autosave");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    // REQUIRES: the caller holds this's lock and saver is running
+    // MODIFIES: this
+    // EFFECTS: replaces the save scheduled, if it has not started, with one
+    //          delayMillis from now, or sooner if the burst has gone on for
+    //          maxDelayMillis
+    private void schedule(long delayMillis) {
+        long now = System.nanoTime();
+        if (burstStart < 0) {
+            burstStart = now;
+        }
+        long left = maxDelayMillis - TimeUnit.NANOSECONDS.toMillis(now - burstStart);
+        scheduleSave(Math.max(0, Math.min(delayMillis, left)), false);
+    }
+
+    // REQUIRES: the caller holds this's lock and saver is running
+    // MODIFIES: this
+    // EFFECTS: replaces the save scheduled, if it has not started, with one
+    //          delayMillis from now that retries a failed save if retry
+    private void scheduleSave(long delayMillis, boolean retry) {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        Wardrobe wd = wardrobe;
+        long number = ++scheduled;
+        pending = saver.schedule(() -> save(wd, number, retry), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // MODIFIES: this, wd
+    // EFFECTS: writes the changes to wd through writer, as the save scheduled
+    //          number-th, which retries a failed save if retry; changes made
+    //          from now on start the next burst. if they cannot be written,
+    //          reports the error
+    private void save(Wardrobe wd, long number, boolean retry) {
+        synchronized (this) {
+            burstStart = -1;
+        }
+        long start = System.nanoTime();
+        try {
+            writer.open();
+            writer.write(wd);
+            writer.close();
+            synchronized (this) {
+                saves++;
+            }
+        } catch (IOException ex) {
+            failed(ex, number, retry);
+        } catch (RuntimeException ex) {
+            failed(new IOException("Unable to save wardrobe: " + ex, ex), number, retry);
+        }
+        SAVE_LATENCY.recordSince(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: keeps ex for close() if it is the first error and tells the
+    //          failure listeners of it unless it failed a retry, then retries
+    //          the save unless a later one has been scheduled or this is
+    //          closing
+    private void failed(IOException ex, long number, boolean retry) {
+        if (failure == null) {
+            failure = ex;
+        }
+        if (!retry) {
+            for (Consumer<IOException> listener : failureListeners) {
+                listener.accept(ex);
+            }
+        }
+        synchronized (this) {
+            if (saver != null && scheduled == number) {
+                scheduleSave(Math.max(maxDelayMillis, MIN_RETRY_MILLIS), true);
+            }
+        }
+    }
+}
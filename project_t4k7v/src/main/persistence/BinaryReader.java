@@ -0,0 +1,86 @@
+package persistence;
+
+import model.Clothing;
+import model.ClothingSource;
+import model.LatencyHistogram;
+import model.MappedWardrobe;
+import model.Metrics;
+import model.Wardrobe;
+
+import java.io.IOException;
+
+// Represents a reader that reads a wardrobe from a file BinaryWriter wrote.
+// the file is mapped into memory and decoded in place: each distinct string
+// in its string table is decoded once, the first time an item refers to it,
+// and shared by every item that does. a lazy reader goes further and reads
+// no items at all: it returns a MappedWardrobe over the mapped file, which
+// decodes each item's fields only when they are asked for
+public class BinaryReader implements WardrobeReader {
+    private static final LatencyHistogram READ_LATENCY = Metrics.getInstance().latency("binary.read");
+
+    private final String source;
+    private final boolean lazy;
+
+    // EFFECTS: constructs reader to read every item from source file
+    public BinaryReader(String source) {
+        this(source, false);
+    }
+
+    // EFFECTS: constructs reader to read from source file, returning a
+    //          MappedWardrobe from read() if lazy
+    public BinaryReader(String source, boolean lazy) {
+        this.source = source;
+        this.lazy = lazy;
+    }
+
+    // EFFECTS: reads wardrobe from file and returns it; throws IOException
+    //          if an error occurs reading data from file or it is not one
+    //          BinaryWriter wrote
+    @Override
+    public Wardrobe read() throws IOException {
+        return lazy ? readMapped() : readInto(new Wardrobe());
+    }
+
+    // EFFECTS: maps file into memory and returns a wardrobe over it, without
+    //          reading any items; throws IOException if file cannot be read
+    //          or its header is not one BinaryWriter wrote
+    public MappedWardrobe readMapped() throws IOException {
+        long start = System.nanoTime();
+        MappedWardrobe wd = new MappedWardrobe(MappedStore.open(source));
+        READ_LATENCY.recordSince(start);
+        return wd;
+    }
+
+    // REQUIRES: wd is empty
+    // MODIFIES: wd
+    // EFFECTS: reads clothing from file into wd, in the order it was added,
+    //          and returns it; throws IOException if an error occurs reading
+    //          data from file or it is not one BinaryWriter wrote. the items
+    //          are restored, so reading logs no events
+    @Override
+    public Wardrobe readInto(Wardrobe wd) throws IOException {
+        long start = System.nanoTime();
+        MappedStore store = MappedStore.open(source);
+        try {
+            wd.restore(() -> {
+                for (int i = 0; i < store.size(); i++) {
+                    wd.addClothing(parseClothing(store, i));
+                }
+            });
+        } catch (IllegalStateException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        READ_LATENCY.recordSince(start);
+        return wd;
+    }
+
+    // EFFECTS: returns item no. ordinal of store, with every field decoded
+    private static Clothing parseClothing(ClothingSource store, int ordinal) {
+        return new Clothing(store.field(ordinal, ClothingSource.ID),
+                store.field(ordinal, ClothingSource.TYPE),
+                store.field(ordinal, ClothingSource.COLOUR),
+                store.field(ordinal, ClothingSource.FIT),
+                store.field(ordinal, ClothingSource.MOOD),
+                store.field(ordinal, ClothingSource.DRESS_CODE));
+    }
+}
@@ -0,0 +1,204 @@
+package persistence;
+
+import model.Clothing;
+import model.LatencyHistogram;
+import model.Metrics;
+import model.Wardrobe;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Represents a writer that writes a wardrobe to file in a binary format that
+// BinaryReader can map into memory and decode without parsing text. every
+// int is 4 bytes, big-endian, and every offset is from the start of the file:
+//     header         MAGIC, FORMAT_VERSION, no. of strings, no. of items,
+//                    offset of the record index
+//     string index   offset of each string
+//     string table   each distinct string once, as its length in bytes
+//                    followed by its UTF-8 bytes
+//     record index   offset of each record, in the order items were added
+//     records        each item as its length in bytes (FIELDS ints) followed
+//                    by the string no. of its ID, type, colour, fit, mood and
+//                    dress code, or NULL_STRING for a field that is null
+// the file is written beside destination, forced to disk once, and renamed
+// over it when the writer is closed, so a crash part way through a write
+// leaves the last file written whole, and a MappedWardrobe still reading the
+// old file keeps its mapping
+public class BinaryWriter implements WardrobeWriter {
+    static final int MAGIC = 0x43485744;  // "CHWD"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 5 * Integer.BYTES;
+    static final int FIELDS = 6;
+    static final int RECORD_SIZE = Integer.BYTES + FIELDS * Integer.BYTES;
+    static final int NULL_STRING = -1;    // string no. of a null field
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final LatencyHistogram WRITE_LATENCY = Metrics.getInstance().latency("binary.write");
+
+    private final String destination;
+    private final String temporary;  // written first, then renamed to destination
+    private FileChannel channel;
+    private ByteBuffer buffer;
+
+    // EFFECTS: constructs writer to write to destination file
+    public BinaryWriter(String destination) {
+        this.destination = destination;
+        this.temporary = destination + ".tmp";
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws FileNotFoundException if destination file
+    //          cannot be opened for writing
+    @Override
+    public void open() throws FileNotFoundException {
+        channel = new FileOutputStream(temporary).getChannel();
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes wd to file; throws IOException if it cannot be written
+    //          or does not fit in the format
+    @Override
+    public void write(Wardrobe wd) throws IOException {
+        long start = System.nanoTime();
+        List<Clothing> items = wd.getAllClothes();
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<byte[]> encoded = encodeStrings(items, strings);
+
+        long recordIndex = HEADER_SIZE + (long) Integer.BYTES * encoded.size();
+        for (byte[] bytes : encoded) {
+            recordIndex += Integer.BYTES + bytes.length;
+        }
+        long end = recordIndex + (long) (Integer.BYTES + RECORD_SIZE) * items.size();
+        if (end > Integer.MAX_VALUE) {
+            throw new IOException("Wardrobe too large for binary format: " + end + " bytes");
+        }
+
+        writeHeader(encoded.size(), items.size(), (int) recordIndex);
+        writeStrings(encoded);
+        writeRecords(items, strings, (int) recordIndex);
+        WRITE_LATENCY.recordSince(start);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: flushes what has been written to disk, closes writer and
+    //          replaces destination file with what was written
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+        Files.move(Paths.get(temporary), Paths.get(destination),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // MODIFIES: strings
+    // EFFECTS: numbers each distinct field of items that is not null in
+    //          strings, in the order first found, and returns their UTF-8
+    //          bytes in that order
+    private static List<byte[]> encodeStrings(List<Clothing> items, Map<String, Integer> strings) {
+        List<byte[]> encoded = new ArrayList<>();
+        for (Clothing c : items) {
+            for (String field : fieldsOf(c)) {
+                if (field != null && !strings.containsKey(field)) {
+                    strings.put(field, strings.size());
+                    encoded.add(field.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return encoded;
+    }
+
+    // EFFECTS: returns the fields of c in the order they are stored
+    private static String[] fieldsOf(Clothing c) {
+        return new String[] {c.getId(), c.getType(), c.getColour(), c.getFit(), c.getMood(), c.getDressCode()};
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the header
+    private void writeHeader(int strings, int items, int recordIndex) throws IOException {
+        putInt(MAGIC);
+        putInt(FORMAT_VERSION);
+        putInt(strings);
+        putInt(items);
+        putInt(recordIndex);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the string index followed by the string table
+    private void writeStrings(List<byte[]> encoded) throws IOException {
+        int offset = HEADER_SIZE + Integer.BYTES * encoded.size();
+        for (byte[] bytes : encoded) {
+            putInt(offset);
+            offset += Integer.BYTES + bytes.length;
+        }
+        for (byte[] bytes : encoded) {
+            putInt(bytes.length);
+            put(bytes);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the record index, starting at recordIndex, followed by
+    //          a record of each item
+    private void writeRecords(List<Clothing> items, Map<String, Integer> strings, int recordIndex)
+            throws IOException {
+        int offset = recordIndex + Integer.BYTES * items.size();
+        for (int i = 0; i < items.size(); i++) {
+            putInt(offset);
+            offset += RECORD_SIZE;
+        }
+        for (Clothing c : items) {
+            putInt(FIELDS * Integer.BYTES);
+            for (String field : fieldsOf(c)) {
+                putInt(field == null ? NULL_STRING : strings.get(field));
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds value to buffer, writing buffer out first if it is full
+    private void putInt(int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            flush();
+        }
+        buffer.putInt(value);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds bytes to buffer, writing buffer out as it fills
+    private void put(byte[] bytes) throws IOException {
+        int from = 0;
+        while (from < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int n = Math.min(buffer.remaining(), bytes.length - from);
+            buffer.put(bytes, from, n);
+            from += n;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes everything in buffer to the channel and empties it
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
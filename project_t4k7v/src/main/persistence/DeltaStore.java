@@ -0,0 +1,383 @@
+package persistence;
+
+import model.Clothing;
+import model.Event;
+import model.LatencyHistogram;
+import model.Metrics;
+import model.Wardrobe;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Represents a wardrobe file that is saved incrementally. the full file at
+// path is written in a StoreFormat; after that, each save appends only the
+// items added and removed since the last save to
+//     <path>.delta
+// as one segment of lines, one per change:
+//     {"op": "begin"}
+//     {"op": "add", "item": {...}}    or    {"op": "remove", "id": "..."}
+//     {"op": "commit"}
+// so a save costs the size of the change, not of the wardrobe. reading
+// applies every committed segment to the full file, in order; a segment cut
+// short by a crash is ignored, and nothing read is logged as a change. the
+// full file is rewritten, and the delta deleted, only when compaction is due:
+// once the delta would hold more than compactAfter changes and more changes
+// than the wardrobe has items, so replaying it never costs much more than
+// reading the full file. a save never compacts: it appends, and once
+// compaction is due, leaves it to a background compactor, which folds the
+// delta into a new full file, i.e, a snapshot of the wardrobe. a save made
+// meanwhile waits for it on the saving thread, but changes to the wardrobe
+// are held only while its items are copied. only the first save of a
+// wardrobe, or one after a torn segment, writes the full file itself.
+// compaction writes the new full file to
+//     <path>.next
+// then deletes the delta, then renames it over path. deleting the delta is the
+// point at which the new full file takes over, so it is never replayed on top
+// of a file that already holds it: after a crash, reading moves a <path>.next
+// left with no delta into place, and discards one left with a delta. a
+// wardrobe may be saved on a background thread, e.g, by an AutoSaver, while
+// it is changed on another; changes are held only while its unsaved changes,
+// or for compaction its items, are copied, never while a file is written
+public class DeltaStore implements WardrobeReader, WardrobeWriter {
+    public static final int DEFAULT_COMPACT_AFTER = 1000;
+    private static final LatencyHistogram APPEND_LATENCY = Metrics.getInstance().latency("delta.append");
+    private static final LatencyHistogram REPLAY_LATENCY = Metrics.getInstance().latency("delta.replay");
+
+    private final StoreFormat format;
+    private final String path;
+    private final Path delta;
+    private final Path next;   // the new full file, while compacting
+    private final int compactAfter;
+
+    private Wardrobe saved;    // the wardrobe the files hold, as last read or
+                               // written; null if none
+    private int deltaChanges;  // no. of changes in the delta
+    private boolean torn;      // true if the delta ends with a segment cut short
+
+    private ExecutorService compactor;      // folds the delta in the background;
+                                            // null until first needed
+    private Future<?> compaction;           // the compaction last started; null if none
+    private IOException compactionFailure;  // error of a background compaction,
+                                            // thrown by the next write or awaitCompaction
+
+    // EFFECTS: constructs a store of a wardrobe at path in format that
+    //          compacts after the default no. of changes
+    public DeltaStore(StoreFormat format, String path) {
+        this(format, path, DEFAULT_COMPACT_AFTER);
+    }
+
+    // REQUIRES: compactAfter >= 0
+    // EFFECTS: constructs a store of a wardrobe at path in format that lets
+    //          the delta grow to compactAfter changes before compacting
+    public DeltaStore(StoreFormat format, String path, int compactAfter) {
+        this.format = format;
+        this.path = path;
+        this.delta = Paths.get(path + ".delta");
+        this.next = Paths.get(path + ".next");
+        this.compactAfter = compactAfter;
+    }
+
+    // EFFECTS: reads the full file, applies the delta to it and returns it;
+    //          throws IOException if an error occurs reading either file
+    @Override
+    public synchronized Wardrobe read() throws IOException {
+        recover();
+        return replay(format.readerFor(path).read());
+    }
+
+    // REQUIRES: wd is empty
+    // MODIFIES: wd
+    // EFFECTS: reads the full file into wd, applies the delta to it and
+    //          returns it; throws IOException if an error occurs reading
+    //          either file
+    @Override
+    public synchronized Wardrobe readInto(Wardrobe wd) throws IOException {
+        recover();
+        return replay(format.readerFor(path).readInto(wd));
+    }
+
+    // EFFECTS: does nothing; each save opens the file it writes
+    @Override
+    public void open() {
+        // nothing to open until it is known which file is written
+    }
+
+    // MODIFIES: this, wd
+    // EFFECTS: appends the changes made to wd since it was last read or
+    //          saved here to the delta, or writes wd to the full file if it
+    //          was not the wardrobe last read or saved here, then marks what
+    //          was written saved, and starts a background compaction if one
+    //          is due; throws IOException if a file cannot be written, or if
+    //          a background compaction failed since the last write. changes
+    //          made to wd on another thread meanwhile are left for the next
+    //          save
+    @Override
+    public synchronized void write(Wardrobe wd) throws IOException {
+        List<Event> changes = wd.getUnsavedChanges();
+        if (wd != saved || torn) {
+            compactHolding(wd);
+        } else if (!changes.isEmpty()) {
+            append(changes);
+            wd.markSaved(changes.size());
+        }
+        if (isCompactionDue(wd) && (compaction == null || compaction.isDone())) {
+            compaction = startCompactor().submit(() -> compactInBackground(wd));
+        }
+        throwCompactionFailure();
+    }
+
+    // EFFECTS: waits for the background compaction started last, if any, to
+    //          finish; throws IOException if a background compaction failed
+    //          since the last write
+    public void awaitCompaction() throws IOException {
+        Future<?> running;
+        synchronized (this) {
+            running = compaction;
+        }
+        if (running != null) {
+            try {
+                running.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Compaction failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for compaction");
+            }
+        }
+        synchronized (this) {
+            throwCompactionFailure();
+        }
+    }
+
+    // EFFECTS: does nothing; each save closes the file it writes
+    @Override
+    public void close() {
+        // every file written has already been closed
+    }
+
+    // EFFECTS: returns the no. of changes in the delta
+    public synchronized int getDeltaChanges() {
+        return deltaChanges;
+    }
+
+    // EFFECTS: returns true if wd is the wardrobe the files hold and the
+    //          delta holds more than compactAfter changes and more than the
+    //          no. of items in wd, counting them while no changes can be made
+    //          to wd
+    private boolean isCompactionDue(Wardrobe wd) {
+        if (wd != saved || deltaChanges <= compactAfter) {
+            return false;
+        }
+        int[] items = new int[1];
+        wd.holdChanges(() -> items[0] = wd.getAllClothes().size());
+        return deltaChanges > items[0];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the background thread that compacts, starting it if
+    //          this has not compacted in the background before
+    private ExecutorService startCompactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "wardrobe-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return compactor;
+    }
+
+    // MODIFIES: this, wd
+    // EFFECTS: writes wd to the full file if compaction is still due, keeping
+    //          any error for the next write or awaitCompaction
+    private synchronized void compactInBackground(Wardrobe wd) {
+        try {
+            if (isCompactionDue(wd)) {
+                compactHolding(wd);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (compactionFailure == null) {
+                compactionFailure = e instanceof IOException ? (IOException) e
+                        : new IOException("Compaction failed: " + e, e);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: throws the error of a background compaction, if there was one
+    //          since it was last thrown
+    private void throwCompactionFailure() throws IOException {
+        IOException failure = compactionFailure;
+        compactionFailure = null;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // MODIFIES: this, wd
+    // EFFECTS: copies the items of wd and counts its unsaved changes while no
+    //          changes can be made to it, writes the copy to the full file
+    //          while wd can go on changing, then marks the changes counted
+    //          saved
+    private void compactHolding(Wardrobe wd) throws IOException {
+        List<Clothing> items = new ArrayList<>();
+        int[] counted = new int[1];
+        wd.holdChanges(() -> {
+            items.addAll(wd.getAllClothes());
+            counted[0] = wd.getUnsavedChanges().size();
+        });
+        Wardrobe copy = new Wardrobe();
+        copy.restore(() -> items.forEach(copy::addClothing));
+        compact(copy);
+        saved = wd;
+        wd.markSaved(counted[0]);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes wd to the next full file, deletes the delta it now
+    //          holds, then moves the next full file into place
+    private void compact(Wardrobe wd) throws IOException {
+        WardrobeWriter writer = format.writerFor(next.toString());
+        writer.open();
+        writer.write(wd);
+        writer.close();
+        Files.deleteIfExists(delta);
+        Files.move(next, Paths.get(path), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deltaChanges = 0;
+        torn = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends changes to the delta as one segment and forces it to
+    //          disk
+    private void append(List<Event> changes) throws IOException {
+        long start = System.nanoTime();
+        StringBuilder segment = new StringBuilder("{\"op\":\"begin\"}\n");
+        for (Event e : changes) {
+            segment.append(changeOf(e)).append('\n');
+        }
+        segment.append("{\"op\":\"commit\"}\n");
+
+        ByteBuffer bytes = ByteBuffer.wrap(segment.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(delta, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+        deltaChanges += changes.size();
+        APPEND_LATENCY.recordSince(start);
+    }
+
+    // EFFECTS: finishes a compaction cut short by a crash: moves the next
+    //          full file into place if the delta it holds has been deleted,
+    //          and deletes it otherwise
+    private void recover() throws IOException {
+        if (Files.exists(next)) {
+            if (Files.exists(delta)) {
+                Files.delete(next);
+            } else {
+                Files.move(next, Paths.get(path), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+    }
+
+    // MODIFIES: this, wd
+    // EFFECTS: restores every committed change in the delta to wd, in order,
+    //          and returns it
+    private Wardrobe replay(Wardrobe wd) throws IOException {
+        long start = System.nanoTime();
+        deltaChanges = 0;
+        torn = false;
+        if (Files.exists(delta)) {
+            List<JSONObject> committed;
+            try (BufferedReader reader = Files.newBufferedReader(delta, StandardCharsets.UTF_8)) {
+                committed = readSegments(reader);
+            }
+            wd.restore(() -> committed.forEach(change -> apply(wd, change)));
+        }
+        saved = wd;
+        REPLAY_LATENCY.recordSince(start);
+        return wd;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the changes in each segment read from reader whose
+    //          commit is read, in order; a line cut short by a crash drops the
+    //          segment it is in, as though another began there
+    private List<JSONObject> readSegments(BufferedReader reader) throws IOException {
+        List<JSONObject> committed = new ArrayList<>();
+        List<JSONObject> segment = new ArrayList<>();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            JSONObject change = parse(line);
+            String op = change == null ? "begin" : change.getString("op");
+            if (op.equals("begin")) {
+                segment.clear();
+                torn = true;
+            } else if (op.equals("commit")) {
+                committed.addAll(segment);
+                deltaChanges += segment.size();
+                segment.clear();
+                torn = false;
+            } else {
+                segment.add(change);
+            }
+        }
+        return committed;
+    }
+
+    // EFFECTS: returns the change in e as one JSON object, or null if e is
+    //          not an add or remove
+    private static JSONObject changeOf(Event e) {
+        JSONObject change = new JSONObject();
+        if (e.getOperation() == Event.Operation.ADDED) {
+            change.put("op", "add");
+            change.put("item", e.getItem().toJson());
+        } else if (e.getOperation() == Event.Operation.REMOVED) {
+            change.put("op", "remove");
+            change.put("id", e.getItemId());
+        } else {
+            return null;
+        }
+        return change;
+    }
+
+    // MODIFIES: wd
+    // EFFECTS: applies the change that changeOf() returned to wd
+    private static void apply(Wardrobe wd, JSONObject change) {
+        if (change.getString("op").equals("add")) {
+            Clothing c = JsonReader.toClothing(change.getJSONObject("item"));
+            wd.addClothing(c);
+        } else {
+            wd.removeClothing(change.getString("id"));
+        }
+    }
+
+    // EFFECTS: returns line as a JSON object, or null if it was cut short
+    private static JSONObject parse(String line) {
+        try {
+            return new JSONObject(line);
+        } catch (JSONException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package persistence;
+
+import model.Event;
+
+import java.awt.EventQueue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Represents a journal that appends events to a file on a background thread,
+// so they survive a crash. logging an event only puts it on a bounded queue;
+// the background thread takes whatever has queued up since its last write,
+// appends it as one batch and forces it to disk once for the whole batch.
+// when the queue is full, logging waits for the background thread to catch up,
+// but only for OFFER_TIMEOUT_MILLIS, and never on the event thread, which
+// must not stall behind the disk; an event that still cannot be queued is
+// dropped and counted, and close() reports it. a batch that cannot be written
+// is reported the same way, and the background thread goes on with the next.
+// each event is written as one line,
+//     <milliseconds since the epoch> TAB <operation> TAB <item ID> TAB <count> TAB <description>
+// where the item ID is "-" for an event not about one item, and the count is
+// the no. of events the line stands for. a run of N repeats the EventLog
+// coalesced is written when its first event is logged, with count 1, and
+// again when the run ends, with count N - 1 for the repeats after the first,
+// so the counts of the lines always add up to the no. of events logged
+// e.g, to journal every event logged: EventLog.getInstance().addListener(journal)
+public class EventJournal implements Consumer<Event> {
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_BATCH = 256;
+    public static final long OFFER_TIMEOUT_MILLIS = 1000;
+
+    private final Event stop = new Event("Event journal closed.");  // queued last, by close()
+
+    private final String destination;
+    private final BlockingQueue<Event> queue;
+    private final int maxBatch;
+    private final ReadWriteLock closing;    // held for writing while close() stops logging
+    private final AtomicLong dropped;       // no. of events that could not be queued
+    private FileChannel channel;
+    private Thread writer;
+    private boolean closed;                 // guarded by closing
+    private volatile IOException failure;   // first error writing, thrown by close()
+    private long batches;                   // no. of batches written, for the writer only
+    private long failedBatches;             // no. of batches not written, for the writer only
+
+    // EFFECTS: constructs a journal appending to destination file with the
+    //          default queue capacity and batch size
+    public EventJournal(String destination) {
+        this(destination, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_BATCH);
+    }
+
+    // REQUIRES: queueCapacity > 0 and maxBatch > 0
+    // EFFECTS: constructs a journal appending to destination file that queues
+    //          at most queueCapacity events and writes at most maxBatch at once
+    public EventJournal(String destination, int queueCapacity, int maxBatch) {
+        this.destination = destination;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.closing = new ReentrantReadWriteLock();
+        this.dropped = new AtomicLong();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: opens destination file for appending and starts the background
+    //          thread; throws IOException if the file cannot be opened
+    public void open() throws IOException {
+        channel = FileChannel.open(Paths.get(destination), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        writer = new Thread(this::drain, "event-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // REQUIRES: this is open
+    // MODIFIES: this
+    // EFFECTS: queues e to be appended, waiting up to OFFER_TIMEOUT_MILLIS
+    //          while the queue is full, or not at all on the event thread, and
+    //          dropping e if it is still full; events logged once close() has
+    //          started are ignored
+    @Override
+    public void accept(Event e) {
+        closing.readLock().lock();
+        try {
+            long timeout = EventQueue.isDispatchThread() ? 0 : OFFER_TIMEOUT_MILLIS;
+            if (!closed && !queue.offer(e, timeout, TimeUnit.MILLISECONDS)) {
+                dropped.incrementAndGet();
+            }
+        } catch (InterruptedException ex) {
+            dropped.incrementAndGet();
+            Thread.currentThread().interrupt();
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops taking events; if this was opened, waits for every queued
+    //          event to be appended, then stops the background thread and
+    //          closes the file; throws IOException if any event was dropped or
+    //          could not be written, or the file cannot be closed
+    public void close() throws IOException {
+        closing.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        if (writer == null) {
+            return;
+        }
+        stopWriter();
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+        if (dropped.get() > 0) {
+            throw new IOException(dropped.get() + " events could not be queued for " + destination);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: queues the stop event after every event logged and waits for the
+    //          background thread to write them and end
+    private void stopWriter() {
+        try {
+            while (!queue.offer(stop, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    return;
+                }
+            }
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // EFFECTS: returns the no. of batches written so far; only accurate once
+    //          this is closed
+    public long getBatches() {
+        return batches;
+    }
+
+    // EFFECTS: returns the no. of batches that could not be written so far;
+    //          only accurate once this is closed
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    // EFFECTS: returns the no. of events dropped because the queue stayed full
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends queued events in batches until the stop event is taken
+    private void drain() {
+        List<Event> batch = new ArrayList<>(maxBatch);
+        boolean stopped = false;
+
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                continue;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+
+            stopped = batch.remove(stop);
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends batch to the file and forces it to disk once; if it
+    //          cannot be, counts it and keeps the first error, so the
+    //          background thread goes on and logging never waits on it
+    private void write(List<Event> batch) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(format(batch).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            batches++;
+        } catch (IOException | RuntimeException ex) {
+            failedBatches++;
+            if (failure == null) {
+                failure = ex instanceof IOException ? (IOException) ex
+                        : new IOException("Could not write events to " + destination, ex);
+            }
+        }
+    }
+
+    // EFFECTS: returns the lines batch is written as
+    private static String format(List<Event> batch) {
+        StringBuilder lines = new StringBuilder();
+        for (Event e : batch) {
+            lines.append(e.getTime()).append('\t')
+                    .append(e.getOperation()).append('\t')
+                    .append(e.getItemId() == null ? "-" : escape(e.getItemId())).append('\t')
+                    .append(countOf(e)).append('\t')
+                    .append(escape(e.getDescription()))
+                    .append('\n');
+        }
+        return lines.toString();
+    }
+
+    // EFFECTS: returns the no. of events e stands for that are not already
+    //          journalled: 1, or for the end of a coalesced run, which is only
+    //          logged with more than one event in it, its repeats after the
+    //          first, whose line was written when it was logged
+    private static int countOf(Event e) {
+        return e.getCount() > 1 ? e.getCount() - 1 : 1;
+    }
+
+    // EFFECTS: returns field with backslashes, tabs and newlines escaped, so
+    //          it stays in one column of one line
+    private static String escape(String field) {
+        return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+}
@@ -1,77 +1,354 @@
 package persistence;
 
 import model.Clothing;
+import model.LatencyHistogram;
+import model.Metrics;
 import model.Wardrobe;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.json.*;
 
-// Represents a reader that reads workroom from JSON data stored in file
+// Represents a reader that reads workroom from JSON data stored in file, in
+// either version JsonWriter writes; a file with no version is version 1.
+// a parallel reader maps the file into memory, cuts the array of items into
+// chunks of whole items, parses the chunks on the common fork-join pool and
+// adds the items to the wardrobe in the order they appear in the file
 // reference: JsonSerializationDemo, JsonReader.java class
-public class JsonReader {
+public class JsonReader implements WardrobeReader {
+    private static final LatencyHistogram READ_LATENCY = Metrics.getInstance().latency("json.read");
+    private static final List<String> CLOTHING_FIELDS =
+            List.of("id", "type", "colour", "fit", "mood", "dressCode");
+    private static final int MIN_CHUNK_SIZE = 1 << 16;   // bytes
+    private static final int CHUNKS_PER_THREAD = 4;      // so a slow chunk does not hold up the rest
+
     private String source;
+    private boolean parallel;
 
     // EFFECTS: constructs reader to read from source file
     // reference: JsonSerializationDemo, JsonReader() constructor
     public JsonReader(String source) {
+        this(source, false);
+    }
+
+    // EFFECTS: constructs reader to read from source file, parsing the items
+    //          in chunks in parallel if parallel
+    public JsonReader(String source, boolean parallel) {
         this.source = source;
+        this.parallel = parallel;
     }
 
     // EFFECTS: reads workroom from file and returns it;
     //          throws IOException if an error occurs reading data from file
     // reference: JsonSerializationDemo, JsonReader.read() method
+    @Override
     public Wardrobe read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseWardrobe(jsonObject);
+        return readInto(new Wardrobe());
+    }
+
+    // REQUIRES: wd is empty
+    // MODIFIES: wd
+    // EFFECTS: reads clothing from file into wd, e.g, a ColumnarWardrobe,
+    //          and returns it; throws IOException if an error occurs reading
+    //          data from file. the file is tokenized as it is read and each
+    //          item is added as soon as it is parsed, so memory used does not
+    //          grow with the size of the file; the per-type arrays of
+    //          version 1, which repeat allClothes, are skipped without being built.
+    //          the items are restored, so reading logs no events
+    @Override
+    public Wardrobe readInto(Wardrobe wd) throws IOException {
+        long start = System.nanoTime();
+        try {
+            wd.restore(() -> parseFile(wd));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        READ_LATENCY.recordSince(start);
+        return wd;
     }
 
-    // EFFECTS: reads source file as string and returns it
-    // reference: JsonSerializationDemo, JsonReader.readFile() method
-    private String readFile(String source) throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
+    // MODIFIES: wd
+    // EFFECTS: parses file, adding its clothing items to wd; throws
+    //          UncheckedIOException if an error occurs reading data from file
+    private void parseFile(Wardrobe wd) {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            if (parallel && channel.size() <= Integer.MAX_VALUE) {
+                ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                new ChunkedParse(new JsonSplitter(file), wd).parseWardrobe();
+            } else {
+                JsonTokenizer tokens = new JsonTokenizer(Channels.newReader(channel,
+                        StandardCharsets.UTF_8.newDecoder(), -1));
+                parseWardrobe(wd, tokens);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // MODIFIES: wd, tokens
+    // EFFECTS: parses the wardrobe object next in tokens, in either version,
+    //          adding its clothing items to wd
+    private void parseWardrobe(Wardrobe wd, JsonTokenizer tokens) throws IOException {
+        List<String> values = null;
+        tokens.consume(JsonTokenizer.Token.BEGIN_OBJECT);
+        while (tokens.hasNext()) {
+            String name = tokens.nextName();
+            if (name.equals("version")) {
+                checkVersion(tokens.nextInt());
+            } else if (name.equals("allClothes")) {
+                parseClothingItems(wd, tokens);
+            } else if (name.equals("values")) {
+                values = parseValues(tokens);
+            } else if (name.equals("items") && values != null) {
+                parseCompactItems(wd, tokens, values);
+            } else if (name.equals("items")) {
+                throw new JSONException("JSONObject[\"values\"] not found before items.");
+            } else {
+                tokens.skipValue();
+            }
+        }
+        tokens.consume(JsonTokenizer.Token.END_OBJECT);
+    }
 
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+    // EFFECTS: throws JSONException if version is not one this can read
+    private static void checkVersion(int version) {
+        if (version != JsonWriter.VERSION_1 && version != JsonWriter.VERSION_2) {
+            throw new JSONException("Unsupported version: " + version);
         }
-        return contentBuilder.toString();
     }
 
-    // EFFECTS: parses workroom from JSON object and returns it
-    // reference: JsonSerializationDemo, JsonReader.parseWorkroom() method
-    private Wardrobe parseWardrobe(JSONObject jsonObject) {
-        Wardrobe wr = new Wardrobe();
-        parseClothingItems(wr, jsonObject);
-        return wr;
+    // MODIFIES: tokens
+    // EFFECTS: parses the dictionary of attribute values next in tokens and
+    //          returns it
+    private static List<String> parseValues(JsonTokenizer tokens) throws IOException {
+        List<String> values = new ArrayList<>();
+        tokens.consume(JsonTokenizer.Token.BEGIN_ARRAY);
+        while (tokens.hasNext()) {
+            values.add(tokens.nextString());
+        }
+        tokens.consume(JsonTokenizer.Token.END_ARRAY);
+        return values;
     }
 
-    // MODIFIES: wr
-    // EFFECTS: parses thingies from JSON object and adds them to workroom
+    // MODIFIES: wd, tokens
+    // EFFECTS: parses version 2 items from the array next in tokens, each an
+    //          ID and the indexes of its attributes in values, and adds them
+    //          to wd as they are parsed
+    private void parseCompactItems(Wardrobe wd, JsonTokenizer tokens, List<String> values)
+            throws IOException {
+        tokens.consume(JsonTokenizer.Token.BEGIN_ARRAY);
+        while (tokens.hasNext()) {
+            wd.addClothing(parseCompactItem(tokens, values));
+        }
+        tokens.consume(JsonTokenizer.Token.END_ARRAY);
+    }
+
+    // MODIFIES: tokens
+    // EFFECTS: parses a version 2 item from the array next in tokens and
+    //          returns it
+    private static Clothing parseCompactItem(JsonTokenizer tokens, List<String> values)
+            throws IOException {
+        tokens.consume(JsonTokenizer.Token.BEGIN_ARRAY);
+        String id = tokens.nextString();
+        String type = valueAt(values, tokens.nextInt());
+        String colour = valueAt(values, tokens.nextInt());
+        String fit = valueAt(values, tokens.nextInt());
+        String mood = valueAt(values, tokens.nextInt());
+        String dressCode = valueAt(values, tokens.nextInt());
+        tokens.consume(JsonTokenizer.Token.END_ARRAY);
+        return new Clothing(id, type, colour, fit, mood, dressCode);
+    }
+
+    // EFFECTS: returns the value at index in values, or null if index is
+    //          NULL_INDEX; throws JSONException if there is none
+    private static String valueAt(List<String> values, int index) {
+        if (index == JsonWriter.NULL_INDEX) {
+            return null;
+        }
+        if (index < 0 || index >= values.size()) {
+            throw new JSONException("Value index out of range: " + index);
+        }
+        return values.get(index);
+    }
+
+    // MODIFIES: wd, tokens
+    // EFFECTS: parses clothing items from the array next in tokens and adds
+    //          them to wd as they are parsed
     // reference: JsonSerializationDemo, JsonReader.addThingies() method
-    private void parseClothingItems(Wardrobe wd, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("allClothes");
-        for (Object json : jsonArray) {
-            JSONObject nextItem = (JSONObject) json;
-            parseClothing(wd, nextItem);
+    private void parseClothingItems(Wardrobe wd, JsonTokenizer tokens) throws IOException {
+        tokens.consume(JsonTokenizer.Token.BEGIN_ARRAY);
+        while (tokens.hasNext()) {
+            wd.addClothing(parseClothing(tokens));
         }
+        tokens.consume(JsonTokenizer.Token.END_ARRAY);
     }
 
-    // MODIFIES: wr
-    // EFFECTS: parses thingy from JSON object and adds it to workroom
+    // MODIFIES: tokens
+    // EFFECTS: parses a clothing item from the object next in tokens and
+    //          returns it; members it does not know are skipped
     // reference: JsonSerializationDemo, JsonReader.addThingy() method
-    private void parseClothing(Wardrobe wd, JSONObject jsonObject) {
+    private static Clothing parseClothing(JsonTokenizer tokens) throws IOException {
+        Map<String, String> fields = new HashMap<>();
+        tokens.consume(JsonTokenizer.Token.BEGIN_OBJECT);
+        while (tokens.hasNext()) {
+            String name = tokens.nextName();
+            if (CLOTHING_FIELDS.contains(name)) {
+                fields.put(name, tokens.nextString());
+            } else {
+                tokens.skipValue();
+            }
+        }
+        tokens.consume(JsonTokenizer.Token.END_OBJECT);
+
+        for (String field : CLOTHING_FIELDS) {
+            if (!fields.containsKey(field)) {
+                throw new JSONException("JSONObject[\"" + field + "\"] not found.");
+            }
+        }
+        return new Clothing(fields.get("id"), fields.get("type"), fields.get("colour"),
+                fields.get("fit"), fields.get("mood"), fields.get("dressCode"));
+    }
+
+    // EFFECTS: parses a clothing item from JSON object and returns it
+    static Clothing toClothing(JSONObject jsonObject) {
         String id = jsonObject.getString("id");
         String type = jsonObject.getString("type");
         String colour = jsonObject.getString("colour");
         String fit = jsonObject.getString("fit");
         String mood = jsonObject.getString("mood");
         String dressCode = jsonObject.getString("dressCode");
-        Clothing newClothing = new Clothing(id,type,colour,fit,mood,dressCode);
-        wd.addClothing(newClothing);
+        return new Clothing(id,type,colour,fit,mood,dressCode);
+    }
+
+    // Represents a parser of one item from tokens
+    private interface ItemParser {
+        Clothing parse(JsonTokenizer tokens) throws IOException;
+    }
+
+    // Represents one parallel parse of a wardrobe object held in a splitter.
+    // the members around the array of items are parsed in order as they are
+    // reached; the array itself is cut into chunks that are parsed at once
+    private static final class ChunkedParse {
+        private final JsonSplitter text;
+        private final Wardrobe wd;
+        private List<String> values;   // version 2 dictionary; null until read
+
+        // EFFECTS: constructs a parse of text into wd
+        private ChunkedParse(JsonSplitter text, Wardrobe wd) {
+            this.text = text;
+            this.wd = wd;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parses the wardrobe object in text, in either version,
+        //          adding its clothing items to wd in order
+        private void parseWardrobe() throws IOException {
+            int pos = text.skipWhitespace(0);
+            if (text.byteAt(pos) != '{') {
+                throw new JSONException("A JSONObject text must begin with '{' at byte " + pos);
+            }
+            pos = text.skipWhitespace(pos + 1);
+            while (text.byteAt(pos) != '}') {
+                int colon = text.skipWhitespace(text.skipValue(checkValue(pos)));
+                String name = text.tokenize(pos, colon + 1).nextName();
+                int value = checkValue(text.skipWhitespace(colon + 1));
+                pos = text.skipWhitespace(parseMember(name, value));
+                if (text.byteAt(pos) != '}') {
+                    pos = skipComma(pos);
+                }
+            }
+        }
+
+        // EFFECTS: returns the index of the next member after the ',' at pos;
+        //          throws JSONException if there is no ',' at pos
+        private int skipComma(int pos) {
+            if (text.byteAt(pos) != ',') {
+                throw new JSONException("Expected ',' or '}' at byte " + pos);
+            }
+            return checkValue(text.skipWhitespace(pos + 1));
+        }
+
+        // EFFECTS: returns pos; throws JSONException if no value begins there
+        private int checkValue(int pos) {
+            int b = text.byteAt(pos);
+            if (b == -1 || b == ',' || b == ':' || b == '}' || b == ']') {
+                throw new JSONException("Expected a value at byte " + pos);
+            }
+            return pos;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parses the value of the member name that begins at pos,
+        //          and returns the index just past it
+        private int parseMember(String name, int pos) throws IOException {
+            if (name.equals("allClothes")) {
+                return parseItems(pos, JsonReader::parseClothing);
+            } else if (name.equals("items") && values != null) {
+                List<String> dictionary = values;
+                return parseItems(pos, tokens -> parseCompactItem(tokens, dictionary));
+            } else if (name.equals("items")) {
+                throw new JSONException("JSONObject[\"values\"] not found before items.");
+            }
+
+            int end = text.skipValue(pos);
+            if (name.equals("version")) {
+                checkVersion(text.tokenize(pos, end).nextInt());
+            } else if (name.equals("values")) {
+                values = parseValues(text.tokenize(pos, end));
+            }
+            return end;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: parses the items in the array that begins at pos with
+        //          parser, in chunks on the common fork-join pool, adds them
+        //          to wd in order and returns the index just past the array
+        private int parseItems(int pos, ItemParser parser) throws IOException {
+            int chunks = ForkJoinPool.commonPool().getParallelism() * CHUNKS_PER_THREAD;
+            int[] cuts = text.splitArray(pos, Math.max(MIN_CHUNK_SIZE, (text.length() - pos) / chunks));
+            List<ForkJoinTask<List<Clothing>>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < cuts.length; i++) {
+                JsonTokenizer chunk = text.tokenizeElements(cuts[i], cuts[i + 1], i > 0);
+                tasks.add(ForkJoinPool.commonPool().submit(() -> parseChunk(chunk, parser)));
+            }
+
+            try {
+                for (ForkJoinTask<List<Clothing>> task : tasks) {
+                    for (Clothing c : task.join()) {
+                        wd.addClothing(c);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return cuts[cuts.length - 1] + 1;
+        }
+
+        // EFFECTS: parses every item in chunk with parser and returns them in
+        //          order; throws UncheckedIOException if chunk cannot be read
+        private static List<Clothing> parseChunk(JsonTokenizer chunk, ItemParser parser) {
+            List<Clothing> items = new ArrayList<>();
+            try {
+                while (chunk.peek() != JsonTokenizer.Token.END) {
+                    items.add(parser.parse(chunk));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return items;
+        }
     }
 }
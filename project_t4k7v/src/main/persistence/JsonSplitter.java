@@ -0,0 +1,170 @@
+package persistence;
+
+import org.json.JSONException;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Represents JSON text held as UTF-8 bytes, e.g, a mapped file, that can be
+// scanned for where values begin and end without parsing them, so the text
+// can be cut into pieces that are each parsed on their own. only quotes,
+// backslashes and brackets are looked at; these are all ASCII, and no byte
+// of a multi-byte UTF-8 char is ASCII, so the bytes need not be decoded.
+// separators are skipped leniently when cutting, and checked by the
+// JsonTokenizer that parses each piece. text that ends inside a value throws
+// JSONException
+class JsonSplitter {
+    private final ByteBuffer text;
+
+    // EFFECTS: constructs a splitter over the bytes of text up to its limit
+    JsonSplitter(ByteBuffer text) {
+        this.text = text;
+    }
+
+    // EFFECTS: returns the no. of bytes of text
+    int length() {
+        return text.limit();
+    }
+
+    // EFFECTS: returns the byte at pos, or -1 past the end of the text
+    int byteAt(int pos) {
+        return pos < text.limit() ? text.get(pos) : -1;
+    }
+
+    // EFFECTS: returns the index of the first byte at or after pos that is
+    //          not whitespace, ',' or ':', or length() if there is none
+    int skipSeparators(int pos) {
+        int p = pos;
+        int b = byteAt(p);
+        while (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == ',' || b == ':') {
+            p++;
+            b = byteAt(p);
+        }
+        return p;
+    }
+
+    // EFFECTS: returns the index of the first byte at or after pos that is
+    //          not whitespace, or length() if there is none
+    int skipWhitespace(int pos) {
+        int p = pos;
+        int b = byteAt(p);
+        while (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+            p++;
+            b = byteAt(p);
+        }
+        return p;
+    }
+
+    // REQUIRES: a value begins at pos
+    // EFFECTS: returns the index just past the value, with everything nested
+    //          in it
+    int skipValue(int pos) {
+        int depth = 0;
+        int p = pos;
+        do {
+            int b = byteAt(p);
+            if (b == '"') {
+                p = skipString(p);
+            } else if (b == '{' || b == '[') {
+                depth++;
+                p++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+                p++;
+            } else if (b == -1) {
+                throw error("Unterminated value", pos);
+            } else if (depth == 0) {
+                return skipBareWord(p);
+            } else {
+                p++;
+            }
+        } while (depth > 0);
+        return p;
+    }
+
+    // REQUIRES: an array begins at pos
+    // EFFECTS: returns where to cut the elements of the array into pieces of
+    //          about chunkSize bytes, each of whole elements: the index just
+    //          after its '[', then the index just after each element cut
+    //          after, ending with the index of its ']'
+    int[] splitArray(int pos, int chunkSize) {
+        List<Integer> cuts = new ArrayList<>();
+        int p = pos + 1;
+        cuts.add(p);
+        p = skipSeparators(p);
+        while (byteAt(p) != ']') {
+            if (byteAt(p) == -1) {
+                throw error("Unterminated array", pos);
+            }
+            int end = skipValue(p);
+            p = skipSeparators(end);
+            if (end - cuts.get(cuts.size() - 1) >= chunkSize && byteAt(p) != ']') {
+                cuts.add(end);
+            }
+        }
+        cuts.add(p);
+        return cuts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // REQUIRES: 0 <= from <= to <= length()
+    // EFFECTS: returns a tokenizer over the text from index from up to to
+    JsonTokenizer tokenize(int from, int to) {
+        return new JsonTokenizer(readerOf(from, to));
+    }
+
+    // REQUIRES: 0 <= from <= to <= length(), and from and to are cuts
+    //           returned by splitArray
+    // EFFECTS: returns a tokenizer over the elements of an array from index
+    //          from up to to; if continued, from is not the first cut, so the
+    //          text begins with the ',' after an earlier element
+    JsonTokenizer tokenizeElements(int from, int to, boolean continued) {
+        return new JsonTokenizer(readerOf(from, to), continued);
+    }
+
+    // EFFECTS: returns a reader decoding the text from index from up to to
+    private Reader readerOf(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        text.duplicate().position(from).get(bytes);
+        return Channels.newReader(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                StandardCharsets.UTF_8.newDecoder(), -1);
+    }
+
+    // REQUIRES: a string begins at pos
+    // EFFECTS: returns the index just past the string's closing quote
+    private int skipString(int pos) {
+        int p = pos + 1;
+        int b = byteAt(p);
+        while (b != '"') {
+            if (b == -1) {
+                throw error("Unterminated string", pos);
+            }
+            p += b == '\\' ? 2 : 1;
+            b = byteAt(p);
+        }
+        return p + 1;
+    }
+
+    // EFFECTS: returns the index of the first byte at or after pos that ends
+    //          a number or literal, i.e, a separator, whitespace or closing
+    //          bracket, or length() if there is none
+    private int skipBareWord(int pos) {
+        int p = pos;
+        int b = byteAt(p);
+        while (b != -1 && b != ',' && b != ':' && b != '}' && b != ']'
+                && b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+            p++;
+            b = byteAt(p);
+        }
+        return p;
+    }
+
+    // EFFECTS: returns an exception for malformed text in the value at pos
+    private static JSONException error(String message, int pos) {
+        return new JSONException(message + " at byte " + pos);
+    }
+}
@@ -0,0 +1,339 @@
+package persistence;
+
+import org.json.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+// Represents a pull tokenizer over JSON text read from a Reader, e.g, a
+// channel reader on a file. the text is read through a fixed buffer and each
+// value is handed over as it is reached, so memory used does not grow with
+// the size of the text, and values skipped are scanned without being built.
+// separators are checked as they are reached: members and elements must be
+// separated by one ',' and each name followed by ':'. a tokenizer may also
+// read a run of elements cut from an array, e.g, by a JsonSplitter, with ','
+// between them at the top level. malformed text throws JSONException, as
+// org.json does
+class JsonTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    // Represents the kind of the next token
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, STRING, NUMBER, LITERAL, END
+    }
+
+    private final Reader in;
+    private final char[] buffer;
+    private final StringBuilder string;  // reused to build each string read
+    private final StringBuilder nesting; // '{' or '[' for each object or array being read
+    private final boolean elements;      // true if top-level values are separated by ','
+    private boolean afterValue;  // true if a value was just read, so ',' or a close is next
+    private boolean needValue;   // true if ',' or ':' was just read, so a value is next
+    private boolean needName;    // true if the name of a member is next, or the close
+    private int pos;        // index in buffer of the next char
+    private int limit;      // no. of chars in buffer
+    private long offset;    // no. of chars read before buffer, for errors
+
+    // EFFECTS: constructs a tokenizer reading one value from in
+    JsonTokenizer(Reader in) {
+        this(in, false, false);
+    }
+
+    // EFFECTS: constructs a tokenizer reading elements cut from an array from
+    //          in; if continued, they follow an earlier element, so the text
+    //          begins with the ',' after it
+    JsonTokenizer(Reader in, boolean continued) {
+        this(in, true, continued);
+    }
+
+    // EFFECTS: constructs a tokenizer reading from in
+    private JsonTokenizer(Reader in, boolean elements, boolean continued) {
+        this.in = in;
+        this.buffer = new char[BUFFER_SIZE];
+        this.string = new StringBuilder();
+        this.nesting = new StringBuilder();
+        this.elements = elements;
+        this.afterValue = continued;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the kind of the next token without consuming it
+    Token peek() throws IOException {
+        int c = peekChar();
+        if (c == ',' && afterValue && (elements || nesting.length() > 0)) {
+            pos++;
+            afterValue = false;
+            needValue = true;
+            needName = isInObject();
+            c = peekChar();
+        }
+        checkNext(c);
+
+        switch (c) {
+            case -1: return Token.END;
+            case '{': return Token.BEGIN_OBJECT;
+            case '}': return Token.END_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case ']': return Token.END_ARRAY;
+            case '"': return Token.STRING;
+            case 't': case 'f': case 'n': return Token.LITERAL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    // EFFECTS: throws JSONException if c cannot come next, given the separator
+    //          or value just read
+    private void checkNext(int c) {
+        boolean close = c == '}' || c == ']' || c == -1;
+        if (c == ',' || c == ':') {
+            throw error("Unexpected '" + (char) c + "'");
+        } else if (afterValue && !close) {
+            throw error("Expected ',' before '" + (char) c + "'");
+        } else if (needValue && close) {
+            throw error("Expected a value after a separator");
+        } else if (needName && c != '"' && c != '}') {
+            throw error("Expected the name of a member");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns true if the object or array being read has another
+    //          member
+    boolean hasNext() throws IOException {
+        Token next = peek();
+        return next != Token.END_OBJECT && next != Token.END_ARRAY && next != Token.END;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next token, which must be of kind expected
+    void consume(Token expected) throws IOException {
+        if (peek() != expected) {
+            throw error("Expected " + expected + " but was " + peek());
+        }
+        pos++;
+        if (expected == Token.BEGIN_OBJECT || expected == Token.BEGIN_ARRAY) {
+            nesting.append(expected == Token.BEGIN_OBJECT ? '{' : '[');
+            afterValue = false;
+            needValue = false;
+            needName = expected == Token.BEGIN_OBJECT;
+        } else if (expected == Token.END_OBJECT || expected == Token.END_ARRAY) {
+            char open = expected == Token.END_OBJECT ? '{' : '[';
+            int last = nesting.length() - 1;
+            if (last < 0 || nesting.charAt(last) != open) {
+                throw error("Unexpected " + expected);
+            }
+            nesting.setLength(last);
+            endValue();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the name of the next member of the object being read,
+    //          with the ':' after it, and returns it
+    String nextName() throws IOException {
+        string.setLength(0);
+        scanName(string);
+        return string.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next string value and returns it unescaped
+    String nextString() throws IOException {
+        consume(Token.STRING);
+        string.setLength(0);
+        scanString(string);
+        endValue();
+        return string.toString();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next number, which must be an int, and returns it
+    int nextInt() throws IOException {
+        if (peek() != Token.NUMBER) {
+            throw error("Expected " + Token.NUMBER + " but was " + peek());
+        }
+        string.setLength(0);
+        scanBareWord(string);
+        endValue();
+        try {
+            return Integer.parseInt(string.toString());
+        } catch (NumberFormatException e) {
+            throw error("Expected an int but was " + string);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next value, with everything nested in it,
+    //          without building any of it
+    void skipValue() throws IOException {
+        int depth = nesting.length();
+        do {
+            Token next = peek();
+            if (next == Token.STRING && needName) {
+                scanName(null);
+            } else if (next == Token.STRING) {
+                consume(next);
+                scanString(null);
+                endValue();
+            } else if (next == Token.END) {
+                throw error("Unterminated value");
+            } else if (next == Token.NUMBER || next == Token.LITERAL) {
+                scanBareWord(null);
+                endValue();
+            } else {
+                consume(next);
+            }
+        } while (nesting.length() > depth);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the underlying reader
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // MODIFIES: this, into
+    // EFFECTS: consumes the name of the next member and the ':' after it,
+    //          appending its unescaped chars to into unless it is null
+    private void scanName(StringBuilder into) throws IOException {
+        consume(Token.STRING);
+        scanString(into);
+        if (peekChar() != ':') {
+            throw error("Expected ':' after a name");
+        }
+        pos++;
+        afterValue = false;
+        needValue = true;
+        needName = false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that a whole value has just been read
+    private void endValue() {
+        afterValue = true;
+        needValue = false;
+        needName = false;
+    }
+
+    // EFFECTS: returns true if the innermost value being read is an object
+    private boolean isInObject() {
+        return nesting.length() > 0 && nesting.charAt(nesting.length() - 1) == '{';
+    }
+
+    // MODIFIES: this, into
+    // EFFECTS: consumes the rest of a string whose opening quote has been
+    //          consumed, appending its unescaped chars to into unless it is null
+    private void scanString(StringBuilder into) throws IOException {
+        while (true) {
+            int c = nextChar();
+            if (c == '"') {
+                return;
+            } else if (c == '\\') {
+                c = unescape(nextChar());
+            } else if (c == -1) {
+                throw error("Unterminated string");
+            }
+            if (into != null) {
+                into.append((char) c);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the char escaped by \c, consuming the hex digits of
+    //          a \\u escape
+    private int unescape(int c) throws IOException {
+        switch (c) {
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u': return unicodeEscape();
+            case '"': case '\\': case '/': return c;
+            default: throw error("Illegal escape");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the four hex digits of a \\u escape and returns the
+    //          char they encode
+    private int unicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(nextChar(), 16);
+            if (digit < 0) {
+                throw error("Illegal escape");
+            }
+            value = value * 16 + digit;
+        }
+        return value;
+    }
+
+    // MODIFIES: this, into
+    // EFFECTS: consumes a number or literal, i.e, every char up to the next
+    //          separator, whitespace or closing bracket, appending them to
+    //          into unless it is null
+    private void scanBareWord(StringBuilder into) throws IOException {
+        int c = peekCharRaw();
+        while (c != -1 && c != ',' && c != ':' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            if (into != null) {
+                into.append((char) c);
+            }
+            pos++;
+            c = peekCharRaw();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next char that is not whitespace without consuming
+    //          it, or -1 at the end of the text
+    private int peekChar() throws IOException {
+        int c = peekCharRaw();
+        while (c != -1 && Character.isWhitespace(c)) {
+            pos++;
+            c = peekCharRaw();
+        }
+        return c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the next char without consuming it, or -1 at the end
+    //          of the text
+    private int peekCharRaw() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: consumes the next char and returns it, or -1 at the end of the text
+    private int nextChar() throws IOException {
+        int c = peekCharRaw();
+        if (c != -1) {
+            pos++;
+        }
+        return c;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: refills buffer from in; returns false at the end of the text
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = Math.max(0, in.read(buffer, 0, buffer.length));
+        return limit > 0;
+    }
+
+    // EFFECTS: returns an exception for malformed text at the current position
+    private JSONException error(String message) {
+        return new JSONException(message + " at character " + (offset + pos));
+    }
+}
@@ -1,49 +1,257 @@
 package persistence;
 
+import model.Clothing;
+import model.LatencyHistogram;
+import model.Metrics;
 import model.Wardrobe;
 import org.json.JSONObject;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
-// Represents a writer that writes JSON representation of workroom to file
+// Represents a writer that writes JSON representation of workroom to file.
+// the wardrobe is walked and written token by token to a buffered stream,
+// in the layout JSONObject.toString(TAB) would give, without building a JSON
+// tree or the whole text in memory first. version 1 lists every item in
+// allClothes and again in the array for its type; version 2 lists each item
+// once, as its ID followed by the indexes of its type, colour, fit, mood and
+// dress code in a dictionary of the distinct values written before the items,
+// or NULL_INDEX for an attribute that is null:
+//     {"version": 2, "values": [...], "items": [["id", 0, 1, 2, 3, 4], ...]}
+// the text is written beside destination, forced to disk once, and renamed
+// over destination when the writer is closed, so a crash part way through a
+// write leaves the last file written whole
 // reference: JsonSerializationDemo, JsonWriter.java class
-public class JsonWriter {
+public class JsonWriter implements WardrobeWriter {
+    public static final int VERSION_1 = 1;
+    public static final int VERSION_2 = 2;
+    static final int NULL_INDEX = -1;   // version 2 index of a null attribute
     private static final int TAB = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final LatencyHistogram WRITE_LATENCY = Metrics.getInstance().latency("json.write");
     private PrintWriter writer;
+    private FileOutputStream stream;   // what writer writes to, forced to disk on close
     private String destination;
+    private String temporary;          // written first, then renamed to destination
+    private int version;
 
-    // EFFECTS: constructs writer to write to destination file
+    // EFFECTS: constructs writer to write to destination file in version 1
     // reference: JsonSerializationDemo, JsonWriter() constructor
     public JsonWriter(String destination) {
+        this(destination, VERSION_1);
+    }
+
+    // REQUIRES: version is VERSION_1 or VERSION_2
+    // EFFECTS: constructs writer to write to destination file in the given version
+    public JsonWriter(String destination, int version) {
         this.destination = destination;
+        this.temporary = destination + ".tmp";
+        this.version = version;
     }
 
     // MODIFIES: this
     // EFFECTS: opens writer; throws FileNotFoundException if destination file cannot
     //          be opened for writing
     // reference: JsonSerializationDemo, JsonWriter.open() method
+    @Override
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        stream = new FileOutputStream(temporary);
+        writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                stream, StandardCharsets.UTF_8), BUFFER_SIZE));
     }
 
     // MODIFIES: this
     // EFFECTS: writes JSON representation of workroom to file
     // reference: JsonSerializationDemo, JsonWriter.write() method
+    @Override
     public void write(Wardrobe wd) {
-        JSONObject json = wd.toJson();
-        saveToFile(json.toString(TAB));
+        long start = System.nanoTime();
+        if (version == VERSION_2) {
+            writeCompact(wd.getAllClothes());
+        } else {
+            writeLists(wd);
+        }
+        WRITE_LATENCY.recordSince(start);
     }
 
     // MODIFIES: this
-    // EFFECTS: closes writer
+    // EFFECTS: closes writer and replaces destination file with what was
+    //          written; throws IOException if it could not all be written
     // reference: JsonSerializationDemo, JsonWriter.close() method
-    public void close() {
-        writer.close();
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+        boolean failed = writer.checkError();
+        try {
+            if (!failed) {
+                stream.getFD().sync();
+            }
+        } finally {
+            writer.close();
+        }
+        if (failed) {
+            throw new IOException("Unable to write to file: " + temporary);
+        }
+        Files.move(Paths.get(temporary), Paths.get(destination),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes wd in version 1, with allClothes and an array per type
+    private void writeLists(Wardrobe wd) {
+        writer.print('{');
+        writeItems("allClothes", wd.getAllClothes());
+        writer.print(',');
+        writeItems("tops", wd.getTops());
+        writer.print(',');
+        writeItems("bottoms", wd.getBottoms());
+        writer.print(',');
+        writeItems("jackets", wd.getJackets());
+        writer.print(',');
+        writeItems("accessories", wd.getAccessories());
+        writer.print("\n}");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes items, all the clothes of a wardrobe, in version 2
+    private void writeCompact(List<Clothing> items) {
+        Map<String, Integer> values = dictionaryOf(items);
+        writer.print('{');
+        newLine(1);
+        writer.print("\"version\": " + VERSION_2 + ",");
+        newLine(1);
+        writer.print("\"values\": [");
+        String separator = "";
+        for (String value : values.keySet()) {
+            writer.print(separator);
+            writer.print(JSONObject.quote(value));
+            separator = ", ";
+        }
+        writer.print("],");
+        newLine(1);
+        writer.print("\"items\": [");
+        separator = "";
+        for (Clothing c : items) {
+            writer.print(separator);
+            writeCompactItem(c, values);
+            separator = ",";
+        }
+        writer.print(items.isEmpty() ? "]\n}" : "\n    ]\n}");
+    }
+
+    // EFFECTS: returns each distinct type, colour, fit, mood and dress code of
+    //          items that is not null, mapped to its index in the order first
+    //          found
+    private static Map<String, Integer> dictionaryOf(List<Clothing> items) {
+        Map<String, Integer> values = new LinkedHashMap<>();
+        for (Clothing c : items) {
+            addValue(values, c.getType());
+            addValue(values, c.getColour());
+            addValue(values, c.getFit());
+            addValue(values, c.getMood());
+            addValue(values, c.getDressCode());
+        }
+        return values;
+    }
+
+    // MODIFIES: values
+    // EFFECTS: gives value the next index in values, unless it is null or
+    //          already has one
+    private static void addValue(Map<String, Integer> values, String value) {
+        if (value != null) {
+            values.putIfAbsent(value, values.size());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes c in version 2, as its ID and the indexes of its
+    //          attributes in values
+    private void writeCompactItem(Clothing c, Map<String, Integer> values) {
+        newLine(2);
+        writer.print('[');
+        writer.print(JSONObject.quote(c.getId()));
+        writeIndex(values, c.getType());
+        writeIndex(values, c.getColour());
+        writeIndex(values, c.getFit());
+        writeIndex(values, c.getMood());
+        writeIndex(values, c.getDressCode());
+        writer.print(']');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the index of value in values as the next array element,
+    //          or NULL_INDEX if value is null
+    private void writeIndex(Map<String, Integer> values, String value) {
+        writer.print(", ");
+        writer.print(value == null ? NULL_INDEX : (int) values.get(value));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the member name of the wardrobe, an array of items
+    private void writeItems(String name, List<Clothing> items) {
+        newLine(1);
+        writer.print(JSONObject.quote(name));
+        writer.print(": [");
+        boolean first = true;
+        for (Clothing c : items) {
+            if (!first) {
+                writer.print(',');
+            }
+            writeItem(c);
+            first = false;
+        }
+        if (!first) {
+            newLine(1);
+        }
+        writer.print(']');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes c as an element of an array of items, with the
+    //          members Clothing.toJson() gives it, i.e, leaving out any that
+    //          are null
+    private void writeItem(Clothing c) {
+        newLine(2);
+        writer.print('{');
+        boolean any = writeMember(false, "id", c.getId());
+        any = writeMember(any, "type", c.getType());
+        any = writeMember(any, "colour", c.getColour());
+        any = writeMember(any, "fit", c.getFit());
+        any = writeMember(any, "mood", c.getMood());
+        writeMember(any, "dressCode", c.getDressCode());
+        newLine(2);
+        writer.print('}');
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes a member of an item with the given name and value,
+    //          after a ',' if after is true, unless value is null; returns
+    //          true if a member has now been written
+    private boolean writeMember(boolean after, String name, String value) {
+        if (value == null) {
+            return after;
+        }
+        if (after) {
+            writer.print(',');
+        }
+        newLine(3);
+        writer.print(JSONObject.quote(name));
+        writer.print(": ");
+        writer.print(JSONObject.quote(value));
+        return true;
     }
 
     // MODIFIES: this
-    // EFFECTS: writes string to file
-    // reference: JsonSerializationDemo, JsonWriter.saveToFile() method
-    private void saveToFile(String json) {
-        writer.print(json);
+    // EFFECTS: starts a new line indented by depth tabs
+    private void newLine(int depth) {
+        writer.print('\n');
+        for (int i = 0; i < depth * TAB; i++) {
+            writer.print(' ');
+        }
     }
 }
\ No newline at end of file
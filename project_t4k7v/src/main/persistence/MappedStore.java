@@ -0,0 +1,128 @@
+package persistence;
+
+import model.AttributeDictionary;
+import model.ClothingSource;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Represents a file BinaryWriter wrote, mapped into memory and read in place.
+// opening it only checks its header; each record is read when one of its
+// fields is asked for, and each distinct string in the string table is decoded,
+// and encoded in the AttributeDictionary, once, the first time it is asked for.
+// the mapping stays valid after the file is closed, and after it is replaced
+// by a rename, until the store is no longer reachable
+class MappedStore implements ClothingSource {
+    private static final int NOT_ENCODED = Integer.MIN_VALUE;
+
+    private final String path;
+    private final ByteBuffer file;
+    private final int size;          // no. of items
+    private final int recordIndex;   // offset of the record index
+    private final String[] strings;  // string no. -> string, once decoded
+    private final int[] codes;       // string no. -> dictionary code, once encoded
+
+    // EFFECTS: constructs a store over file, mapped from path, whose header
+    //          has been checked
+    private MappedStore(String path, ByteBuffer file) {
+        this.path = path;
+        this.file = file;
+        this.size = file.getInt(3 * Integer.BYTES);
+        this.recordIndex = file.getInt(4 * Integer.BYTES);
+        this.strings = new String[file.getInt(2 * Integer.BYTES)];
+        this.codes = new int[strings.length];
+        Arrays.fill(this.codes, NOT_ENCODED);
+    }
+
+    // EFFECTS: maps the file at path into memory and returns a store over it;
+    //          throws IOException if it cannot be read or its header is not
+    //          one BinaryWriter wrote
+    static MappedStore open(String path) throws IOException {
+        ByteBuffer file;
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (file.limit() < BinaryWriter.HEADER_SIZE || file.getInt(0) != BinaryWriter.MAGIC) {
+            throw new IOException("Not a wardrobe file: " + path);
+        }
+        if (file.getInt(Integer.BYTES) != BinaryWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported format version: " + file.getInt(Integer.BYTES));
+        }
+
+        long strings = file.getInt(2 * Integer.BYTES);
+        long items = file.getInt(3 * Integer.BYTES);
+        long recordIndex = file.getInt(4 * Integer.BYTES);
+        if (strings < 0 || items < 0 || recordIndex < BinaryWriter.HEADER_SIZE + strings * Integer.BYTES
+                || recordIndex + items * Integer.BYTES > file.limit()) {
+            throw new IOException("Truncated wardrobe file: " + path);
+        }
+        return new MappedStore(path, file);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // EFFECTS: returns the given field of item no. ordinal; throws
+    //          IllegalStateException if its record is corrupt
+    @Override
+    public String field(int ordinal, int field) {
+        int n = stringNo(ordinal, field);
+        if (n == BinaryWriter.NULL_STRING) {
+            return null;
+        }
+        if (strings[n] == null) {
+            try {
+                int offset = file.getInt(BinaryWriter.HEADER_SIZE + n * Integer.BYTES);
+                byte[] bytes = new byte[file.getInt(offset)];
+                file.duplicate().position(offset + Integer.BYTES).get(bytes);
+                strings[n] = new String(bytes, StandardCharsets.UTF_8);
+            } catch (IndexOutOfBoundsException | IllegalArgumentException | BufferUnderflowException
+                     | NegativeArraySizeException e) {
+                throw new IllegalStateException("Truncated string " + n + " in " + path, e);
+            }
+        }
+        return strings[n];
+    }
+
+    // EFFECTS: returns the dictionary code of the given field of item no.
+    //          ordinal, encoding it the first time its string is asked for
+    @Override
+    public int code(int ordinal, int field) {
+        int n = stringNo(ordinal, field);
+        if (n == BinaryWriter.NULL_STRING) {
+            return AttributeDictionary.NOT_FOUND;
+        }
+        if (codes[n] == NOT_ENCODED) {
+            codes[n] = AttributeDictionary.getInstance().encode(field(ordinal, field));
+        }
+        return codes[n];
+    }
+
+    // REQUIRES: 0 <= ordinal < size()
+    // EFFECTS: returns the string no. of the given field of item no. ordinal,
+    //          or NULL_STRING if it is null; throws IllegalStateException if
+    //          its record is corrupt
+    private int stringNo(int ordinal, int field) {
+        try {
+            int record = file.getInt(recordIndex + ordinal * Integer.BYTES);
+            if (file.getInt(record) != BinaryWriter.FIELDS * Integer.BYTES) {
+                throw new IllegalStateException("Corrupt record " + ordinal + " in " + path);
+            }
+            int n = file.getInt(record + Integer.BYTES + field * Integer.BYTES);
+            if (n != BinaryWriter.NULL_STRING && (n < 0 || n >= strings.length)) {
+                throw new IllegalStateException("String no. out of range: " + n);
+            }
+            return n;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Truncated record " + ordinal + " in " + path, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package persistence;
+
+import java.util.Locale;
+
+// Represents a format a wardrobe can be stored in on disk
+public enum StoreFormat {
+    JSON(".json"),
+    BINARY(".bin"),
+    MAPPED(".bin");  // the binary format, opened without reading any items
+
+    // system property naming the format to store wardrobes in, e.g, "binary"
+    public static final String PROPERTY = "wardrobe.format";
+
+    private final String extension;
+
+    StoreFormat(String extension) {
+        this.extension = extension;
+    }
+
+    // EFFECTS: returns the format named by the PROPERTY system property,
+    //          ignoring case, or JSON if it is not set; if it names no
+    //          format, prints a warning and returns JSON
+    public static StoreFormat fromProperty() {
+        String name = System.getProperty(PROPERTY, JSON.name());
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.out.println("WARNING: Unknown " + PROPERTY + " \"" + name + "\", using " + JSON);
+            return JSON;
+        }
+    }
+
+    // EFFECTS: returns the file extension of this format, e.g, ".json"
+    public String getExtension() {
+        return extension;
+    }
+
+    // EFFECTS: returns a reader of a wardrobe stored in this format at path
+    public WardrobeReader readerFor(String path) {
+        return this == JSON ? new JsonReader(path, true) : new BinaryReader(path, this == MAPPED);
+    }
+
+    // EFFECTS: returns a writer of a wardrobe to path in this format, the
+    //          compact version for JSON
+    public WardrobeWriter writerFor(String path) {
+        return this == JSON ? new JsonWriter(path, JsonWriter.VERSION_2) : new BinaryWriter(path);
+    }
+}
@@ -0,0 +1,19 @@
+package persistence;
+
+import model.Wardrobe;
+
+import java.io.IOException;
+
+// an interface for any reader of a wardrobe stored in a file, so the
+// format it is stored in can be chosen in one place
+public interface WardrobeReader {
+    // EFFECTS: reads wardrobe from file and returns it;
+    //          throws IOException if an error occurs reading data from file
+    Wardrobe read() throws IOException;
+
+    // REQUIRES: wd is empty
+    // MODIFIES: wd
+    // EFFECTS: reads clothing from file into wd and returns it; throws
+    //          IOException if an error occurs reading data from file
+    Wardrobe readInto(Wardrobe wd) throws IOException;
+}
@@ -0,0 +1,384 @@
+package persistence;
+
+import model.Wardrobe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Represents a registry of the wardrobes of many users, each saved as
+// <directory>/<user>.json. a wardrobe is read from its file the first time
+// its user acquires it and then kept in memory; once more than capacity
+// wardrobes are in memory, the least recently used one that nobody holds is
+// dropped, and is written back to its file first if it has changed since it
+// was read or saved. it is written beside its file and then moved over it,
+// so a crash or error part way through leaves the last file saved whole. a
+// wardrobe is held from acquire() until its lease is closed, and is never
+// dropped while held, so every holder of a user's wardrobe shares one
+// instance.
+// each wardrobe is read, and written back, outside any lock shared with
+// other users, so a slow file only holds up callers of the same user: the
+// first caller of a user reads its file, and others asking for it meanwhile
+// wait for that read instead of starting their own
+public class WardrobeRegistry {
+    private final String directory;
+    private final int capacity;
+    private final Supplier<Wardrobe> storage;          // makes an empty wardrobe to read into
+    private final Map<String, Entry> entries;          // user -> wardrobe, loaded or loading
+
+    private final AtomicLong clock;       // ticks on every acquire, to order uses
+    private final AtomicLong hits;        // no. of acquires answered from memory
+    private final AtomicLong misses;      // no. of acquires that had to read a file
+    private final AtomicLong evictions;   // no. of wardrobes dropped from memory
+    private volatile IOException evictionFailure;  // first error saving a wardrobe
+                                                   // to drop it, thrown by flush()
+
+    // REQUIRES: capacity > 0
+    // EFFECTS: constructs a registry of wardrobes saved in directory that
+    //          keeps at most capacity of them in memory
+    public WardrobeRegistry(String directory, int capacity) {
+        this(directory, capacity, Wardrobe::new);
+    }
+
+    // REQUIRES: capacity > 0
+    // EFFECTS: constructs a registry of wardrobes saved in directory that
+    //          keeps at most capacity of them in memory, reading each into an
+    //          empty wardrobe made by storage, e.g, ConcurrentWardrobe::new
+    public WardrobeRegistry(String directory, int capacity, Supplier<Wardrobe> storage) {
+        this.directory = directory;
+        this.capacity = capacity;
+        this.storage = storage;
+        this.entries = new ConcurrentHashMap<>();
+        this.clock = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: holds the wardrobe of user, reading it from its file if it is
+    //          not in memory (or starting an empty one if there is no file),
+    //          and returns a lease on it that must be closed once the caller
+    //          is done with it; then drops least recently used wardrobes if
+    //          there are too many. throws IllegalArgumentException if user is
+    //          not made of letters, digits, '-' and '_', and IOException if
+    //          its file cannot be read
+    public Lease acquire(String user) throws IOException {
+        checkUser(user);
+        while (true) {
+            Entry entry = entries.computeIfAbsent(user, u -> new Entry());
+            if (!entry.pin(clock.incrementAndGet())) {
+                continue;   // dropped since it was looked up; look again
+            }
+            if (entry.claimLoad()) {
+                misses.incrementAndGet();
+                load(user, entry);
+            } else {
+                hits.incrementAndGet();
+            }
+            Lease lease = new Lease(entry, awaitLoaded(entry));
+            evictOverCapacity();
+            return lease;
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes every wardrobe in memory that has changed since it was
+    //          read or saved back to its file; throws IOException if a file
+    //          cannot be written, or if a wardrobe could not be saved to be
+    //          dropped since the last flush
+    public void flush() throws IOException {
+        IOException failure = evictionFailure;
+        evictionFailure = null;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            try {
+                save(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // MODIFIES: entry
+    // EFFECTS: reads the wardrobe of user into entry; if it cannot be read,
+    //          removes entry so the next acquire reads it again
+    private void load(String user, Entry entry) {
+        try {
+            Wardrobe wd = storage.get();
+            if (new File(pathOf(user)).exists()) {
+                new JsonReader(pathOf(user)).readInto(wd);
+            }
+            entry.savedModifications = wd.getModifications();
+            entry.wardrobe.complete(wd);
+        } catch (IOException | RuntimeException e) {
+            entry.retire();
+            entries.remove(user, entry);
+            entry.wardrobe.completeExceptionally(e);
+        }
+    }
+
+    // REQUIRES: entry is pinned by the caller
+    // EFFECTS: waits for entry's wardrobe to be read and returns it; if it
+    //          could not be, unpins entry and throws what went wrong
+    private static Wardrobe awaitLoaded(Entry entry) throws IOException {
+        try {
+            return entry.wardrobe.get();
+        } catch (ExecutionException e) {
+            entry.unpin();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            entry.unpin();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a wardrobe to load");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: drops least recently used wardrobes that nobody holds until at
+    //          most capacity are in memory, saving each first if it has
+    //          changed; a wardrobe that cannot be saved is kept, and the error
+    //          is thrown by the next flush()
+    private void evictOverCapacity() {
+        while (entries.size() > capacity) {
+            Map.Entry<String, Entry> eldest = eldestUnheld();
+            if (eldest == null || !evict(eldest.getKey(), eldest.getValue())) {
+                return;
+            }
+        }
+    }
+
+    // EFFECTS: returns the least recently used loaded wardrobe that nobody
+    //          holds, or null if there is none
+    private Map.Entry<String, Entry> eldestUnheld() {
+        Map.Entry<String, Entry> eldest = null;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Entry e = entry.getValue();
+            if (e.isEvictable() && (eldest == null || e.lastUsed < eldest.getValue().lastUsed)) {
+                eldest = entry;
+            }
+        }
+        return eldest;
+    }
+
+    // MODIFIES: this, entry
+    // EFFECTS: saves entry if it has changed and drops it, unless somebody
+    //          acquires it meanwhile or it cannot be saved; returns true if
+    //          it was dropped
+    private boolean evict(String user, Entry entry) {
+        try {
+            save(user, entry);
+        } catch (IOException e) {
+            if (evictionFailure == null) {
+                evictionFailure = e;
+            }
+            return false;
+        }
+        if (!entry.retireIfUnchanged()) {
+            return false;
+        }
+        entries.remove(user, entry);
+        evictions.incrementAndGet();
+        return true;
+    }
+
+    // MODIFIES: entry
+    // EFFECTS: writes entry's wardrobe to the file of user if it has changed
+    //          since it was read or saved, while no changes can be made to it
+    private void save(String user, Entry entry) throws IOException {
+        Wardrobe wd = entry.wardrobe.getNow(null);
+        if (wd == null) {
+            return;
+        }
+        synchronized (entry.saveLock) {
+            try {
+                wd.holdChanges(() -> write(user, entry, wd));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // REQUIRES: the caller holds entry's save lock and changes to wd are held
+    // MODIFIES: entry
+    // EFFECTS: writes wd to the file of user if it has changed since it was
+    //          read or saved; throws UncheckedIOException if it cannot be
+    private void write(String user, Entry entry, Wardrobe wd) {
+        int modifications = wd.getModifications();
+        if (modifications != entry.savedModifications) {
+            try {
+                writeFile(user, wd);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            entry.savedModifications = modifications;
+        }
+    }
+
+    // REQUIRES: changes to wd are held
+    // EFFECTS: writes wd to <user>.json.next, closing it even if writing
+    //          fails, then moves it over the file of user, so a crash or error
+    //          part way through leaves the last file saved whole; throws
+    //          IOException if it cannot be written or moved
+    private void writeFile(String user, Wardrobe wd) throws IOException {
+        Path next = Paths.get(pathOf(user) + ".next");
+        JsonWriter writer = new JsonWriter(next.toString(), JsonWriter.VERSION_2);
+        writer.open();
+        try {
+            writer.write(wd);
+        } finally {
+            writer.close();
+        }
+        Files.move(next, Paths.get(pathOf(user)), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // EFFECTS: returns user if it is made of letters, digits, '-' and '_';
+    //          throws IllegalArgumentException otherwise
+    private static String checkUser(String user) {
+        if (user == null || !user.matches("[A-Za-z0-9_-]+")) {
+            throw new IllegalArgumentException("Invalid user: " + user);
+        }
+        return user;
+    }
+
+    // EFFECTS: returns the path of the file the wardrobe of user is saved to
+    private String pathOf(String user) {
+        return directory + File.separator + user + ".json";
+    }
+
+    // EFFECTS: returns the no. of wardrobes in memory, or being read into it
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    // Represents a hold on one user's wardrobe: it stays in memory, and is
+    // the one every other holder of the user gets, until the lease is closed
+    public final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private final Wardrobe wardrobe;
+        private boolean closed;
+
+        // EFFECTS: constructs a lease on the wardrobe of entry, which the
+        //          caller has pinned
+        private Lease(Entry entry, Wardrobe wardrobe) {
+            this.entry = entry;
+            this.wardrobe = wardrobe;
+        }
+
+        public Wardrobe getWardrobe() {
+            return this.wardrobe;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: lets the wardrobe be dropped once nobody holds it, then
+        //          drops least recently used wardrobes if there are too many;
+        //          closing a lease again does nothing
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            entry.unpin();
+            evictOverCapacity();
+        }
+    }
+
+    // Represents a user's wardrobe in memory, or being read into it, with the
+    // no. of leases held on it
+    private static final class Entry {
+        private final CompletableFuture<Wardrobe> wardrobe;  // done once read
+        private final Object saveLock;       // held while the wardrobe is written
+        private volatile long lastUsed;      // clock when last acquired
+        private volatile int savedModifications;  // modifications when last read or saved
+        private int pins;                    // no. of open leases; guarded by this
+        private boolean claimed;             // true once a caller reads it; guarded by this
+        private boolean retired;             // true once dropped; guarded by this
+
+        // EFFECTS: constructs an entry whose wardrobe is yet to be read
+        private Entry() {
+            this.wardrobe = new CompletableFuture<>();
+            this.saveLock = new Object();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: holds this at time now and returns true, unless it has
+        //          been dropped
+        private synchronized boolean pin(long now) {
+            if (retired) {
+                return false;
+            }
+            pins++;
+            lastUsed = now;
+            return true;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: returns true the first time it is called, i.e, to the
+        //          caller that is to read the wardrobe
+        private synchronized boolean claimLoad() {
+            boolean first = !claimed;
+            claimed = true;
+            return first;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: releases a hold on this
+        private synchronized void unpin() {
+            pins--;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: marks this dropped
+        private synchronized void retire() {
+            retired = true;
+        }
+
+        // EFFECTS: returns true if this is loaded, held by nobody and not dropped
+        private synchronized boolean isEvictable() {
+            return pins == 0 && !retired && wardrobe.isDone() && !wardrobe.isCompletedExceptionally();
+        }
+
+        // MODIFIES: this
+        // EFFECTS: marks this dropped and returns true if nobody holds it and
+        //          it has not changed since it was saved
+        private synchronized boolean retireIfUnchanged() {
+            if (pins > 0 || retired || wardrobe.join().getModifications() != savedModifications) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+    }
+}
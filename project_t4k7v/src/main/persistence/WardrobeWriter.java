@@ -0,0 +1,23 @@
+package persistence;
+
+import model.Wardrobe;
+
+import java.io.IOException;
+
+// an interface for any writer of a wardrobe to a file, so the format it is
+// stored in can be chosen in one place
+public interface WardrobeWriter {
+    // MODIFIES: this
+    // EFFECTS: opens writer; throws IOException if destination file cannot
+    //          be opened for writing
+    void open() throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: writes wd to file; throws IOException if it cannot be written
+    void write(Wardrobe wd) throws IOException;
+
+    // MODIFIES: this
+    // EFFECTS: closes writer; throws IOException if what was written cannot
+    //          be flushed to file
+    void close() throws IOException;
+}
@@ -1,29 +1,32 @@
 package ui;
 
+import model.OutfitRecommender;
 import model.Wardrobe;
 import model.Clothing;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.DeltaStore;
+import persistence.StoreFormat;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.StringJoiner;
 
 // Represents the console-based digital wardrobe app
 public class ChersWardrobeApp {
-    private static final String JSON_STORE = "./data/wardrobe.json";
+    private static final StoreFormat STORE_FORMAT = StoreFormat.fromProperty();
+    private static final String STORE = "./data/wardrobe" + STORE_FORMAT.getExtension();
+    private static final int TOP_OUTFITS = 3;
     private Wardrobe digitalWardrobe = new Wardrobe();
     private Scanner input;
-    private final JsonWriter jsonWriter;
-    private final JsonReader jsonReader;
+    private final DeltaStore store;  // saves only what changed since the last save
 
     // EFFECTS: runs the wardrobe app
     // reference: TellerApp, TellerApp.java class
     public ChersWardrobeApp() {
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+        store = new DeltaStore(STORE_FORMAT, STORE);
         runChersWardrobe();
     }
 
@@ -49,10 +52,21 @@ public class ChersWardrobeApp {
             }
         }
 
+        finishCompaction();
         System.out.println("\nThanks for using Cher's Wardrobe."
                 + " Come again soon!");
     }
 
+    // EFFECTS: waits for the wardrobe file to finish compacting in the
+    //          background, so the next start reads as little as possible
+    private void finishCompaction() {
+        try {
+            store.awaitCompaction();
+        } catch (IOException e) {
+            System.out.println("Unable to compact file: " + STORE);
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: initializes the scanner input
     // reference: TellerApp, TellerApp.init() method
@@ -184,9 +198,9 @@ public class ChersWardrobeApp {
         }
     }
 
-    // EFFECTS: processes "filter clothing" feature. filters allClothes in
-    //          wardrobe by colour, mood, and dress code and feeds filtered
-    //          list to filterTypes() to be sorted by type
+    // EFFECTS: processes "filter clothing" feature. queries allClothes in
+    //          wardrobe by colour, mood, and dress code at once and feeds
+    //          filtered list to filterTypes() to be sorted by type
     private void doOutfitPicker() {
         if (!(digitalWardrobe.getAllClothes().isEmpty())) {
             System.out.println("Hi, your digital wardrobe here to recommend "
@@ -200,14 +214,14 @@ public class ChersWardrobeApp {
             System.out.println("And finally, what's the general dress code?");
             String wantDressCode = input.next();
 
-            List<Clothing> allClothes = digitalWardrobe.getAllClothes();
-            allClothes = digitalWardrobe.filterAll("colour",wantColour,
-                    allClothes);
-            allClothes = digitalWardrobe.filterAll("mood",wantMood,allClothes);
-            allClothes = digitalWardrobe.filterAll("dress code",wantDressCode,
-                    allClothes);
+            Map<String, String> criteria = new LinkedHashMap<>();
+            criteria.put("colour",wantColour);
+            criteria.put("mood",wantMood);
+            criteria.put("dress code",wantDressCode);
 
-            filterTypes(allClothes);
+            filterTypes(digitalWardrobe.query(criteria));
+            displayOutfits(new OutfitRecommender(wantColour,wantMood,wantDressCode)
+                    .recommend(digitalWardrobe,TOP_OUTFITS));
         } else {
             System.out.println("Add some clothing to your wardrobe "
                     + "before requesting an outfit!");
@@ -271,6 +285,24 @@ public class ChersWardrobeApp {
         }
     }
 
+    // EFFECTS: prints out the best scoring outfits, one per line, listing the IDs
+    //          of each outfit's pieces
+    private void displayOutfits(List<OutfitRecommender.Recommendation> outfits) {
+        if (outfits.isEmpty()) {
+            System.out.println("NO FULL OUTFITS MATCH SEARCH CRITERIA \n");
+        } else {
+            System.out.println("RECOMMENDED OUTFITS");
+            for (OutfitRecommender.Recommendation r : outfits) {
+                StringJoiner pieces = new StringJoiner(" + ");
+                for (Clothing c : r.getOutfit().getPieces()) {
+                    pieces.add(c.getId());
+                }
+                System.out.println(pieces);
+            }
+            System.out.println("\n");
+        }
+    }
+
     // EFFECTS: scans user input for "t", "b", "j", or "a" and returns
     //          appropriate string, e.g, "top" for clothing type
     private String scanType() {
@@ -368,12 +400,12 @@ public class ChersWardrobeApp {
     // EFFECTS: saves the wardrobe to file
     private void saveWardrobe() {
         try {
-            jsonWriter.open();
-            jsonWriter.write(this.digitalWardrobe);
-            jsonWriter.close();
-            System.out.println("Saved your wardrobe to " + JSON_STORE);
-        } catch (FileNotFoundException e) {
-            System.out.println("Unable to write to file: " + JSON_STORE);
+            store.open();
+            store.write(this.digitalWardrobe);
+            store.close();
+            System.out.println("Saved your wardrobe to " + STORE);
+        } catch (IOException e) {
+            System.out.println("Unable to write to file: " + STORE);
         }
     }
 
@@ -381,10 +413,10 @@ public class ChersWardrobeApp {
     // EFFECTS: loads wardrobe from file
     private void loadWardrobe() {
         try {
-            digitalWardrobe = jsonReader.read();
-            System.out.println("Loaded your wardrobe from " + JSON_STORE + " !");
+            digitalWardrobe = store.read();
+            System.out.println("Loaded your wardrobe from " + STORE + " !");
         } catch (IOException e) {
-            System.out.println("Unable to read from file: " + JSON_STORE);
+            System.out.println("Unable to read from file: " + STORE);
         }
     }
 
@@ -4,18 +4,22 @@ package ui;
 import model.Clothing;
 import model.Event;
 import model.EventLog;
+import model.Metrics;
+import model.OutfitRecommender;
 import model.Wardrobe;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.AutoSaver;
+import persistence.DeltaStore;
+import persistence.EventJournal;
+import persistence.StoreFormat;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import static java.awt.GridBagConstraints.*;
 
@@ -25,8 +29,9 @@ public class WardrobeGUI extends JFrame {
     public static final int HEIGHT = 700;
     public static final String LIGHT_ACCENT_COLOUR = "#adc9de";
     public static final String DARK_ACCENT_COLOUR = "#274861";
+    public static final int TOP_OUTFITS = 3;
 
-    private Wardrobe wardrobe;
+    private Wardrobe wardrobe;   // changed on the event dispatch thread only
     private JPanel mainMenu;
     private JPanel wardrobeMenu;
 
@@ -40,12 +45,18 @@ public class WardrobeGUI extends JFrame {
     private final Map<String, JPanel> jacketsMap = new HashMap<>();
     private final Map<String, JPanel> accessoriesMap = new HashMap<>();
 
-    private static final String JSON_STORE = "./data/wardrobe.json";
-    private final JsonWriter jsonWriter;
-    private final JsonReader jsonReader;
+    private static final StoreFormat STORE_FORMAT = StoreFormat.fromProperty();
+    private static final String STORE = "./data/wardrobe" + STORE_FORMAT.getExtension();
+    private final DeltaStore store = new DeltaStore(STORE_FORMAT, STORE);  // saves only what changed
+    private final AutoSaver autoSaver = new AutoSaver(store);  // once loaded or saved
     private boolean loaded = false;
 
     private final EventLog eventLog = EventLog.getInstance();
+    private static final long COALESCE_MILLIS = 1000;   // repeated searches within this are logged once
+    private static final String JOURNAL_STORE = "./data/events.log";
+    private final EventJournal journal = new EventJournal(JOURNAL_STORE);
+    private static final String METRICS_STORE = "./data/metrics.txt";
+    private final Metrics metrics = Metrics.getInstance();
 
 
     //MODIFIES: this
@@ -56,11 +67,12 @@ public class WardrobeGUI extends JFrame {
         this.setSize(WIDTH,HEIGHT);
         this.setLocationRelativeTo(null);
 
-        jsonWriter = new JsonWriter(JSON_STORE);
-        jsonReader = new JsonReader(JSON_STORE);
+        openJournal();
+        autoSaver.addFailureListener(this::reportSaveFailure);
 
         initMainMenu();
         this.wardrobe = new Wardrobe();
+        metrics.watch(wardrobe);
 
         splash();
         this.setVisible(true);
@@ -71,10 +83,70 @@ public class WardrobeGUI extends JFrame {
                 for (Event next : eventLog) {
                     System.out.println(next.toString());
                 }
+                closeAutoSaver();
+                closeJournal();
+                dumpMetrics();
             }
         });
     }
 
+    // MODIFIES: this
+    // EFFECTS: starts appending every event logged to JOURNAL_STORE, with
+    //          repeated searches coalesced so a burst of them is written as
+    //          its first search and then once more with its count
+    private void openJournal() {
+        eventLog.setCoalesceWindow(COALESCE_MILLIS);
+        try {
+            journal.open();
+            eventLog.addListener(journal);
+        } catch (IOException e) {
+            System.out.println("ERROR: Unable to open journal: " + JOURNAL_STORE);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops journalling, waiting for logged events to reach JOURNAL_STORE
+    private void closeJournal() {
+        eventLog.endRun();
+        eventLog.removeListener(journal);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("ERROR: Unable to write to journal: " + JOURNAL_STORE);
+        }
+    }
+
+    // EFFECTS: tells the user that e stopped the wardrobe being saved to
+    //          STORE, on the event dispatch thread; called by autoSaver on its
+    //          background thread
+    private void reportSaveFailure(IOException e) {
+        System.out.println("ERROR: Unable to write to file: " + STORE);
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                "Unable to save your wardrobe to " + STORE + ": " + e.getMessage(),
+                "Save failed", JOptionPane.ERROR_MESSAGE));
+    }
+
+    // EFFECTS: stops autosaving, waiting for the changes not yet saved to
+    //          reach STORE and for STORE to finish compacting
+    private void closeAutoSaver() {
+        try {
+            autoSaver.close();
+            store.awaitCompaction();
+        } catch (IOException e) {
+            System.out.println("ERROR: Unable to write to file: " + STORE);
+        }
+    }
+
+    // EFFECTS: writes the latencies of wardrobe and save/load operations and
+    //          the sizes of the wardrobe and event log to METRICS_STORE
+    private void dumpMetrics() {
+        try {
+            metrics.dumpTo(METRICS_STORE);
+        } catch (IOException e) {
+            System.out.println("ERROR: Unable to write metrics to file: " + METRICS_STORE);
+        }
+    }
+
     // EFFECTS: creates and displays a 5 sec splash screen
     // reference: PokeJar by Anthony Du, https://github.com/anthonydu/cpsc210-pokejar,
     //            PokeJarGUI.splash() method
@@ -177,13 +249,16 @@ public class WardrobeGUI extends JFrame {
 
     // REQUIRES: loadWardrobeBtn is clicked (this is its event handler)
     // EFFECTS: loads in and reads data and initializes the wardrobeMenu in the
-    //          "data loaded" case
+    //          "data loaded" case; in the mapped format, items are read only
+    //          when they are first used
     private void loadWardrobe() {
         try {
-            this.wardrobe = jsonReader.read();
+            this.wardrobe = store.read();
+            metrics.watch(wardrobe);
+            autoSaver.watch(wardrobe);
             loaded = true;
         } catch (IOException e) {
-            System.out.println("ERROR: Unable to read from file: " + JSON_STORE);
+            System.out.println("ERROR: Unable to read from file: " + STORE);
         }
     }
 
@@ -295,6 +370,9 @@ public class WardrobeGUI extends JFrame {
         for (Event next : eventLog) {
             System.out.println(next.toString());
         }
+        closeAutoSaver();
+        closeJournal();
+        dumpMetrics();
 
         System.exit(0);
     }
@@ -641,18 +719,39 @@ public class WardrobeGUI extends JFrame {
             String moodFilter = searchCriteria.get()[1];
             String dressCodeFilter = searchCriteria.get()[2];
 
-            List<Clothing> filtered = new ArrayList<>(this.wardrobe.getAllClothes());
-            filtered = this.wardrobe.filterAll("colour",colourFilter,
-                    filtered);
-            filtered = this.wardrobe.filterAll("mood",moodFilter,
-                    filtered);
-            filtered = this.wardrobe.filterAll("dress code",dressCodeFilter,
-                    filtered);
+            Map<String, String> criteria = new LinkedHashMap<>();
+            criteria.put("colour",colourFilter);
+            criteria.put("mood",moodFilter);
+            criteria.put("dress code",dressCodeFilter);
 
-            displayRecommendations(filtered);
+            OutfitRecommender recommender = new OutfitRecommender(colourFilter, moodFilter,
+                    dressCodeFilter);
+            recommendInBackground(this.wardrobe.query(criteria), recommender, this.wardrobe);
         }
     }
 
+    // EFFECTS: picks the candidates of wd and searches them for the best
+    //          outfits on a worker thread, so the window stays responsive,
+    //          then displays them with matches
+    private void recommendInBackground(List<Clothing> matches, OutfitRecommender recommender,
+                                       Wardrobe wd) {
+        new SwingWorker<List<OutfitRecommender.Recommendation>, Void>() {
+            @Override
+            protected List<OutfitRecommender.Recommendation> doInBackground() {
+                return recommender.recommend(recommender.candidates(wd), TOP_OUTFITS);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    displayRecommendations(matches, get());
+                } catch (InterruptedException | ExecutionException e) {
+                    displayRecommendations(matches, new ArrayList<>());
+                }
+            }
+        }.execute();
+    }
+
     // EFFECTS: creates popup dialog asking for input about the search criteria and
     //          passes user input back to the event handler
     // reference: Workout Tracker by keigol, https://github.com/keigol/CPSC210-project,
@@ -679,10 +778,12 @@ public class WardrobeGUI extends JFrame {
     }
 
     // EFFECTS: creates a table, renders every filtered item (i.e, search matches) as a row
-    //          and displays it in a message dialog with error handling if no matches occur
+    //          and displays it in a message dialog together with the best scoring
+    //          outfits, with error handling if no matches occur
     // reference: FilmFlix by Kimia Rostin, https://github.com/kim1339/FilmFlix,
     //            FilmFlixGUI.setUpTableAndPane() and FilmFlixGUI.updateCatalogue() method
-    private void displayRecommendations(List<Clothing> filtered) {
+    private void displayRecommendations(List<Clothing> filtered,
+                                        List<OutfitRecommender.Recommendation> outfits) {
         DefaultTableModel tableModel = new DefaultTableModel(new String[] { "ID", "Type",
                 "Colour", "Fit", "Mood", "Dress Code" }, 0);
         JTable recs = new JTable(tableModel);
@@ -697,9 +798,10 @@ public class WardrobeGUI extends JFrame {
 
             JLabel recsIntro = new JLabel("Here are your recommendations, based"
                     + " off the search criteria you provided!");
-            JPanel finalRecs = new JPanel(new GridLayout(2,0));
+            JPanel finalRecs = new JPanel(new GridLayout(0,1));
             finalRecs.add(recsIntro);
             finalRecs.add(recs);
+            displayOutfits(outfits, finalRecs);
 
             JOptionPane.showMessageDialog(this, finalRecs);
         } else {
@@ -710,6 +812,27 @@ public class WardrobeGUI extends JFrame {
         }
     }
 
+    // MODIFIES: parent
+    // EFFECTS: adds a line for each recommended outfit, listing the IDs of its pieces,
+    //          to parent
+    private void displayOutfits(List<OutfitRecommender.Recommendation> outfits, JPanel parent) {
+        if (outfits.isEmpty()) {
+            return;
+        }
+
+        JLabel outfitsIntro = new JLabel("And our top picks for a full outfit:");
+        outfitsIntro.setFont(new Font("Helvetica Neue", Font.BOLD, 13));
+        parent.add(outfitsIntro);
+
+        for (OutfitRecommender.Recommendation r : outfits) {
+            StringJoiner pieces = new StringJoiner(" + ");
+            for (Clothing c : r.getOutfit().getPieces()) {
+                pieces.add(c.getId());
+            }
+            parent.add(new JLabel(pieces.toString()));
+        }
+    }
+
     // EFFECTS: converts Clothing type to Object array to be displayed in table
     // reference: FilmFlix by Kimia Rostin, https://github.com/kim1339/FilmFlix,
     //            FilmFlixGUI.filmToObjectArray() method
@@ -725,15 +848,13 @@ public class WardrobeGUI extends JFrame {
     }
 
     // REQUIRES: saveWardrobeBtn is clicked (this is its event handler)
-    // EFFECTS: writes data to wardrobe.json file
+    // EFFECTS: writes the changes made since the last save to the wardrobe
+    //          file in STORE_FORMAT in the background, and from now on saves
+    //          every change made to the wardrobe shortly after it is made; a
+    //          save that fails is shown to the user by reportSaveFailure
     private void saveWardrobe() {
-        try {
-            jsonWriter.open();
-            jsonWriter.write(this.wardrobe);
-            jsonWriter.close();
-        } catch (FileNotFoundException e) {
-            System.out.println("ERROR: Unable to write to file: " + JSON_STORE);
-        }
+        autoSaver.watch(this.wardrobe);
+        autoSaver.saveSoon();
     }
 
     // EFFECTS: initializes the wardrobeScreen (right panel) in the case where user
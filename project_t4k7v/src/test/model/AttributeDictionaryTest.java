@@ -0,0 +1,57 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeDictionaryTest {
+    private final AttributeDictionary dictionary = AttributeDictionary.getInstance();
+
+    @Test
+    void testEncodeSameValueSameCode() {
+        int code = dictionary.encode("periwinkle");
+        assertEquals(code, dictionary.encode(new String("periwinkle")));
+        assertEquals(code, dictionary.lookup("periwinkle"));
+        assertEquals("periwinkle", dictionary.decode(code));
+    }
+
+    @Test
+    void testEncodeDifferentValuesDifferentCodes() {
+        int code1 = dictionary.encode("mauve");
+        int code2 = dictionary.encode("Mauve");
+        assertNotEquals(code1, code2);
+        assertEquals("mauve", dictionary.decode(code1));
+        assertEquals("Mauve", dictionary.decode(code2));
+    }
+
+    @Test
+    void testLookupNeverEncoded() {
+        int size = dictionary.size();
+        assertEquals(AttributeDictionary.NOT_FOUND, dictionary.lookup("no such colour"));
+        assertEquals(size, dictionary.size());
+    }
+
+    @Test
+    void testNull() {
+        assertEquals(AttributeDictionary.NOT_FOUND, dictionary.encode(null));
+        assertEquals(AttributeDictionary.NOT_FOUND, dictionary.lookup(null));
+        assertNull(dictionary.decode(AttributeDictionary.NOT_FOUND));
+    }
+
+    @Test
+    void testInternSharesInstance() {
+        String first = dictionary.intern(new String("chartreuse"));
+        String second = dictionary.intern(new String("chartreuse"));
+        assertSame(first, second);
+    }
+
+    @Test
+    void testManyValues() {
+        for (int i = 0; i < 500; i++) {
+            dictionary.encode("colour no. " + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals("colour no. " + i, dictionary.decode(dictionary.lookup("colour no. " + i)));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static model.ClothingFilter.is;
+import static model.ClothingFilter.not;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClothingFilterTest {
+    private Wardrobe testWardrobe;
+    private Wardrobe testColumnar;
+
+    private Clothing top1;
+    private Clothing top2;
+    private Clothing bottom1;
+    private Clothing bottom2;
+    private Clothing jacket1;
+    private Clothing jacket2;
+
+    @BeforeEach
+    void setUp() {
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        top2 = new Clothing("Black buttoned long-sleeve","top","black","tight",
+                "elegant","casual");
+        bottom1 = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+        bottom2 = new Clothing("Uniqlo floral skirt","bottom","blue","tight",
+                "feminine","casual");
+        jacket1 = new Clothing("Mom's leather jacket","jacket","beige","tight",
+                "cool","casual");
+        jacket2 = new Clothing("Tweed blazer","jacket","green","baggy",
+                "academic","casual");
+
+        testWardrobe = new Wardrobe();
+        testColumnar = new ColumnarWardrobe();
+        for (Clothing c : Arrays.asList(top1,top2,bottom1,bottom2,jacket1,jacket2)) {
+            testWardrobe.addClothing(c);
+            testColumnar.addClothing(c);
+        }
+    }
+
+    @Test
+    void testIs() {
+        ClothingFilter filter = is("colour","blue");
+        assertEquals(Arrays.asList(bottom1,bottom2),testWardrobe.filter(filter));
+        assertEquals(Arrays.asList(bottom1,bottom2),testColumnar.filter(filter));
+    }
+
+    @Test
+    void testIsNoSuchValue() {
+        ClothingFilter filter = is("mood","gothic");
+        assertEquals(0,testWardrobe.filter(filter).size());
+        assertEquals(0,testColumnar.filter(filter).size());
+    }
+
+    @Test
+    void testIsInvalidCategory() {
+        try {
+            is("type","top");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testOrAndNot() {
+        ClothingFilter filter = is("colour","green").or(is("colour","blue"))
+                .and(not(is("fit","baggy")))
+                .and(is("dress code","casual"));
+        assertEquals(Arrays.asList(top1,bottom2),testWardrobe.filter(filter));
+        assertEquals(Arrays.asList(top1,bottom2),testColumnar.filter(filter));
+    }
+
+    @Test
+    void testNot() {
+        ClothingFilter filter = not(is("dress code","casual"));
+        assertEquals(Arrays.asList(bottom1),testWardrobe.filter(filter));
+        assertEquals(Arrays.asList(bottom1),testColumnar.filter(filter));
+    }
+
+    @Test
+    void testFilterAfterRemove() {
+        testWardrobe.removeClothing("Y2K fairy blouse");
+        testColumnar.removeClothing("Y2K fairy blouse");
+
+        ClothingFilter filter = is("colour","green").or(not(is("fit","tight")));
+        assertEquals(Arrays.asList(bottom1,jacket2),testWardrobe.filter(filter));
+        assertEquals(Arrays.asList(bottom1,jacket2),testColumnar.filter(filter));
+    }
+
+    @Test
+    void testFilterAfterManyRemoves() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            testWardrobe.addClothing(new Clothing("Shirt " + i,"top","white","comfy",
+                    "plain","casual"));
+            ids.add("Shirt " + i);
+        }
+        testWardrobe.removeClothing(ids.subList(0, 150));
+        testWardrobe.addClothing(top1);
+
+        List<Clothing> testList = testWardrobe.filter(is("colour","white"));
+        assertEquals(50,testList.size());
+        assertEquals("Shirt 150",testList.get(0).getId());
+        assertEquals(Arrays.asList(top1,top1),testWardrobe.filter(is("mood","whimsical")));
+    }
+}
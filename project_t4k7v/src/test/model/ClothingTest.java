@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class ClothingTest {
     Clothing testClothing;
@@ -24,4 +25,15 @@ public class ClothingTest {
         assertEquals("casual",testClothing.getDressCode());
     }
 
+    @Test
+    void testAttributesShared() {
+        Clothing other = new Clothing("Pleated skirt",new String("bottom"),
+                new String("green"),new String("tight"),new String("whimsical"),
+                new String("casual"));
+        assertSame(testClothing.getColour(),other.getColour());
+        assertSame(testClothing.getFit(),other.getFit());
+        assertSame(testClothing.getMood(),other.getMood());
+        assertSame(testClothing.getDressCode(),other.getDressCode());
+        assertEquals("bottom",other.getType());
+    }
 }
@@ -0,0 +1,185 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarWardrobeTest {
+    private Wardrobe testWardrobe;
+
+    private Clothing top1;
+    private Clothing top2;
+    private Clothing bottom1;
+    private Clothing jacket1;
+    private Clothing accessory1;
+
+    @BeforeEach
+    void setUp() {
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        top2 = new Clothing("Black buttoned long-sleeve","Top","black","tight",
+                "elegant","casual");
+        bottom1 = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+        jacket1 = new Clothing("Mom's leather jacket","jacket","beige","tight",
+                "cool","casual");
+        accessory1 = new Clothing("Bejeweled purse","accessory","silver","comfy",
+                "glam","black tie");
+
+        testWardrobe = new ColumnarWardrobe();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0,testWardrobe.getAllClothes().size());
+        assertEquals(0,testWardrobe.getTops().size());
+    }
+
+    @Test
+    void testAddClothing() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        List<Clothing> testAllClothes = testWardrobe.getAllClothes();
+
+        assertEquals(3,testAllClothes.size());
+        assertEquals(top1,testAllClothes.get(0));
+        assertEquals(bottom1,testAllClothes.get(1));
+        assertEquals(top2,testAllClothes.get(2));
+        assertEquals("Top",testAllClothes.get(2).getType());
+        assertEquals(Arrays.asList(top1,top2),testWardrobe.getTops());
+        assertEquals(Arrays.asList(bottom1),testWardrobe.getBottoms());
+        assertEquals(0,testWardrobe.getJackets().size());
+        assertEquals(0,testWardrobe.getAccessories().size());
+    }
+
+    @Test
+    void testAddManyClothing() {
+        for (int i = 0; i < 100; i++) {
+            testWardrobe.addClothing(new Clothing("Shirt " + i,"top","white","comfy",
+                    "plain","casual"));
+        }
+
+        assertEquals(100,testWardrobe.getAllClothes().size());
+        assertEquals(100,testWardrobe.getTops().size());
+        assertEquals("Shirt 99",testWardrobe.getTops().get(99).getId());
+    }
+
+    @Test
+    void testRemoveClothing() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(jacket1);
+        testWardrobe.addClothing(top2);
+        List<Clothing> testTops = testWardrobe.getTops();
+
+        testWardrobe.removeClothing("Y2K fairy blouse");
+        assertEquals(2,testWardrobe.getAllClothes().size());
+        assertEquals(1,testTops.size());
+        assertEquals(top2,testTops.get(0));
+        assertEquals(jacket1,testWardrobe.getJackets().get(0));
+
+        testWardrobe.removeClothing("Fuzzy sweater");
+        assertEquals(2,testWardrobe.getAllClothes().size());
+    }
+
+    @Test
+    void testRemoveClothingBulk() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(jacket1);
+        testWardrobe.addClothing(accessory1);
+
+        testWardrobe.removeClothing(Arrays.asList("Farrah jeans","Bejeweled purse"));
+        assertEquals(Arrays.asList(top1,jacket1),testWardrobe.getAllClothes());
+        assertEquals(0,testWardrobe.getBottoms().size());
+        assertEquals(0,testWardrobe.getAccessories().size());
+    }
+
+    @Test
+    void testRemoveFromMiddleMatchesWardrobe() {
+        Wardrobe plain = new Wardrobe();
+        for (Clothing c : Arrays.asList(top1,bottom1,jacket1,top2,accessory1,jacket1)) {
+            plain.addClothing(c);
+            testWardrobe.addClothing(c);
+        }
+        for (Wardrobe wd : Arrays.asList(plain,testWardrobe)) {
+            wd.removeClothing("Mom's leather jacket");
+            wd.removeClothing("Y2K fairy blouse");
+            wd.addClothing(top1);
+        }
+
+        assertTrue(plain.toJson().similar(testWardrobe.toJson()));
+        Map<String, String> criteria = new HashMap<>();
+        criteria.put("fit","tight");
+        assertEquals(plain.query(criteria),testWardrobe.query(criteria));
+        criteria.put("dress code","casual");
+        assertEquals(Arrays.asList(top2,top1),testWardrobe.query(criteria));
+    }
+
+    @Test
+    void testRemoveNotThereIsNotAChange() {
+        testWardrobe.addClothing(top1);
+        int modifications = testWardrobe.getModifications();
+
+        testWardrobe.removeClothing("Fuzzy sweater");
+        testWardrobe.removeClothing(Arrays.asList("Fuzzy sweater"));
+        assertEquals(modifications, testWardrobe.getModifications());
+        assertEquals(1, testWardrobe.getUnsavedChanges().size());
+    }
+
+    @Test
+    void testFilterAll() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(jacket1);
+
+        assertEquals(Arrays.asList(bottom1,top2),testWardrobe.filterAll("mood","elegant",
+                testWardrobe.getAllClothes()));
+        assertEquals(Arrays.asList(top1,top2),testWardrobe.filterAll("dress code","casual",
+                testWardrobe.getTops()));
+        assertEquals(0,testWardrobe.filterAll("colour","purple",
+                testWardrobe.getAllClothes()).size());
+
+        List<Clothing> copy = new ArrayList<>(testWardrobe.getAllClothes());
+        assertEquals(Arrays.asList(top1,top2,jacket1),testWardrobe.filterAll("fit","tight",
+                copy));
+    }
+
+    @Test
+    void testToJsonMatchesWardrobe() {
+        Wardrobe plain = new Wardrobe();
+        for (Clothing c : Arrays.asList(top1,bottom1,jacket1,accessory1,top2)) {
+            plain.addClothing(c);
+            testWardrobe.addClothing(c);
+        }
+
+        assertTrue(plain.toJson().similar(testWardrobe.toJson()));
+    }
+
+    @Test
+    void testQuery() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(jacket1);
+
+        Map<String, String> criteria = new HashMap<>();
+        criteria.put("fit","tight");
+        criteria.put("dress code","casual");
+        assertEquals(Arrays.asList(top1,top2,jacket1),testWardrobe.query(criteria));
+
+        criteria.put("mood","elegant");
+        assertEquals(Arrays.asList(top2),testWardrobe.query(criteria));
+
+        testWardrobe.removeClothing("Black buttoned long-sleeve");
+        assertEquals(0,testWardrobe.query(criteria).size());
+    }
+}
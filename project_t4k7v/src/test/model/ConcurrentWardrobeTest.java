@@ -0,0 +1,236 @@
+package model;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static model.ClothingFilter.is;
+import static model.ClothingFilter.not;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentWardrobeTest {
+    private ConcurrentWardrobe testWardrobe;
+
+    private Clothing top1;
+    private Clothing top2;
+    private Clothing bottom1;
+    private Clothing jacket1;
+    private Clothing accessory1;
+
+    @BeforeEach
+    void setUp() {
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        top2 = new Clothing("Black buttoned long-sleeve","Top","black","tight",
+                "elegant","casual");
+        bottom1 = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+        jacket1 = new Clothing("Mom's leather jacket","jacket","beige","tight",
+                "cool","casual");
+        accessory1 = new Clothing("Bejeweled purse","accessory","silver","comfy",
+                "glam","black tie");
+
+        testWardrobe = new ConcurrentWardrobe();
+    }
+
+    @Test
+    void testAddClothing() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(jacket1);
+        testWardrobe.addClothing(accessory1);
+
+        assertEquals(Arrays.asList(top1,bottom1,top2,jacket1,accessory1),
+                testWardrobe.getAllClothes());
+        assertEquals(Arrays.asList(top1,top2),testWardrobe.getTops());
+        assertEquals(Arrays.asList(bottom1),testWardrobe.getBottoms());
+        assertEquals(Arrays.asList(jacket1),testWardrobe.getJackets());
+        assertEquals(Arrays.asList(accessory1),testWardrobe.getAccessories());
+    }
+
+    @Test
+    void testRemoveClothing() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.removeClothing("Y2K fairy blouse");
+
+        assertEquals(Arrays.asList(bottom1,top2),testWardrobe.getAllClothes());
+        assertEquals(Arrays.asList(top2),testWardrobe.getTops());
+
+        testWardrobe.removeClothing(Arrays.asList("Farrah jeans","Black buttoned long-sleeve"));
+        assertEquals(0,testWardrobe.getAllClothes().size());
+        assertEquals(0,testWardrobe.getTops().size());
+        assertEquals(0,testWardrobe.getBottoms().size());
+
+        testWardrobe.addClothing(top1);
+        assertEquals(Arrays.asList(top1),testWardrobe.getAllClothes());
+        assertEquals(Arrays.asList(top1),testWardrobe.getTops());
+    }
+
+    @Test
+    void testSnapshotUnchangedByLaterWrites() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        List<Clothing> before = testWardrobe.getAllClothes();
+        List<Clothing> topsBefore = testWardrobe.getTops();
+
+        testWardrobe.addClothing(top2);
+        testWardrobe.removeClothing("Y2K fairy blouse");
+
+        assertEquals(Arrays.asList(top1,bottom1),before);
+        assertEquals(Arrays.asList(top1),topsBefore);
+        assertEquals(Arrays.asList(bottom1,top2),testWardrobe.getAllClothes());
+        assertThrows(UnsupportedOperationException.class, () -> before.add(top2));
+    }
+
+    @Test
+    void testFilterAllAndQuery() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(jacket1);
+
+        assertEquals(Arrays.asList(top1,top2,jacket1),testWardrobe.filterAll("fit","tight",
+                testWardrobe.getAllClothes()));
+        assertEquals(Arrays.asList(top2),testWardrobe.filterAll("mood","elegant",
+                testWardrobe.getTops()));
+        assertEquals(0,testWardrobe.filterAll("colour","purple",
+                testWardrobe.getAllClothes()).size());
+
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("fit","tight");
+        criteria.put("dress code","casual");
+        criteria.put("mood","elegant");
+        assertEquals(Arrays.asList(top2),testWardrobe.query(criteria));
+        criteria.put("colour","purple");
+        assertEquals(0,testWardrobe.query(criteria).size());
+    }
+
+    @Test
+    void testFilter() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(jacket1);
+
+        assertEquals(Arrays.asList(top1,jacket1),testWardrobe.filter(
+                is("fit","tight").and(not(is("mood","elegant")))));
+        assertEquals(Arrays.asList(top1,bottom1),testWardrobe.filter(
+                is("colour","green").or(is("colour","blue"))));
+    }
+
+    @Test
+    void testOutfitsAndToJson() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(new Clothing("Pleated skirt","bottom","black","tight",
+                "elegant","casual"));
+
+        assertEquals(2,testWardrobe.outfits().count());
+        assertEquals(4,testWardrobe.toJson().getJSONArray("allClothes").length());
+        assertEquals(2,testWardrobe.toJson().getJSONArray("tops").length());
+        assertEquals(2,testWardrobe.toJson().getJSONArray("bottoms").length());
+    }
+
+    @Test
+    void testIndexesFollowChanges() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+        List<Clothing> topsBefore = testWardrobe.getTops();
+        testWardrobe.removeClothing("Y2K fairy blouse");
+        testWardrobe.addClothing(jacket1);
+
+        assertEquals(Arrays.asList(top1,top2),testWardrobe.filterAll("fit","tight",topsBefore));
+        assertEquals(Arrays.asList(top2,jacket1),testWardrobe.filterAll("fit","tight",
+                testWardrobe.getAllClothes()));
+        assertEquals(Arrays.asList(bottom1),testWardrobe.filterAll("colour","blue",
+                new ArrayList<>(testWardrobe.getAllClothes())));
+        assertEquals(Arrays.asList(top2,jacket1),testWardrobe.query(Collections.singletonMap("fit","tight")));
+        assertEquals(Arrays.asList(bottom1,top2,jacket1),testWardrobe.query(Collections.emptyMap()));
+        assertEquals(Arrays.asList(jacket1),testWardrobe.filter(is("colour","beige")));
+    }
+
+    @Test
+    void testReadersSeeConsistentSnapshots() throws InterruptedException {
+        AtomicBoolean done = new AtomicBoolean(false);
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                checkSnapshot(failures);
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 2000; i++) {
+            testWardrobe.addClothing(new Clothing("top " + i,"top","green","tight",
+                    "whimsical","casual"));
+            testWardrobe.addClothing(new Clothing("bottom " + i,"bottom","blue","baggy",
+                    "elegant","casual"));
+            if (i % 10 == 9) {
+                testWardrobe.removeClothing("bottom " + (i - 5));
+            }
+        }
+        done.set(true);
+        reader.join();
+
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertEquals(2000,testWardrobe.getTops().size());
+        assertEquals(2000 - 200,testWardrobe.getBottoms().size());
+        assertEquals(4000 - 200,testWardrobe.getAllClothes().size());
+    }
+
+    // MODIFIES: failures
+    // EFFECTS: adds a description to failures of anything in the current
+    //          snapshot that does not add up
+    private void checkSnapshot(List<String> failures) {
+        JSONObject json = testWardrobe.toJson();
+        int all = json.getJSONArray("allClothes").length();
+        int tops = json.getJSONArray("tops").length();
+        int bottoms = json.getJSONArray("bottoms").length();
+        if (all != tops + bottoms) {
+            failures.add(all + " items but " + tops + " tops and " + bottoms + " bottoms");
+        }
+        for (Clothing c : testWardrobe.getAllClothes()) {
+            if (c == null) {
+                failures.add("half-published item");
+            }
+        }
+        List<Clothing> green = testWardrobe.getTops();
+        if (!testWardrobe.filterAll("colour","green",green).equals(green)) {
+            failures.add("index out of step with tops");
+        }
+    }
+
+    @Test
+    void testHoldChanges() throws InterruptedException {
+        testWardrobe.addClothing(top1);
+        Thread adder = new Thread(() -> testWardrobe.addClothing(bottom1));
+        testWardrobe.holdChanges(() -> {
+            adder.start();
+            try {
+                adder.join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertEquals(1, testWardrobe.getAllClothes().size());
+            testWardrobe.markSaved(testWardrobe.getUnsavedChanges().size());
+        });
+        adder.join();
+
+        assertEquals(2, testWardrobe.getAllClothes().size());
+        assertEquals(1, testWardrobe.getUnsavedChanges().size());
+        assertEquals(bottom1, testWardrobe.getUnsavedChanges().get(0).getItem());
+    }
+}
@@ -0,0 +1,283 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+    private EventLog log;
+
+    @BeforeEach
+    void setUp() {
+        log = new EventLog(4);
+    }
+
+    @Test
+    void testGetInstance() {
+        assertSame(EventLog.getInstance(), EventLog.getInstance());
+        assertEquals(EventLog.DEFAULT_CAPACITY, EventLog.getInstance().getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new EventLog(0));
+    }
+
+    @Test
+    void testLogEvent() {
+        log.logEvent(new Event("Clothing item added."));
+        log.logEvent(new Event("Clothing item removed."));
+
+        assertEquals(List.of("Clothing item added.", "Clothing item removed."),
+                descriptions(log));
+    }
+
+    @Test
+    void testOverwriteOldest() {
+        for (int i = 0; i < 6; i++) {
+            log.logEvent(new Event("event " + i));
+        }
+        assertEquals(List.of("event 2", "event 3", "event 4", "event 5"), descriptions(log));
+        assertEquals(4, log.size());
+    }
+
+    @Test
+    void testClear() {
+        log.logEvent(new Event("event 0"));
+        log.logEvent(new Event("event 1"));
+        log.clear();
+        log.logEvent(new Event("event 2"));
+
+        assertEquals(List.of("Event log cleared.", "event 2"), descriptions(log));
+        assertEquals(2, log.size());
+    }
+
+    @Test
+    void testIteratorIsSnapshot() {
+        log.logEvent(new Event("event 0"));
+        Iterator<Event> iterator = log.iterator();
+        log.logEvent(new Event("event 1"));
+
+        assertEquals("event 0", iterator.next().getDescription());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testConcurrentLogging() throws InterruptedException {
+        EventLog shared = new EventLog(100);
+        List<Thread> producers = startProducers(shared, 4);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(descriptions(shared).size() <= 100);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        List<String> last = descriptions(shared);
+        assertEquals(100, last.size());
+        for (int t = 0; t < 4; t++) {
+            checkInOrder(last, "producer " + t + " ");
+        }
+    }
+
+    // EFFECTS: starts n threads that each log 1000 numbered events to shared
+    //          and returns them
+    private static List<Thread> startProducers(EventLog shared, int n) {
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < n; t++) {
+            String name = "producer " + t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    shared.logEvent(new Event(name + " event " + i));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        return producers;
+    }
+
+    // EFFECTS: checks the events in descriptions starting with producer are
+    //          numbered in increasing order
+    private static void checkInOrder(List<String> descriptions, String producer) {
+        int previous = -1;
+        for (String d : descriptions) {
+            if (d.startsWith(producer)) {
+                int i = Integer.parseInt(d.substring(d.lastIndexOf(' ') + 1));
+                assertTrue(i > previous);
+                previous = i;
+            }
+        }
+    }
+
+    @Test
+    void testBetween() throws InterruptedException {
+        log = new EventLog(16);
+        Clothing top = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        log.logEvent(new Event(Event.Operation.ADDED, top));
+        Thread.sleep(5);
+        long from = System.currentTimeMillis();
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        log.logEvent(new Event(Event.Operation.REMOVED, top));
+        Thread.sleep(5);
+        long to = System.currentTimeMillis();
+        log.logEvent(new Event(Event.Operation.ADDED, top));
+
+        assertEquals(List.of(Event.FILTERED, Event.ITEM_REMOVED),
+                descriptions(log.between(from, to)));
+        List<Event> removals = log.between(from, to, Event.Operation.REMOVED);
+        assertEquals(1, removals.size());
+        assertEquals("Y2K fairy blouse", removals.get(0).getItemId());
+        assertEquals("green", removals.get(0).getItem().getColour());
+        assertEquals(2, log.between(Long.MIN_VALUE, Long.MAX_VALUE,
+                Event.Operation.ADDED).size());
+        assertEquals(0, log.between(to, from).size());
+    }
+
+    @Test
+    void testBetweenAfterOverwrite() {
+        for (int i = 0; i < 10; i++) {
+            log.logEvent(new Event("event " + i));
+        }
+        assertEquals(List.of("event 6", "event 7", "event 8", "event 9"),
+                descriptions(log.between(Long.MIN_VALUE, Long.MAX_VALUE)));
+        log.clear();
+        assertEquals(List.of(Event.LOG_CLEARED),
+                descriptions(log.between(Long.MIN_VALUE, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void testWardrobeEvents() {
+        long from = System.currentTimeMillis();
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual"));
+        wd.addClothing(new Clothing("Plaid beret","accessory","brown","comfy",
+                "chic","cocktail"));
+        wd.removeClothing(List.of("Farrah jeans","Plaid beret","No such item"));
+
+        List<String> removed = new ArrayList<>();
+        for (Event e : EventLog.getInstance().between(from, Long.MAX_VALUE,
+                Event.Operation.REMOVED)) {
+            removed.add(e.getItemId());
+        }
+        assertTrue(removed.containsAll(List.of("Farrah jeans","Plaid beret")));
+        assertFalse(removed.contains("No such item"));
+    }
+
+    @Test
+    void testCoalesce() {
+        log = new EventLog(4, 60000);
+        List<Event> heard = new ArrayList<>();
+        log.addListener(heard::add);
+        Clothing jeans = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+
+        for (int i = 0; i < 1000; i++) {
+            log.logEvent(new Event(Event.Operation.FILTERED));
+        }
+        log.logEvent(new Event(Event.Operation.ADDED, jeans));
+        log.logEvent(new Event(Event.Operation.REMOVED, jeans));
+        log.logEvent(new Event(Event.Operation.FILTERED));
+
+        List<Event> events = new ArrayList<>();
+        log.forEach(events::add);
+        assertEquals(List.of(Event.FILTERED, Event.ITEM_ADDED, Event.ITEM_REMOVED, Event.FILTERED),
+                descriptions(events));
+        assertEquals(1000, events.get(0).getCount());
+        assertTrue(events.get(0).getLastTime() >= events.get(0).getTime());
+        assertTrue(events.get(0).toString().contains("(x1000, last at "));
+        assertEquals(1, events.get(3).getCount());
+        assertEquals(4, log.size());
+        assertEquals(List.of(1, 1000, 1, 1, 1), counts(heard));
+        assertEquals(List.of(Event.FILTERED, Event.FILTERED, Event.ITEM_ADDED, Event.ITEM_REMOVED,
+                Event.FILTERED), descriptions(heard));
+    }
+
+    @Test
+    void testEndRun() {
+        log = new EventLog(4, 60000);
+        List<Event> heard = new ArrayList<>();
+        log.addListener(heard::add);
+        log.endRun();
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        log.endRun();
+        log.endRun();
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        log.logEvent(new Event("Saved."));
+        log.endRun();
+
+        assertEquals(List.of(1, 2, 1, 2, 1), counts(heard));
+        assertEquals(List.of(2, 2, 1), counts(eventsOf(log)));
+        assertEquals(List.of(Event.FILTERED, Event.FILTERED, "Saved."), descriptions(log));
+    }
+
+    @Test
+    void testCoalesceWindow() throws InterruptedException {
+        log.setCoalesceWindow(1);
+        assertEquals(1, log.getCoalesceWindow());
+        assertThrows(IllegalArgumentException.class, () -> log.setCoalesceWindow(-1));
+
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        Thread.sleep(5);
+        log.logEvent(new Event(Event.Operation.FILTERED));
+        log.logEvent(new Event("Saved."));
+        log.logEvent(new Event("Loaded."));
+        assertEquals(4, log.size());
+
+        log.setCoalesceWindow(0);
+        log.logEvent(new Event("Loaded."));
+        assertEquals(List.of(Event.FILTERED, "Saved.", "Loaded.", "Loaded."), descriptions(log));
+    }
+
+    @Test
+    void testConcurrentCoalescing() throws InterruptedException {
+        EventLog shared = new EventLog(100, 60000);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    shared.logEvent(new Event(Event.Operation.FILTERED));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        int total = 0;
+        for (Event e : shared) {
+            total += e.getCount();
+        }
+        assertEquals(4000, total);
+    }
+
+    private static List<Event> eventsOf(EventLog log) {
+        List<Event> result = new ArrayList<>();
+        log.forEach(result::add);
+        return result;
+    }
+
+    private static List<Integer> counts(List<Event> events) {
+        List<Integer> result = new ArrayList<>();
+        for (Event e : events) {
+            result.add(e.getCount());
+        }
+        return result;
+    }
+
+    private static List<String> descriptions(Iterable<Event> log) {
+        List<String> result = new ArrayList<>();
+        for (Event e : log) {
+            result.add(e.getDescription());
+        }
+        return result;
+    }
+}
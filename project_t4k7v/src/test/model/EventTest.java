@@ -0,0 +1,56 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventTest {
+
+    @Test
+    void testEvent() {
+        long before = System.currentTimeMillis();
+        Event e = new Event(Event.ITEM_ADDED);
+        long after = System.currentTimeMillis();
+
+        assertEquals("Clothing item added.", e.getDescription());
+        assertTrue(e.getTime() >= before && e.getTime() <= after);
+        assertEquals(new Date(e.getTime()), e.getDate());
+        assertNotSame(e.getDate(), e.getDate());
+        assertEquals(e.getDate() + "\nClothing item added.", e.toString());
+    }
+
+    @Test
+    void testStructuredEvent() {
+        Clothing top = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        Event added = new Event(Event.Operation.ADDED, top);
+        assertEquals(Event.Operation.ADDED, added.getOperation());
+        assertEquals(Event.ITEM_ADDED, added.getDescription());
+        assertEquals("Y2K fairy blouse", added.getItemId());
+        assertSame(top, added.getItem());
+        assertTrue(added.toString().endsWith("Clothing item added. (Y2K fairy blouse)"));
+
+        Event filtered = new Event(Event.Operation.FILTERED);
+        assertEquals(Event.FILTERED, filtered.getDescription());
+        assertNull(filtered.getItemId());
+        assertEquals(Event.Operation.OTHER, new Event("Saved.").getOperation());
+    }
+
+    @Test
+    void testNanoTimeOrdered() {
+        Event first = new Event(Event.ITEM_ADDED);
+        Event second = new Event(Event.ITEM_REMOVED);
+        assertTrue(second.getNanoTime() - first.getNanoTime() >= 0);
+    }
+
+    @Test
+    void testEquals() {
+        Event e = new Event(Event.FILTERED);
+        assertEquals(e, e);
+        assertNotEquals(e, null);
+        assertNotEquals(e, new Event(Event.ITEM_ADDED));
+        assertEquals(e.hashCode(), e.hashCode());
+    }
+}
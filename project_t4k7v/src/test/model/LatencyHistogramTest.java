@@ -0,0 +1,92 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void runBefore() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        assertEquals(21, histogram.getCount());
+        assertEquals(20, histogram.getMax());
+        assertEquals(10, histogram.getMean());
+        assertEquals(10, histogram.getPercentile(50));
+        assertEquals(18, histogram.getPercentile(90));
+        assertEquals(20, histogram.getPercentile(100));
+        assertEquals(0, histogram.getPercentile(0));
+    }
+
+    @Test
+    void testLargeValuesWithinBucketError() {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean());
+        assertWithin(500000, histogram.getPercentile(50));
+        assertWithin(900000, histogram.getPercentile(90));
+        assertWithin(990000, histogram.getPercentile(99));
+        assertEquals(1000000, histogram.getPercentile(100));
+
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+    }
+
+    @Test
+    void testRecordSince() {
+        long start = System.nanoTime();
+        histogram.recordSince(start);
+        assertEquals(1, histogram.getCount());
+        assertTrue(histogram.getMax() >= 0);
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(40000, histogram.getCount());
+        assertEquals(9999, histogram.getMax());
+    }
+
+    // EFFECTS: asserts that actual is at least expected and within 1/16 of it
+    private void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16,
+                "expected about " + expected + " but was " + actual);
+    }
+}
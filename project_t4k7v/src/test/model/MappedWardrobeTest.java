@@ -0,0 +1,205 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static model.ClothingFilter.is;
+import static model.ClothingFilter.not;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedWardrobeTest {
+    private Clothing top1;
+    private Clothing top2;
+    private Clothing bottom1;
+    private Clothing jacket1;
+    private Clothing accessory1;
+
+    private ListSource source;
+    private MappedWardrobe testWardrobe;
+
+    @BeforeEach
+    void setUp() {
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        top2 = new Clothing("Black buttoned long-sleeve","Top","black","tight",
+                "elegant","casual");
+        bottom1 = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+        jacket1 = new Clothing("Mom's leather jacket","jacket","beige","tight",
+                "cool","casual");
+        accessory1 = new Clothing("Bejeweled purse","accessory","silver","comfy",
+                "glam","black tie");
+
+        source = new ListSource(Arrays.asList(top1, bottom1, top2, jacket1, accessory1));
+        testWardrobe = new MappedWardrobe(source, 2);
+    }
+
+    @Test
+    void testOpenReadsNothing() {
+        assertEquals(5, testWardrobe.getAllClothes().size());
+        assertEquals(0, source.reads);
+        assertFalse(testWardrobe.isMaterialised());
+
+        Clothing c = testWardrobe.getAllClothes().get(3);
+        assertTrue(c instanceof MappedClothing);
+        assertEquals(0, source.reads);
+        assertEquals("Mom's leather jacket", c.getId());
+        assertEquals(1, source.reads);
+        assertEquals("beige", c.getColour());
+        assertEquals(2, source.reads);
+    }
+
+    @Test
+    void testViews() {
+        assertEquals(Arrays.asList(top1,bottom1,top2,jacket1,accessory1), testWardrobe.getAllClothes());
+        assertEquals(Arrays.asList(top1,top2), testWardrobe.getTops());
+        assertEquals(Arrays.asList(bottom1), testWardrobe.getBottoms());
+        assertEquals(Arrays.asList(jacket1), testWardrobe.getJackets());
+        assertEquals(Arrays.asList(accessory1), testWardrobe.getAccessories());
+        assertSame(testWardrobe.getTops(), testWardrobe.getTops());
+        assertThrows(IndexOutOfBoundsException.class, () -> testWardrobe.getBottoms().get(1));
+
+        Wardrobe eager = new Wardrobe();
+        for (Clothing c : Arrays.asList(top1,bottom1,top2,jacket1,accessory1)) {
+            eager.addClothing(c);
+        }
+        assertTrue(eager.toJson().similar(testWardrobe.toJson()));
+    }
+
+    @Test
+    void testHandleCache() {
+        Clothing first = testWardrobe.getAllClothes().get(0);
+        assertSame(first, testWardrobe.getAllClothes().get(0));
+        testWardrobe.getAllClothes().get(1);
+        testWardrobe.getAllClothes().get(2);
+        Clothing again = testWardrobe.getAllClothes().get(0);
+        assertNotSame(first, again);
+        assertEquals(first, again);
+        assertEquals(first.hashCode(), top1.hashCode());
+    }
+
+    @Test
+    void testFilterAll() {
+        assertEquals(Arrays.asList(top1,top2),
+                testWardrobe.filterAll("fit", "tight", testWardrobe.getTops()));
+        assertEquals(Arrays.asList(top1,top2,jacket1),
+                testWardrobe.filterAll("fit", "tight", testWardrobe.getAllClothes()));
+        assertEquals(Collections.emptyList(),
+                testWardrobe.filterAll("colour", "no such colour", testWardrobe.getAllClothes()));
+
+        List<Clothing> elegant = testWardrobe.filterAll("mood", "elegant", testWardrobe.getAllClothes());
+        assertEquals(Arrays.asList(bottom1,top2), elegant);
+        assertEquals(Arrays.asList(top2), testWardrobe.filterAll("fit", "tight", elegant));
+    }
+
+    @Test
+    void testQuery() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        assertEquals(testWardrobe.getAllClothes(), testWardrobe.query(criteria));
+        criteria.put("fit", "tight");
+        criteria.put("dress code", "casual");
+        assertEquals(Arrays.asList(top1,top2,jacket1), testWardrobe.query(criteria));
+        criteria.put("mood", "elegant");
+        assertEquals(Arrays.asList(top2), testWardrobe.query(criteria));
+    }
+
+    @Test
+    void testFilter() {
+        assertEquals(Arrays.asList(top1,jacket1),
+                testWardrobe.filter(is("fit", "tight").and(not(is("mood", "elegant")))));
+        assertEquals(Arrays.asList(bottom1,accessory1),
+                testWardrobe.filter(is("colour", "blue").or(is("colour", "silver"))));
+    }
+
+    @Test
+    void testConcurrentReads() throws InterruptedException {
+        List<Clothing> expected = Arrays.asList(top1, bottom1, top2, jacket1, accessory1);
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> readMany(expected, failures));
+            readers.add(reader);
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertTrue(failures.isEmpty(), failures.toString());
+    }
+
+    // MODIFIES: failures
+    // EFFECTS: reads every item and the type views of testWardrobe many times,
+    //          adding what went wrong to failures
+    private void readMany(List<Clothing> expected, List<String> failures) {
+        try {
+            for (int i = 0; i < 20000; i++) {
+                Clothing c = testWardrobe.getAllClothes().get(i % expected.size());
+                if (!c.getId().equals(expected.get(i % expected.size()).getId())) {
+                    failures.add("item " + i + " was " + c.getId());
+                }
+                if (testWardrobe.getTops().size() != 2) {
+                    failures.add("tops " + testWardrobe.getTops().size());
+                }
+            }
+        } catch (RuntimeException e) {
+            failures.add(e.toString());
+        }
+    }
+
+    @Test
+    void testChangesMaterialise() {
+        Clothing shown = testWardrobe.getTops().get(0);
+        Clothing top3 = new Clothing("Striped tee","top","white","comfy","sporty","casual");
+        testWardrobe.addClothing(top3);
+        assertTrue(testWardrobe.isMaterialised());
+        assertEquals(1, testWardrobe.getModifications());
+        assertEquals(Arrays.asList(top1,top2,top3), testWardrobe.getTops());
+        assertSame(shown, testWardrobe.getTops().get(0));
+
+        testWardrobe.removeClothing("Farrah jeans");
+        testWardrobe.removeClothing(Arrays.asList("Bejeweled purse", "Striped tee"));
+        assertEquals(3, testWardrobe.getModifications());
+        assertEquals(Arrays.asList(top1,top2,jacket1), testWardrobe.getAllClothes());
+        assertEquals(Collections.emptyList(), testWardrobe.getBottoms());
+        assertEquals(Arrays.asList(top1,top2),
+                testWardrobe.filterAll("fit", "tight", testWardrobe.getTops()));
+        assertEquals(Arrays.asList(jacket1), testWardrobe.filter(is("colour", "beige")));
+    }
+
+    // Represents a source over a list of clothing that counts the fields read
+    private static class ListSource implements ClothingSource {
+        private final List<Clothing> items;
+        private int reads;
+
+        // EFFECTS: constructs a source of items
+        private ListSource(List<Clothing> items) {
+            this.items = items;
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        public String field(int ordinal, int field) {
+            reads++;
+            Clothing c = items.get(ordinal);
+            switch (field) {
+                case ID: return c.getId();
+                case TYPE: return c.getType();
+                case COLOUR: return c.getColour();
+                case FIT: return c.getFit();
+                case MOOD: return c.getMood();
+                default: return c.getDressCode();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void testWardrobeOperationsAreTimed() {
+        Metrics metrics = Metrics.getInstance();
+        long added = metrics.latency("wardrobe.addClothing").getCount();
+        long removed = metrics.latency("wardrobe.removeClothing").getCount();
+        long queried = metrics.latency("wardrobe.query").getCount();
+        long filtered = metrics.latency("wardrobe.filterAll").getCount();
+
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(new Clothing("Y2K fairy blouse", "top", "green", "tight", "whimsical", "casual"));
+        wd.addClothing(new Clothing("mom jeans", "bottom", "blue", "baggy", "vintage", "casual"));
+        Map<String, String> criteria = new HashMap<>();
+        criteria.put("colour", "green");
+        wd.query(criteria);
+        wd.filterAll("fit", "baggy", wd.getBottoms());
+        wd.removeClothing(Arrays.asList("mom jeans"));
+
+        assertEquals(added + 2, metrics.latency("wardrobe.addClothing").getCount());
+        assertEquals(removed + 1, metrics.latency("wardrobe.removeClothing").getCount());
+        assertEquals(queried + 1, metrics.latency("wardrobe.query").getCount());
+        assertEquals(filtered + 1, metrics.latency("wardrobe.filterAll").getCount());
+        assertEquals(added + 2, metrics.getCounters().get("wardrobe.addClothing.count"));
+        assertTrue(metrics.getLatencies().containsKey("wardrobe.query.p99"));
+    }
+
+    @Test
+    void testGauges() {
+        Metrics metrics = Metrics.getInstance();
+        Wardrobe wd = new ConcurrentWardrobe();
+        metrics.watch(wd);
+        wd.addClothing(new Clothing("Y2K fairy blouse", "top", "green", "tight", "whimsical", "casual"));
+
+        Map<String, Long> gauges = metrics.getGauges();
+        assertEquals(1, gauges.get("wardrobe.allClothes"));
+        assertEquals(1, gauges.get("wardrobe.tops"));
+        assertEquals(0, gauges.get("wardrobe.bottoms"));
+        assertEquals(EventLog.getInstance().size(), gauges.get("eventlog.depth"));
+
+        metrics.gauge("test.constant", () -> 42);
+        assertEquals(42, metrics.getGauges().get("test.constant"));
+    }
+
+    @Test
+    void testRegisteredOverJmx() throws Exception {
+        Metrics metrics = Metrics.getInstance();
+        metrics.latency("test.jmx").record(100);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        String dump = (String) server.invoke(name, "dump", null, null);
+        assertTrue(dump.contains("test.jmx.count 1\n"));
+    }
+
+    @Test
+    void testDumpTo() throws Exception {
+        Metrics metrics = Metrics.getInstance();
+        metrics.latency("test.dump").record(7);
+        File file = File.createTempFile("metrics", ".txt");
+        try {
+            metrics.dumpTo(file.getPath());
+            String dump = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            assertTrue(dump.contains("test.dump.count 1\n"));
+            assertTrue(dump.contains("test.dump.max 7\n"));
+            assertTrue(dump.contains("eventlog.depth "));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutfitGeneratorTest {
+    private Wardrobe testWardrobe;
+
+    private Clothing top1;
+    private Clothing top2;
+    private Clothing bottom1;
+    private Clothing bottom2;
+    private Clothing jacket1;
+    private Clothing accessory1;
+
+    @BeforeEach
+    void setUp() {
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        top2 = new Clothing("Silk camisole","top","black","tight",
+                "elegant","formal");
+        bottom1 = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","casual");
+        bottom2 = new Clothing("Pencil skirt","bottom","black","tight",
+                "elegant","formal");
+        jacket1 = new Clothing("Mom's leather jacket","jacket","beige","tight",
+                "cool","casual");
+        accessory1 = new Clothing("Plaid beret","accessory","brown","comfy",
+                "chic","casual");
+
+        testWardrobe = new Wardrobe();
+    }
+
+    @Test
+    void testNoTops() {
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(jacket1);
+        assertEquals(0,testWardrobe.outfits().count());
+    }
+
+    @Test
+    void testOutfitsSameDressCode() {
+        for (Clothing c : Arrays.asList(top1,top2,bottom1,bottom2,jacket1,accessory1)) {
+            testWardrobe.addClothing(c);
+        }
+
+        List<Outfit> outfits = testWardrobe.outfits().collect(Collectors.toList());
+        assertEquals(5,outfits.size());
+        assertEquals(Arrays.asList(top1,bottom1),outfits.get(0).getPieces());
+        assertEquals(Arrays.asList(top1,bottom1,accessory1),outfits.get(1).getPieces());
+        assertEquals(Arrays.asList(top1,bottom1,jacket1),outfits.get(2).getPieces());
+        assertEquals(Arrays.asList(top1,bottom1,jacket1,accessory1),outfits.get(3).getPieces());
+        assertEquals(Arrays.asList(top2,bottom2),outfits.get(4).getPieces());
+        assertNull(outfits.get(4).getJacket());
+        assertNull(outfits.get(4).getAccessory());
+    }
+
+    @Test
+    void testOutfitsAnythingGoes() {
+        for (Clothing c : Arrays.asList(top1,top2,bottom1,bottom2,jacket1,accessory1)) {
+            testWardrobe.addClothing(c);
+        }
+
+        assertEquals(2 * 2 * 2 * 2,testWardrobe.outfits((c1, c2) -> true).count());
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        for (int i = 0; i < 30; i++) {
+            String dressCode = i % 3 == 0 ? "casual" : "formal";
+            testWardrobe.addClothing(new Clothing("Top " + i,"top","white","comfy",
+                    "plain",dressCode));
+            testWardrobe.addClothing(new Clothing("Bottom " + i,"bottom","blue","comfy",
+                    "plain",dressCode));
+            testWardrobe.addClothing(new Clothing("Jacket " + i,"jacket","black","comfy",
+                    "plain",dressCode));
+        }
+
+        List<String> sequential = testWardrobe.outfits().map(o -> o.getPieces().toString())
+                .collect(Collectors.toList());
+        List<String> parallel = testWardrobe.outfits().parallel()
+                .map(o -> o.getPieces().toString()).collect(Collectors.toList());
+        assertEquals(10 * 10 * 11 + 20 * 20 * 21,sequential.size());
+        assertEquals(sequential,parallel);
+    }
+
+    @Test
+    void testSplit() {
+        OutfitGenerator generator = new OutfitGenerator(Arrays.asList(top1,top2),
+                Arrays.asList(bottom1,bottom2),Collections.emptyList(),
+                Collections.emptyList(),(c1, c2) -> true);
+        assertEquals(4,generator.estimateSize());
+
+        Spliterator<Outfit> prefix = generator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(2,generator.estimateSize());
+        assertEquals(2,prefix.estimateSize());
+        assertTrue(generator.tryAdvance(o -> assertEquals(top2,o.getTop())));
+
+        assertTrue(prefix.tryAdvance(o -> assertEquals(bottom1,o.getBottom())));
+        Spliterator<Outfit> firstPair = prefix.trySplit();
+        assertNotNull(firstPair);
+        assertNull(firstPair.trySplit());
+        assertFalse(firstPair.tryAdvance(o -> fail("first pair is already used up")));
+        assertTrue(prefix.tryAdvance(o -> assertEquals(bottom2,o.getBottom())));
+        assertFalse(prefix.tryAdvance(o -> fail("no more pairs")));
+    }
+}
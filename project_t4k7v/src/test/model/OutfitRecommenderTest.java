@@ -0,0 +1,145 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutfitRecommenderTest {
+    private Wardrobe testWardrobe;
+    private OutfitRecommender testRecommender;
+
+    private Clothing top1;
+    private Clothing top2;
+    private Clothing bottom1;
+    private Clothing bottom2;
+    private Clothing jacket1;
+
+    @BeforeEach
+    void setUp() {
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        top2 = new Clothing("Black tee","top","black","comfy",
+                "sporty","casual");
+        bottom1 = new Clothing("Green cargos","bottom","green","baggy",
+                "whimsical","casual");
+        bottom2 = new Clothing("Pencil skirt","bottom","black","tight",
+                "elegant","formal");
+        jacket1 = new Clothing("Moss cardigan","jacket","green","comfy",
+                "whimsical","casual");
+
+        testWardrobe = new Wardrobe();
+        for (Clothing c : Arrays.asList(top1,top2,bottom1,bottom2,jacket1)) {
+            testWardrobe.addClothing(c);
+        }
+        testRecommender = new OutfitRecommender("green","whimsical","casual");
+    }
+
+    @Test
+    void testScore() {
+        assertEquals(3 * 5 + 3,testRecommender.score(new Outfit(top1,bottom1,jacket1,null)));
+        assertEquals(2 + 5,testRecommender.score(new Outfit(top2,bottom1,null,null)));
+        assertEquals(2 + 1,testRecommender.score(new Outfit(top2,bottom2,null,null)));
+    }
+
+    @Test
+    void testScoreUnknownPreferences() {
+        OutfitRecommender recommender = new OutfitRecommender("no such colour",null,"casual");
+        assertEquals(2 + 2 + 1,recommender.score(new Outfit(top1,bottom1,null,null)));
+    }
+
+    @Test
+    void testRecommend() {
+        List<OutfitRecommender.Recommendation> best = testRecommender.recommend(testWardrobe,2);
+        assertEquals(2,best.size());
+        assertEquals(Arrays.asList(top1,bottom1,jacket1),best.get(0).getOutfit().getPieces());
+        assertEquals(18,best.get(0).getScore());
+        assertEquals(Arrays.asList(top2,bottom1,jacket1),best.get(1).getOutfit().getPieces());
+        assertEquals(13,best.get(1).getScore());
+    }
+
+    @Test
+    void testRecommendMoreThanAvailable() {
+        List<OutfitRecommender.Recommendation> best = testRecommender.recommend(testWardrobe,10);
+        assertEquals(4,best.size());
+        assertEquals(Arrays.asList(top2,bottom1),best.get(3).getOutfit().getPieces());
+        assertEquals(0,testRecommender.recommend(testWardrobe,0).size());
+    }
+
+    @Test
+    void testRecommendLargeWardrobe() {
+        for (int i = 0; i < 40; i++) {
+            testWardrobe.addClothing(new Clothing("Top " + i,"top","white","comfy",
+                    "plain","casual"));
+            testWardrobe.addClothing(new Clothing("Bottom " + i,"bottom","blue","comfy",
+                    "plain","casual"));
+        }
+
+        List<OutfitRecommender.Recommendation> best = testRecommender.recommend(testWardrobe,3);
+        assertEquals(3,best.size());
+        assertEquals(Arrays.asList(top1,bottom1,jacket1),best.get(0).getOutfit().getPieces());
+        assertTrue(best.get(1).getScore() >= best.get(2).getScore());
+    }
+
+    @Test
+    void testRecommendMatchesExhaustiveSearch() {
+        String[] colours = {"green","black","blue"};
+        String[] moods = {"whimsical","sporty"};
+        String[] dressCodes = {"casual","formal"};
+        String[] types = {"top","bottom","jacket","accessory"};
+        for (int i = 0; i < 48; i++) {
+            testWardrobe.addClothing(new Clothing("Piece " + i,types[i % 4],colours[i % 3],"comfy",
+                    moods[i % 5 % 2],dressCodes[i % 7 % 2]));
+        }
+
+        List<OutfitRecommender.Recommendation> best = testRecommender.recommend(testWardrobe,5);
+        List<Outfit> all = testWardrobe.outfits().collect(Collectors.toList());
+        all.sort(Comparator.comparingInt((Outfit o) -> -testRecommender.score(o)).thenComparing(this::keyOf));
+        assertEquals(5,best.size());
+        for (int i = 0; i < best.size(); i++) {
+            assertEquals(all.get(i).getPieces(),best.get(i).getOutfit().getPieces());
+            assertEquals(testRecommender.score(all.get(i)),best.get(i).getScore());
+        }
+    }
+
+    @Test
+    void testRecommendFromCandidates() {
+        for (int i = 0; i < 3 * OutfitRecommender.CANDIDATES_PER_SLOT; i++) {
+            testWardrobe.addClothing(new Clothing("Top " + i,"top","white","comfy",
+                    "plain","casual"));
+        }
+        Clothing best = new Clothing("Green top","top","green","comfy","whimsical","casual");
+        testWardrobe.addClothing(best);
+
+        OutfitRecommender.Candidates candidates = testRecommender.candidates(testWardrobe);
+        testWardrobe.removeClothing("Green top");
+        List<OutfitRecommender.Recommendation> recs = testRecommender.recommend(candidates,1);
+        assertEquals(Arrays.asList(best,bottom1,jacket1),recs.get(0).getOutfit().getPieces());
+    }
+
+    @Test
+    void testRecommendDressCodeLeftOutOfBestPieces() {
+        Wardrobe wd = new Wardrobe();
+        for (int i = 0; i < OutfitRecommender.CANDIDATES_PER_SLOT; i++) {
+            wd.addClothing(new Clothing("Top " + i,"top","green","comfy","whimsical","formal"));
+        }
+        Clothing top = new Clothing("Tux shirt","top","green","tight","whimsical","black tie");
+        Clothing bottom = new Clothing("Tux pants","bottom","black","tight","plain","black tie");
+        wd.addClothing(top);
+        wd.addClothing(bottom);
+
+        List<OutfitRecommender.Recommendation> recs = testRecommender.recommend(wd,5);
+        assertEquals(1,recs.size());
+        assertEquals(Arrays.asList(top,bottom),recs.get(0).getOutfit().getPieces());
+    }
+
+    // EFFECTS: returns the IDs of the pieces of outfit, separated by " + "
+    private String keyOf(Outfit outfit) {
+        return outfit.getPieces().stream().map(Clothing::getId).collect(Collectors.joining(" + "));
+    }
+}
@@ -3,9 +3,17 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class WardrobeTest {
     private Wardrobe testWardrobe;
@@ -239,6 +247,18 @@ class WardrobeTest {
         assertEquals(4,testWardrobe.getAllClothes().size());
     }
 
+    @Test
+    void testRemoveNotThereIsNotAChange() {
+        testWardrobe.addClothing(top2);
+        testWardrobe.markSaved(1);
+        int modifications = testWardrobe.getModifications();
+
+        testWardrobe.removeClothing("Fuzzy sweater");
+        testWardrobe.removeClothing(Arrays.asList("Fuzzy sweater", "Mystery hat"));
+        assertEquals(modifications, testWardrobe.getModifications());
+        assertFalse(testWardrobe.isDirty());
+    }
+
     @Test
     void testFilterAllColour() {
         testWardrobe.addClothing(jacket2);
@@ -389,4 +409,172 @@ class WardrobeTest {
         assertEquals(accessory1,testList.get(0));
         assertEquals(c1,testList.get(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFilterAllAfterRemove() {
+        testWardrobe.addClothing(jacket2);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(accessory2);
+        testWardrobe.removeClothing("Tweed blazer");
+
+        List<Clothing> testList = testWardrobe.filterAll("colour","brown",
+                testWardrobe.getAllClothes());
+        assertEquals(1,testList.size());
+        assertEquals(accessory2,testList.get(0));
+
+        testWardrobe.removeClothing("Plaid beret");
+        assertEquals(0,testWardrobe.filterAll("colour","brown",
+                testWardrobe.getAllClothes()).size());
+    }
+
+    @Test
+    void testFilterAllNoSuchValue() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+
+        List<Clothing> testList = testWardrobe.filterAll("mood","gothic",
+                testWardrobe.getAllClothes());
+        assertEquals(0,testList.size());
+    }
+
+    @Test
+    void testFilterAllChained() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(bottom2);
+        testWardrobe.addClothing(jacket1);
+
+        List<Clothing> testList = testWardrobe.filterAll("fit","tight",
+                testWardrobe.getAllClothes());
+        testList = testWardrobe.filterAll("dress code","casual",testList);
+        testList = testWardrobe.filterAll("colour","black",testList);
+        assertEquals(1,testList.size());
+        assertEquals(top2,testList.get(0));
+    }
+
+    @Test
+    void testRemoveClothingBulk() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(jacket1);
+        testWardrobe.addClothing(accessory1);
+        testWardrobe.addClothing(top2);
+        List<Clothing> testAllClothes = testWardrobe.getAllClothes();
+
+        testWardrobe.removeClothing(Arrays.asList("Y2K fairy blouse","Mom's leather jacket",
+                "Fuzzy sweater"));
+        assertEquals(3,testAllClothes.size());
+        assertEquals(bottom1,testAllClothes.get(0));
+        assertEquals(accessory1,testAllClothes.get(1));
+        assertEquals(top2,testAllClothes.get(2));
+        assertEquals(1,testWardrobe.getTops().size());
+        assertEquals(top2,testWardrobe.getTops().get(0));
+        assertEquals(0,testWardrobe.getJackets().size());
+        assertEquals(1,testWardrobe.filterAll("fit","tight",testAllClothes).size());
+    }
+
+    @Test
+    void testRemoveClothingThenAddAgain() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.removeClothing("Y2K fairy blouse");
+        testWardrobe.addClothing(top1);
+
+        List<Clothing> testTops = testWardrobe.getTops();
+        assertEquals(2,testTops.size());
+        assertEquals(top2,testTops.get(0));
+        assertEquals(top1,testTops.get(1));
+        assertEquals(2,testWardrobe.filterAll("fit","tight",testTops).size());
+    }
+
+    @Test
+    void testRemoveWhileIterating() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(top2);
+
+        assertThrows(ConcurrentModificationException.class, () -> {
+            for (Clothing c : testWardrobe.getAllClothes()) {
+                testWardrobe.removeClothing(c.getId());
+            }
+        });
+        assertEquals(2,testWardrobe.getAllClothes().size());
+        assertEquals(bottom1,testWardrobe.getAllClothes().get(0));
+        assertEquals(top2,testWardrobe.getAllClothes().get(1));
+    }
+
+    @Test
+    void testQuery() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(top2);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(bottom2);
+        testWardrobe.addClothing(jacket1);
+
+        Map<String, String> criteria = new LinkedHashMap<>();
+        criteria.put("fit","tight");
+        criteria.put("dress code","casual");
+        List<Clothing> testList = testWardrobe.query(criteria);
+        assertEquals(Arrays.asList(top1,top2,jacket1),testList);
+
+        criteria.put("colour","black");
+        assertEquals(Arrays.asList(top2),testWardrobe.query(criteria));
+    }
+
+    @Test
+    void testQueryNoMatches() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+
+        Map<String, String> criteria = new HashMap<>();
+        criteria.put("colour","green");
+        criteria.put("mood","elegant");
+        assertEquals(0,testWardrobe.query(criteria).size());
+
+        criteria.put("mood","gothic");
+        assertEquals(0,testWardrobe.query(criteria).size());
+    }
+
+    @Test
+    void testQueryNoCriteria() {
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+
+        assertEquals(Arrays.asList(top1,bottom1),testWardrobe.query(new HashMap<>()));
+    }
+
+    @Test
+    void testQueryAfterRemove() {
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.addClothing(bottom2);
+        testWardrobe.removeClothing("Farrah jeans");
+
+        Map<String, String> criteria = new HashMap<>();
+        criteria.put("colour","blue");
+        criteria.put("dress code","business casual");
+        assertEquals(Arrays.asList(bottom2),testWardrobe.query(criteria));
+    }
+
+    @Test
+    void testUnsavedChanges() {
+        assertFalse(testWardrobe.isDirty());
+        testWardrobe.addClothing(top1);
+        testWardrobe.addClothing(bottom1);
+        testWardrobe.filterAll("colour","green",testWardrobe.getAllClothes());
+        testWardrobe.removeClothing("Farrah jeans");
+        assertTrue(testWardrobe.isDirty());
+
+        List<Event> changes = testWardrobe.getUnsavedChanges();
+        assertEquals(3,changes.size());
+        assertEquals(Event.Operation.ADDED,changes.get(0).getOperation());
+        assertEquals(top1,changes.get(0).getItem());
+        assertEquals(Event.Operation.REMOVED,changes.get(2).getOperation());
+        assertEquals("Farrah jeans",changes.get(2).getItemId());
+
+        testWardrobe.markSaved(2);
+        assertEquals(1,testWardrobe.getUnsavedChanges().size());
+        testWardrobe.markSaved(1);
+        assertFalse(testWardrobe.isDirty());
+    }
+}
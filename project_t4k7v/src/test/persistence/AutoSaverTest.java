@@ -0,0 +1,211 @@
+package persistence;
+
+import model.Clothing;
+import model.ConcurrentWardrobe;
+import model.Wardrobe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoSaverTest extends JsonTest {
+    private File directory;
+    private String path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("autosave").toFile();
+        path = new File(directory, "wardrobe.json").getPath();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (File f : directory.listFiles()) {
+            assertTrue(f.delete());
+        }
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    void testBurstSavedOnce() throws IOException, InterruptedException {
+        AutoSaver saver = new AutoSaver(new DeltaStore(StoreFormat.JSON, path), 500, 60000);
+        Wardrobe wd = new ConcurrentWardrobe();
+        saver.watch(wd);
+        for (int i = 0; i < 100; i++) {
+            wd.addClothing(item(i));
+        }
+        wd.removeClothing("item 0");
+
+        waitForSaves(saver, 1);
+        assertFalse(wd.isDirty());
+        assertFalse(new File(path + ".tmp").exists());
+        assertEquals(99, new JsonReader(path).read().getAllClothes().size());
+
+        wd.addClothing(item(100));
+        waitForSaves(saver, 2);
+        saver.close();
+        assertEquals(2, saver.getSaves());
+        assertEquals(100, new DeltaStore(StoreFormat.JSON, path).read().getAllClothes().size());
+    }
+
+    @Test
+    void testMaxDelay() throws IOException, InterruptedException {
+        AutoSaver saver = new AutoSaver(new DeltaStore(StoreFormat.JSON, path), 60000, 100);
+        Wardrobe wd = new ConcurrentWardrobe();
+        saver.watch(wd);
+        wd.addClothing(item(0));
+        waitForSaves(saver, 1);
+        assertEquals(1, new JsonReader(path).read().getAllClothes().size());
+        saver.close();
+    }
+
+    @Test
+    void testCloseSavesPending() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        AutoSaver saver = new AutoSaver(store, 60000, 60000);
+        Wardrobe wd = new ConcurrentWardrobe();
+        saver.watch(wd);
+        saver.saveSoon();
+        saver.close();
+        assertTrue(new File(path).exists());
+
+        Wardrobe read = store.readInto(new ConcurrentWardrobe());
+        AutoSaver reopened = new AutoSaver(store, 60000, 60000);
+        reopened.watch(read);
+        read.addClothing(item(1));
+        read.addClothing(item(2));
+        reopened.close();
+        assertEquals(1, reopened.getSaves());
+        assertEquals(2, store.getDeltaChanges());
+        assertEquals(2, new DeltaStore(StoreFormat.JSON, path).read().getAllClothes().size());
+    }
+
+    @Test
+    void testWatchAnotherWardrobe() throws IOException, InterruptedException {
+        AutoSaver saver = new AutoSaver(new DeltaStore(StoreFormat.JSON, path), 0, 0);
+        Wardrobe first = new ConcurrentWardrobe();
+        saver.watch(first);
+        Wardrobe second = new ConcurrentWardrobe();
+        second.addClothing(item(0));
+        saver.watch(second);
+        waitForSaves(saver, 1);
+
+        first.addClothing(item(1));
+        saver.close();
+        assertEquals(1, saver.getSaves());
+        assertTrue(first.isDirty());
+        checkClothing(new JsonReader(path).read().getAllClothes().get(0), "item 0", "top", "blue",
+                "comfy", "sporty", "casual");
+    }
+
+    @Test
+    void testFailureThrownByClose() {
+        AutoSaver saver = new AutoSaver(new DeltaStore(StoreFormat.JSON,
+                new File(directory, "missing/wardrobe.json").getPath()), 0, 0);
+        Wardrobe wd = new ConcurrentWardrobe();
+        saver.watch(wd);
+        wd.addClothing(item(0));
+        assertThrows(IOException.class, saver::close);
+    }
+
+    @Test
+    void testFailureReported() throws InterruptedException {
+        AutoSaver saver = new AutoSaver(new DeltaStore(StoreFormat.JSON,
+                new File(directory, "missing/wardrobe.json").getPath()), 0, 0);
+        List<IOException> failures = new CopyOnWriteArrayList<>();
+        saver.addFailureListener(failures::add);
+        Wardrobe wd = new Wardrobe();
+        saver.watch(wd);
+        wd.addClothing(item(0));
+        for (int i = 0; i < 1000 && failures.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(3 * AutoSaver.MIN_RETRY_MILLIS);
+        assertEquals(1, failures.size());
+        assertEquals(0, saver.getSaves());
+        assertTrue(wd.isDirty());
+        assertThrows(IOException.class, saver::close);
+    }
+
+    @Test
+    void testRetryAfterFailure() throws InterruptedException {
+        AutoSaver saver = new AutoSaver(failingOnce(new DeltaStore(StoreFormat.JSON, path)), 0, 0);
+        List<IOException> failures = new CopyOnWriteArrayList<>();
+        saver.addFailureListener(failures::add);
+        Wardrobe wd = new Wardrobe();
+        saver.watch(wd);
+        wd.addClothing(item(0));
+
+        waitForSaves(saver, 1);
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0).getCause() instanceof IllegalStateException);
+        assertFalse(wd.isDirty());
+        assertThrows(IOException.class, saver::close);
+    }
+
+    @Test
+    void testIndexedWardrobeSavedWhileChanged() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path, 10);
+        AutoSaver saver = new AutoSaver(store, 0, 0);
+        Wardrobe wd = new Wardrobe();
+        saver.watch(wd);
+        for (int i = 0; i < 1000; i++) {
+            wd.addClothing(item(i));
+            if (i % 3 == 0) {
+                wd.removeClothing("item " + (i / 3));
+            }
+        }
+        saver.close();
+        store.awaitCompaction();
+        assertFalse(wd.isDirty());
+        Wardrobe read = new DeltaStore(StoreFormat.JSON, path).read();
+        assertEquals(wd.getAllClothes().size(), read.getAllClothes().size());
+        assertEquals(wd.getTops().size(), read.getTops().size());
+    }
+
+    // EFFECTS: returns a writer through writer whose first open throws
+    //          IllegalStateException
+    private WardrobeWriter failingOnce(WardrobeWriter writer) {
+        boolean[] broken = {true};
+        return new WardrobeWriter() {
+            @Override
+            public void open() throws IOException {
+                if (broken[0]) {
+                    broken[0] = false;
+                    throw new IllegalStateException("broken");
+                }
+                writer.open();
+            }
+
+            @Override
+            public void write(Wardrobe wd) throws IOException {
+                writer.write(wd);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.close();
+            }
+        };
+    }
+
+    // EFFECTS: returns a top named after i
+    private Clothing item(int i) {
+        return new Clothing("item " + i, "top", "blue", "comfy", "sporty", "casual");
+    }
+
+    // EFFECTS: waits up to 10 seconds for saver to have written n saves
+    private void waitForSaves(AutoSaver saver, long n) throws InterruptedException {
+        for (int i = 0; i < 1000 && saver.getSaves() < n; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(n, saver.getSaves());
+    }
+}
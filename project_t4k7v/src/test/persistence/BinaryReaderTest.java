@@ -0,0 +1,127 @@
+package persistence;
+
+import model.Clothing;
+import model.MappedClothing;
+import model.MappedWardrobe;
+import model.Wardrobe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryReaderTest extends JsonTest {
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("wardrobe", ".bin");
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertTrue(file.delete());
+    }
+
+    @Test
+    void testReaderNonExistentFile() {
+        assertThrows(IOException.class, () -> new BinaryReader("./data/noSuchFile.bin").read());
+    }
+
+    @Test
+    void testReaderNotBinary() throws IOException {
+        Files.write(file.toPath(), "{\"allClothes\": []}".getBytes());
+        assertThrows(IOException.class, () -> new BinaryReader(file.getPath()).read());
+    }
+
+    @Test
+    void testReaderBadVersion() throws IOException {
+        byte[] bytes = written();
+        ByteBuffer.wrap(bytes).putInt(Integer.BYTES, BinaryWriter.FORMAT_VERSION + 1);
+        Files.write(file.toPath(), bytes);
+        assertThrows(IOException.class, () -> new BinaryReader(file.getPath()).read());
+    }
+
+    @Test
+    void testReaderTruncated() throws IOException {
+        byte[] bytes = written();
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 10));
+        assertThrows(IOException.class, () -> new BinaryReader(file.getPath()).read());
+    }
+
+    @Test
+    void testReaderMapped() throws IOException {
+        written();
+        MappedWardrobe wd = new BinaryReader(file.getPath(), true).readMapped();
+        assertEquals(1, wd.getAllClothes().size());
+        assertTrue(wd.getAllClothes().get(0) instanceof MappedClothing);
+        checkClothing(wd.getAccessories().get(0), "Plaid beret","accessory","brown","comfy","chic","cocktail");
+        assertEquals(wd.getAccessories(), wd.filterAll("fit", "comfy", wd.getAllClothes()));
+
+        BinaryWriter writer = new BinaryWriter(file.getPath());
+        writer.open();
+        writer.write(wd);
+        writer.close();
+        assertEquals("Plaid beret", wd.getAllClothes().get(0).getId());
+        assertEquals(wd.getAllClothes(), new BinaryReader(file.getPath(), true).read().getAllClothes());
+    }
+
+    @Test
+    void testReaderMappedTruncated() throws IOException {
+        byte[] bytes = written();
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 10));
+        Wardrobe wd = new BinaryReader(file.getPath(), true).read();
+        assertThrows(IllegalStateException.class, () -> wd.getAllClothes().get(0).getDressCode());
+
+        Files.write(file.toPath(), Arrays.copyOf(bytes, BinaryWriter.HEADER_SIZE - 1));
+        assertThrows(IOException.class, () -> new BinaryReader(file.getPath(), true).read());
+    }
+
+    @Test
+    void testStoreFormat() {
+        assertEquals(StoreFormat.JSON, StoreFormat.fromProperty());
+        assertEquals(".bin", StoreFormat.BINARY.getExtension());
+        assertTrue(StoreFormat.BINARY.readerFor("x.bin") instanceof BinaryReader);
+        assertTrue(StoreFormat.BINARY.writerFor("x.bin") instanceof BinaryWriter);
+        assertTrue(StoreFormat.JSON.readerFor("x.json") instanceof JsonReader);
+        assertTrue(StoreFormat.JSON.writerFor("x.json") instanceof JsonWriter);
+        assertEquals(".bin", StoreFormat.MAPPED.getExtension());
+        assertTrue(StoreFormat.MAPPED.readerFor("x.bin") instanceof BinaryReader);
+        assertTrue(StoreFormat.MAPPED.writerFor("x.bin") instanceof BinaryWriter);
+    }
+
+    @Test
+    void testStoreFormatFromProperty() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            System.setProperty(StoreFormat.PROPERTY, "binary");
+            assertEquals(StoreFormat.BINARY, StoreFormat.fromProperty());
+            System.setProperty(StoreFormat.PROPERTY, " Mapped ");
+            assertEquals(StoreFormat.MAPPED, StoreFormat.fromProperty());
+            System.setProperty(StoreFormat.PROPERTY, "yaml");
+            assertEquals(StoreFormat.JSON, StoreFormat.fromProperty());
+        } finally {
+            Locale.setDefault(locale);
+            System.clearProperty(StoreFormat.PROPERTY);
+        }
+    }
+
+    // EFFECTS: returns the bytes of a one-item wardrobe written to file
+    private byte[] written() throws IOException {
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(new Clothing("Plaid beret","accessory","brown","comfy","chic","cocktail"));
+        BinaryWriter writer = new BinaryWriter(file.getPath());
+        writer.open();
+        writer.write(wd);
+        writer.close();
+        return Files.readAllBytes(file.toPath());
+    }
+}
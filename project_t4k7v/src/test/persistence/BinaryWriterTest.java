@@ -0,0 +1,110 @@
+package persistence;
+
+import model.Clothing;
+import model.ColumnarWardrobe;
+import model.Wardrobe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryWriterTest extends JsonTest {
+    private static final String NAME = "Caf" + (char) 0xe9 + " \"latte\" cardigan\n";
+    private File file;
+    private Wardrobe wd;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("wardrobe", ".bin");
+        wd = new Wardrobe();
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertTrue(file.delete());
+    }
+
+    @Test
+    void testWriterInvalidFile() {
+        BinaryWriter writer = new BinaryWriter("./data/my\0illegal:fileName.bin");
+        assertThrows(IOException.class, writer::open);
+    }
+
+    @Test
+    void testWriterEmptyWardrobe() throws IOException {
+        write();
+        assertEquals(BinaryWriter.HEADER_SIZE, file.length());
+        assertEquals(0, new BinaryReader(file.getPath()).read().getAllClothes().size());
+    }
+
+    @Test
+    void testWriterFilledWardrobe() throws IOException {
+        wd.addClothing(new Clothing("Y2K fairy blouse","top","green","tight","whimsical","casual"));
+        wd.addClothing(new Clothing("Tweed blazer","jacket","brown","baggy","academic","formal"));
+        wd.addClothing(new Clothing(NAME,"jacket","brown","comfy",
+                "academic","casual"));
+        write();
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        assertEquals(BinaryWriter.MAGIC, bytes.getInt(0));
+        assertEquals(14, bytes.getInt(2 * Integer.BYTES));
+        assertEquals(3, bytes.getInt(3 * Integer.BYTES));
+
+        Wardrobe read = new BinaryReader(file.getPath()).readInto(new ColumnarWardrobe());
+        assertEquals(3, read.getAllClothes().size());
+        checkClothing(read.getAllClothes().get(0), "Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        checkClothing(read.getAllClothes().get(1), "Tweed blazer","jacket","brown","baggy",
+                "academic","formal");
+        checkClothing(read.getAllClothes().get(2), NAME,"jacket","brown",
+                "comfy","academic","casual");
+        assertEquals(1, read.getTops().size());
+        assertEquals(2, read.getJackets().size());
+    }
+
+    @Test
+    void testWriterNullFields() throws IOException {
+        wd.addClothing(new Clothing("Plain tee","top",null,"comfy",null,"casual"));
+        wd.addClothing(new Clothing("Tweed blazer","jacket","brown","baggy","academic","formal"));
+        write();
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        assertEquals(10, bytes.getInt(2 * Integer.BYTES));
+        for (boolean mapped : new boolean[] {false, true}) {
+            Wardrobe read = new BinaryReader(file.getPath(), mapped).read();
+            checkClothing(read.getAllClothes().get(0), "Plain tee","top",null,"comfy",null,"casual");
+            checkClothing(read.getAllClothes().get(1), "Tweed blazer","jacket","brown","baggy",
+                    "academic","formal");
+            assertEquals(1, read.getTops().size());
+        }
+    }
+
+    @Test
+    void testWriterLargeWardrobe() throws IOException {
+        for (int i = 0; i < 5000; i++) {
+            wd.addClothing(new Clothing("item " + i, i % 2 == 0 ? "top" : "bottom", "blue", "comfy",
+                    "mood " + (i % 7), "casual"));
+        }
+        write();
+
+        Wardrobe read = new BinaryReader(file.getPath()).read();
+        assertEquals(5000, read.getAllClothes().size());
+        assertEquals(2500, read.getTops().size());
+        checkClothing(read.getAllClothes().get(4999), "item 4999","bottom","blue","comfy",
+                "mood 1","casual");
+    }
+
+    // EFFECTS: writes wd to file
+    private void write() throws IOException {
+        BinaryWriter writer = new BinaryWriter(file.getPath());
+        writer.open();
+        writer.write(wd);
+        writer.close();
+    }
+}
@@ -0,0 +1,278 @@
+package persistence;
+
+import model.Clothing;
+import model.Event;
+import model.EventLog;
+import model.Wardrobe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaStoreTest extends JsonTest {
+    private File directory;
+    private String path;
+    private File delta;
+
+    private Clothing top1;
+    private Clothing bottom1;
+    private Clothing jacket1;
+    private Clothing accessory1;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("delta").toFile();
+        path = new File(directory, "wardrobe.json").getPath();
+        delta = new File(path + ".delta");
+        top1 = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        bottom1 = new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+        jacket1 = new Clothing("Mom's leather jacket","jacket","beige","tight",
+                "cool","casual");
+        accessory1 = new Clothing("Bejeweled purse","accessory","silver","comfy",
+                "glam","black tie");
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (File f : directory.listFiles()) {
+            assertTrue(f.delete());
+        }
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    void testFirstSaveWritesFullFile() throws IOException {
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(top1);
+        save(new DeltaStore(StoreFormat.JSON, path), wd);
+
+        assertTrue(new File(path).exists());
+        assertFalse(delta.exists());
+        assertFalse(wd.isDirty());
+        assertEquals(Arrays.asList(top1), new JsonReader(path).read().getAllClothes());
+    }
+
+    @Test
+    void testSavesAppendOnlyChanges() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(top1);
+        wd.addClothing(bottom1);
+        save(store, wd);
+        long fullSize = new File(path).length();
+
+        wd.addClothing(jacket1);
+        wd.removeClothing("Farrah jeans");
+        save(store, wd);
+        save(store, wd);
+        wd.addClothing(accessory1);
+        save(store, wd);
+
+        assertEquals(fullSize, new File(path).length());
+        assertEquals(3, store.getDeltaChanges());
+        assertEquals(2, Files.readAllLines(delta.toPath()).stream()
+                .filter(line -> line.contains("commit")).count());
+
+        Wardrobe read = new DeltaStore(StoreFormat.JSON, path).read();
+        assertEquals(Arrays.asList(top1, jacket1, accessory1), read.getAllClothes());
+        assertEquals(Arrays.asList(jacket1), read.getJackets());
+        assertFalse(read.isDirty());
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.BINARY, path, 2);
+        Wardrobe wd = new Wardrobe();
+        save(store, wd);
+        wd.addClothing(top1);
+        wd.addClothing(bottom1);
+        save(store, wd);
+        assertEquals(2, store.getDeltaChanges());
+
+        wd.addClothing(jacket1);
+        save(store, wd);
+        assertEquals(3, store.getDeltaChanges());
+
+        wd.removeClothing("Farrah jeans");
+        save(store, wd);
+        store.awaitCompaction();
+        assertEquals(0, store.getDeltaChanges());
+        assertFalse(delta.exists());
+        assertEquals(Arrays.asList(top1, jacket1), new BinaryReader(path).read().getAllClothes());
+    }
+
+    @Test
+    void testCompactionFailure() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path, 0);
+        Wardrobe wd = new Wardrobe();
+        save(store, wd);
+        File next = new File(path + ".next");
+        assertTrue(next.mkdir());
+        wd.addClothing(top1);
+        wd.removeClothing("Y2K fairy blouse");
+        save(store, wd);
+        assertThrows(IOException.class, store::awaitCompaction);
+        assertFalse(wd.isDirty());
+        assertEquals(2, store.getDeltaChanges());
+
+        assertTrue(next.delete());
+        save(store, wd);
+        store.awaitCompaction();
+        assertEquals(0, store.getDeltaChanges());
+        assertFalse(delta.exists());
+        assertEquals(0, new DeltaStore(StoreFormat.JSON, path).read().getAllClothes().size());
+    }
+
+    @Test
+    void testChangeWhileCompacting() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        boolean[] armed = new boolean[1];
+        Wardrobe wd = new Wardrobe() {
+            @Override
+            public void holdChanges(Runnable action) {
+                super.holdChanges(action);
+                if (armed[0]) {
+                    armed[0] = false;
+                    addClothing(bottom1);   // as though made while the file is written
+                }
+            }
+        };
+        wd.addClothing(top1);
+        armed[0] = true;
+        save(store, wd);
+        assertEquals(Arrays.asList(top1), new JsonReader(path).read().getAllClothes());
+        assertTrue(wd.isDirty());
+        assertEquals(1, wd.getUnsavedChanges().size());
+
+        save(store, wd);
+        assertEquals(1, store.getDeltaChanges());
+        assertEquals(Arrays.asList(top1, bottom1), new DeltaStore(StoreFormat.JSON, path).read().getAllClothes());
+    }
+
+    @Test
+    void testReadThenSave() throws IOException {
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(top1);
+        save(new DeltaStore(StoreFormat.JSON, path), wd);
+
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        Wardrobe read = store.read();
+        read.addClothing(bottom1);
+        save(store, read);
+        assertEquals(1, store.getDeltaChanges());
+        assertEquals(Arrays.asList(top1, bottom1), new DeltaStore(StoreFormat.JSON, path)
+                .readInto(new Wardrobe()).getAllClothes());
+
+        save(store, new Wardrobe());
+        assertFalse(delta.exists());
+        assertEquals(0, new DeltaStore(StoreFormat.JSON, path).read().getAllClothes().size());
+    }
+
+    @Test
+    void testTornSegmentIgnored() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        Wardrobe wd = new Wardrobe();
+        save(store, wd);
+        wd.addClothing(top1);
+        save(store, wd);
+        Files.write(delta.toPath(), ("{\"op\":\"begin\"}\n{\"op\":\"remove\",\"id\":\"Y2K fairy blouse\"}\n"
+                + "{\"op\":\"add\",\"item\":{\"id\":\"cut").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        DeltaStore reopened = new DeltaStore(StoreFormat.JSON, path);
+        Wardrobe read = reopened.read();
+        assertEquals(Arrays.asList(top1), read.getAllClothes());
+        assertEquals(1, reopened.getDeltaChanges());
+
+        read.addClothing(bottom1);
+        save(reopened, read);
+        assertFalse(delta.exists());
+        assertEquals(Arrays.asList(top1, bottom1), new JsonReader(path).read().getAllClothes());
+    }
+
+    @Test
+    void testCrashBeforeDeltaDeleted() throws IOException {
+        Wardrobe wd = saveWithDelta();
+        writeNext(wd);
+
+        Wardrobe read = new DeltaStore(StoreFormat.JSON, path).read();
+        assertEquals(Arrays.asList(top1, bottom1), read.getAllClothes());
+        assertFalse(new File(path + ".next").exists());
+        assertTrue(delta.exists());
+    }
+
+    @Test
+    void testCrashAfterDeltaDeleted() throws IOException {
+        Wardrobe wd = saveWithDelta();
+        writeNext(wd);
+        assertTrue(delta.delete());
+
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        Wardrobe read = store.read();
+        assertEquals(Arrays.asList(top1, bottom1), read.getAllClothes());
+        assertEquals(0, store.getDeltaChanges());
+        assertFalse(new File(path + ".next").exists());
+        assertEquals(Arrays.asList(top1, bottom1), new JsonReader(path).read().getAllClothes());
+    }
+
+    @Test
+    void testReadLogsNothing() throws IOException {
+        saveWithDelta();
+        Wardrobe wd = new Wardrobe();
+        List<Event> heard = new ArrayList<>();
+        wd.addListener(heard::add);
+        long before = EventLog.getInstance().size();
+
+        new DeltaStore(StoreFormat.JSON, path).readInto(wd);
+        assertEquals(2, wd.getAllClothes().size());
+        assertTrue(heard.isEmpty());
+        assertFalse(wd.isDirty());
+        assertEquals(before, EventLog.getInstance().size());
+
+        wd.addClothing(jacket1);
+        assertEquals(1, heard.size());
+        assertTrue(wd.isDirty());
+    }
+
+    // EFFECTS: saves a wardrobe holding top1 to the full file, then adds
+    //          bottom1 to it and saves that to the delta; returns the wardrobe
+    private Wardrobe saveWithDelta() throws IOException {
+        DeltaStore store = new DeltaStore(StoreFormat.JSON, path);
+        Wardrobe wd = new Wardrobe();
+        wd.addClothing(top1);
+        save(store, wd);
+        wd.addClothing(bottom1);
+        save(store, wd);
+        assertEquals(1, store.getDeltaChanges());
+        return wd;
+    }
+
+    // EFFECTS: writes wd to the next full file, as compaction does before it
+    //          deletes the delta
+    private void writeNext(Wardrobe wd) throws IOException {
+        WardrobeWriter writer = StoreFormat.JSON.writerFor(path + ".next");
+        writer.open();
+        writer.write(wd);
+        writer.close();
+    }
+
+    // MODIFIES: wd
+    // EFFECTS: saves wd through store
+    private void save(DeltaStore store, Wardrobe wd) throws IOException {
+        store.open();
+        store.write(wd);
+        store.close();
+    }
+}
@@ -0,0 +1,174 @@
+package persistence;
+
+import model.Clothing;
+import model.Event;
+import model.EventLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.EventQueue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("events", ".log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    void testAppend() throws IOException {
+        EventJournal journal = new EventJournal(file.getPath());
+        journal.open();
+        Event added = new Event(Event.ITEM_ADDED);
+        journal.accept(added);
+        journal.accept(new Event("two\nlines"));
+        journal.close();
+
+        List<String> lines = lines();
+        assertEquals(2, lines.size());
+        assertEquals(added.getTime() + "\tOTHER\t-\t1\tClothing item added.", lines.get(0));
+        assertTrue(lines.get(1).endsWith("\tOTHER\t-\t1\ttwo\\nlines"));
+
+        journal.accept(new Event(Event.ITEM_REMOVED));
+        assertEquals(2, lines().size());
+    }
+
+    @Test
+    void testAppendOperationAndItem() throws IOException {
+        EventJournal journal = new EventJournal(file.getPath());
+        journal.open();
+        Clothing top = new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual");
+        Event added = new Event(Event.Operation.ADDED, top);
+        journal.accept(added);
+        journal.accept(new Event(Event.Operation.FILTERED));
+        journal.close();
+
+        List<String> lines = lines();
+        assertEquals(added.getTime() + "\tADDED\t" + top.getId() + "\t1\t" + Event.ITEM_ADDED, lines.get(0));
+        assertTrue(lines.get(1).endsWith("\tFILTERED\t-\t1\t" + Event.FILTERED));
+    }
+
+    @Test
+    void testWriterSurvivesBadBatch() throws IOException {
+        EventJournal journal = new EventJournal(file.getPath(), 2, 1);
+        journal.open();
+        journal.accept(new Event((String) null));
+        for (int i = 0; i < 100; i++) {
+            journal.accept(new Event("event " + i));
+        }
+        assertThrows(IOException.class, journal::close);
+
+        List<String> lines = lines();
+        assertEquals(100, lines.size());
+        assertTrue(lines.get(99).endsWith("\tevent 99"));
+        assertEquals(1, journal.getFailedBatches());
+        assertEquals(0, journal.getDropped());
+    }
+
+    @Test
+    void testAppendsToExistingFile() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            EventJournal journal = new EventJournal(file.getPath());
+            journal.open();
+            journal.accept(new Event("event " + i));
+            journal.close();
+        }
+        assertEquals(2, lines().size());
+    }
+
+    @Test
+    void testBatchesUnderBackpressure() throws IOException {
+        EventJournal journal = new EventJournal(file.getPath(), 4, 8);
+        journal.open();
+        for (int i = 0; i < 1000; i++) {
+            journal.accept(new Event("event " + i));
+        }
+        journal.close();
+
+        List<String> lines = lines();
+        assertEquals(1000, lines.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(lines.get(i).endsWith("\tevent " + i));
+        }
+        assertTrue(journal.getBatches() <= 1000);
+    }
+
+    @Test
+    void testNoWaitOnEventThread() throws Exception {
+        EventJournal journal = new EventJournal(file.getPath(), 1, 1);
+        long start = System.currentTimeMillis();
+        EventQueue.invokeAndWait(() -> {
+            for (int i = 0; i < 3; i++) {
+                journal.accept(new Event("event " + i));
+            }
+        });
+        assertTrue(System.currentTimeMillis() - start < EventJournal.OFFER_TIMEOUT_MILLIS);
+        assertEquals(2, journal.getDropped());
+    }
+
+    @Test
+    void testListener() throws IOException {
+        EventJournal journal = new EventJournal(file.getPath());
+        journal.open();
+        EventLog.getInstance().addListener(journal);
+        EventLog.getInstance().logEvent(new Event(Event.FILTERED));
+        EventLog.getInstance().removeListener(journal);
+        EventLog.getInstance().logEvent(new Event(Event.ITEM_ADDED));
+        journal.close();
+
+        List<String> lines = lines();
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith("\t" + Event.FILTERED));
+    }
+
+    @Test
+    void testCoalescedRunCountedOnce() throws IOException {
+        EventJournal journal = new EventJournal(file.getPath());
+        journal.open();
+        EventLog log = EventLog.getInstance();
+        long window = log.getCoalesceWindow();
+        log.setCoalesceWindow(60000);
+        log.addListener(journal);
+        try {
+            for (int i = 0; i < 5; i++) {
+                log.logEvent(new Event(Event.Operation.FILTERED));
+            }
+            log.endRun();
+        } finally {
+            log.removeListener(journal);
+            log.setCoalesceWindow(window);
+        }
+        journal.close();
+
+        List<String> lines = lines();
+        assertEquals(2, lines.size());
+        assertEquals("1", lines.get(0).split("\t")[3]);
+        assertEquals("4", lines.get(1).split("\t")[3]);
+    }
+
+    @Test
+    void testCloseUnopened() throws IOException {
+        new EventJournal(file.getPath()).close();
+        assertEquals(0, lines().size());
+    }
+
+    private List<String> lines() throws IOException {
+        return new ArrayList<>(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+    }
+}
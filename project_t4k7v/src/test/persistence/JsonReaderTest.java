@@ -4,7 +4,12 @@ import model.Clothing;
 import model.Wardrobe;
 import org.junit.jupiter.api.Test;
 
+import org.json.JSONException;
+
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,4 +76,104 @@ class JsonReaderTest extends JsonTest {
             fail("Couldn't read from file");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testReaderSkipsOtherMembers() throws IOException {
+        File file = File.createTempFile("wardrobe", ".json");
+        try {
+            Files.write(file.toPath(), ("{\"tops\": [{\"id\": \"ignored\"}], \"version\": 1,\n"
+                    + "\"allClothes\": [{\"notes\": {\"worn\": [1, 2]}, \"fit\": \"tight\", \"colour\": "
+                    + "\"blue\", \"mood\": \"cute\", \"id\": \"Liza's\\n\\\"gift\\\" blouse\", "
+                    + "\"type\": \"top\", \"dressCode\": \"casual\"}]}").getBytes(StandardCharsets.UTF_8));
+            for (boolean parallel : new boolean[] {false, true}) {
+                Wardrobe wd = new JsonReader(file.getPath(), parallel).read();
+                assertEquals(1, wd.getAllClothes().size());
+                checkClothing(wd.getAllClothes().get(0), "Liza's\n\"gift\" blouse", "top",
+                        "blue", "tight", "cute", "casual");
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    void testReaderMissingField() throws IOException {
+        File file = File.createTempFile("wardrobe", ".json");
+        try {
+            Files.write(file.toPath(), "{\"allClothes\": [{\"id\": \"a\"}]}".getBytes(StandardCharsets.UTF_8));
+            assertThrows(JSONException.class, () -> new JsonReader(file.getPath()).read());
+            assertThrows(JSONException.class, () -> new JsonReader(file.getPath(), true).read());
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    void testReaderBadVersion2() throws IOException {
+        assertMalformed("{\"version\": 3, \"values\": [], \"items\": []}");
+        assertMalformed("{\"version\": 2, \"items\": [[\"a\", 0, 0, 0, 0, 0]], \"values\": [\"top\"]}");
+        assertMalformed("{\"version\": 2, \"values\": [\"top\"], \"items\": [[\"a\", 0, 0, 1, 0, 0]]}");
+        assertMalformed("{\"version\": 2, \"values\": [\"top\"], \"items\": [[\"a\", 0, 0, 0.5, 0, 0]]}");
+    }
+
+    @Test
+    void testReaderParallel() throws IOException {
+        Wardrobe wd = new Wardrobe();
+        for (int i = 0; i < 20000; i++) {
+            wd.addClothing(new Clothing("item " + i + " \"" + (char) 0xe9 + "\"", i % 3 == 0 ? "top" : "jacket",
+                    "colour " + (i % 11), "comfy", "mood " + (i % 7), "casual"));
+        }
+        for (int version : new int[] {JsonWriter.VERSION_1, JsonWriter.VERSION_2}) {
+            File file = File.createTempFile("wardrobe", ".json");
+            try {
+                JsonWriter writer = new JsonWriter(file.getPath(), version);
+                writer.open();
+                writer.write(wd);
+                writer.close();
+
+                Wardrobe read = new JsonReader(file.getPath(), true).read();
+                assertEquals(wd.getAllClothes(), read.getAllClothes());
+                assertEquals(wd.getTops(), read.getTops());
+                assertEquals(wd.getJackets(), read.getJackets());
+            } finally {
+                assertTrue(file.delete());
+            }
+        }
+    }
+
+    @Test
+    void testReaderParallelMalformed() throws IOException {
+        assertMalformed("");
+        assertMalformed("[]");
+        assertMalformed("{\"allClothes\": [{\"id\": \"a\"");
+        assertMalformed("{\"allClothes\": []");
+        assertMalformed("{\"allClothes\": [\"a\"]}");
+    }
+
+    @Test
+    void testReaderMissingSeparators() throws IOException {
+        String item = "{\"id\": \"a\", \"type\": \"top\", \"colour\": \"red\", \"fit\": \"comfy\", "
+                + "\"mood\": \"chic\", \"dressCode\": \"casual\"}";
+        assertMalformed("{\"allClothes\": [" + item + " " + item + "]}");
+        assertMalformed("{\"allClothes\": [" + item + ",]}");
+        assertMalformed("{\"allClothes\": [" + item.replace(", \"type\"", " \"type\"") + "]}");
+        assertMalformed("{\"allClothes\": [" + item.replace("\"id\":", "\"id\"") + "]}");
+        assertMalformed("{\"version\": 2 \"values\": [\"top\"], \"items\": [[\"a\", 0, 0, 0, 0, 0]]}");
+        assertMalformed("{\"version\": 2, \"values\": [\"top\"], \"items\": [[\"a\" 0, 0, 0, 0, 0]]}");
+        assertMalformed("{\"version\": 2, \"values\": [\"top\"], \"items\": [[\"a\", 0, 0, 0, 0, 0]],}");
+        assertMalformed("{\"version\": 2,, \"values\": [\"top\"], \"items\": []}");
+    }
+
+    // EFFECTS: asserts that reading a file holding json throws JSONException,
+    //          in parallel or not
+    private void assertMalformed(String json) throws IOException {
+        File file = File.createTempFile("wardrobe", ".json");
+        try {
+            Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+            assertThrows(JSONException.class, () -> new JsonReader(file.getPath()).read());
+            assertThrows(JSONException.class, () -> new JsonReader(file.getPath(), true).read());
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+}
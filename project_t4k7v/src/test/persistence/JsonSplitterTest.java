@@ -0,0 +1,58 @@
+package persistence;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSplitterTest {
+
+    @Test
+    void testSkipValue() {
+        JsonSplitter text = splitter(" {\"a\": [1, \"]}\\\"\", {\"b\": true}]}, 12, \"x\"");
+        assertEquals(1, text.skipSeparators(0));
+        int end = text.skipValue(1);
+        assertEquals('}', text.byteAt(end - 1));
+        assertEquals('1', text.byteAt(text.skipSeparators(end)));
+        assertEquals(text.skipSeparators(end) + 2, text.skipValue(text.skipSeparators(end)));
+        assertEquals(text.length(), text.skipValue(text.length() - 3));
+        assertEquals(-1, text.byteAt(text.length()));
+    }
+
+    @Test
+    void testSplitArray() throws IOException {
+        JsonSplitter text = splitter("[{\"id\": \"a,b\"}, {\"id\": \"c\"}, {\"id\": \"d\"}]");
+        int[] cuts = text.splitArray(0, 1);
+        assertEquals(4, cuts.length);
+        assertEquals(1, cuts[0]);
+        assertEquals(text.length() - 1, cuts[3]);
+
+        JsonTokenizer second = text.tokenizeElements(cuts[1], cuts[2], true);
+        second.consume(JsonTokenizer.Token.BEGIN_OBJECT);
+        assertEquals("id", second.nextName());
+        assertEquals("c", second.nextString());
+
+        assertFalse(second.hasNext());
+        assertThrows(JSONException.class, () -> text.tokenize(cuts[1], cuts[2]).peek());
+        assertThrows(JSONException.class, () -> text.tokenizeElements(cuts[1], cuts[2], false).peek());
+
+        assertArrayEquals(new int[] {1, text.length() - 1}, text.splitArray(0, text.length()));
+        assertArrayEquals(new int[] {1, 2}, splitter("[ ]").splitArray(0, 1));
+    }
+
+    @Test
+    void testUnterminated() {
+        assertThrows(JSONException.class, () -> splitter("[1, 2").splitArray(0, 1));
+        assertThrows(JSONException.class, () -> splitter("{\"a\": [1}").skipValue(0));
+        assertThrows(JSONException.class, () -> splitter("\"abc\\\"").skipValue(0));
+    }
+
+    // EFFECTS: returns a splitter over the UTF-8 bytes of json
+    private JsonSplitter splitter(String json) {
+        return new JsonSplitter(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,126 @@
+package persistence;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonTokenizerTest {
+
+    @Test
+    void testTokens() throws IOException {
+        JsonTokenizer tokens = new JsonTokenizer(new StringReader(
+                " {\"a\" : \"x\\\"y\\u0041\\n\", \"b\": [1, -2.5e3, true, null, {\"c\": []}], \"d\": \"z\"} "));
+        tokens.consume(JsonTokenizer.Token.BEGIN_OBJECT);
+        assertTrue(tokens.hasNext());
+        assertEquals("a", tokens.nextName());
+        assertEquals("x\"yA\n", tokens.nextString());
+
+        assertEquals("b", tokens.nextName());
+        assertEquals(JsonTokenizer.Token.BEGIN_ARRAY, tokens.peek());
+        tokens.skipValue();
+
+        assertEquals("d", tokens.nextName());
+        assertEquals(JsonTokenizer.Token.STRING, tokens.peek());
+        assertEquals("z", tokens.nextString());
+        assertFalse(tokens.hasNext());
+        tokens.consume(JsonTokenizer.Token.END_OBJECT);
+        assertEquals(JsonTokenizer.Token.END, tokens.peek());
+        tokens.close();
+    }
+
+    @Test
+    void testPeekKinds() throws IOException {
+        JsonTokenizer tokens = new JsonTokenizer(new StringReader("[12, false]"));
+        tokens.consume(JsonTokenizer.Token.BEGIN_ARRAY);
+        assertEquals(JsonTokenizer.Token.NUMBER, tokens.peek());
+        tokens.skipValue();
+        assertEquals(JsonTokenizer.Token.LITERAL, tokens.peek());
+        tokens.skipValue();
+        assertEquals(JsonTokenizer.Token.END_ARRAY, tokens.peek());
+    }
+
+    @Test
+    void testLongStringAcrossBuffers() throws IOException {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        JsonTokenizer tokens = new JsonTokenizer(new StringReader("[\"" + value + "\", \"" + value + "\"]"));
+        tokens.consume(JsonTokenizer.Token.BEGIN_ARRAY);
+        tokens.skipValue();
+        assertEquals(value.toString(), tokens.nextString());
+    }
+
+    @Test
+    void testMalformed() {
+        assertThrows(JSONException.class,
+                () -> new JsonTokenizer(new StringReader("{\"a\" \"b\"}")).nextString());
+        assertThrows(JSONException.class, () -> {
+            JsonTokenizer tokens = new JsonTokenizer(new StringReader("{\"a\" \"b\"}"));
+            tokens.consume(JsonTokenizer.Token.BEGIN_OBJECT);
+            tokens.nextName();
+        });
+        assertThrows(JSONException.class,
+                () -> new JsonTokenizer(new StringReader("\"abc")).nextString());
+        assertThrows(JSONException.class,
+                () -> new JsonTokenizer(new StringReader("\"\\q\"")).nextString());
+        assertThrows(JSONException.class,
+                () -> new JsonTokenizer(new StringReader("[\"a\"")).skipValue());
+        assertThrows(JSONException.class,
+                () -> new JsonTokenizer(new StringReader("?")).peek());
+    }
+
+    @Test
+    void testMissingSeparators() {
+        checkMalformed("{\"a\" \"b\"}");
+        checkMalformed("[1 2]");
+        checkMalformed("{\"a\": 1 \"b\": 2}");
+        checkMalformed("{\"a\": [1, 2] \"b\": 2}");
+        checkMalformed("[\"a\" \"b\"]");
+        checkMalformed("1 2");
+    }
+
+    @Test
+    void testMisplacedSeparators() {
+        checkMalformed("[1, 2,]");
+        checkMalformed("[, 1]");
+        checkMalformed("[1,, 2]");
+        checkMalformed("{\"a\": 1,}");
+        checkMalformed("{, \"a\": 1}");
+        checkMalformed("{\"a\":: 1}");
+        checkMalformed("{\"a\": , 1}");
+        checkMalformed("{\"a\": 1, 2}");
+        checkMalformed("[1: 2]");
+        checkMalformed("[1}");
+    }
+
+    @Test
+    void testElements() throws IOException {
+        JsonTokenizer first = new JsonTokenizer(new StringReader(" 1, [2, 3] ,\"x\""), false);
+        first.skipValue();
+        first.skipValue();
+        assertEquals("x", first.nextString());
+        assertEquals(JsonTokenizer.Token.END, first.peek());
+
+        JsonTokenizer continued = new JsonTokenizer(new StringReader(", {\"a\": 1}"), true);
+        continued.skipValue();
+        assertFalse(continued.hasNext());
+        assertThrows(JSONException.class, () -> new JsonTokenizer(new StringReader("1"), true).peek());
+        JsonTokenizer unseparated = new JsonTokenizer(new StringReader("1 2"), false);
+        unseparated.skipValue();
+        assertThrows(JSONException.class, unseparated::peek);
+    }
+
+    // EFFECTS: checks that skipping the value in json throws JSONException
+    private static void checkMalformed(String json) {
+        assertThrows(JSONException.class, () -> {
+            JsonTokenizer tokens = new JsonTokenizer(new StringReader(json));
+            tokens.skipValue();
+            tokens.peek();
+        }, json);
+    }
+}
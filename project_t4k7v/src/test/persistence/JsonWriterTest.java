@@ -4,7 +4,13 @@ import model.Clothing;
 import model.Wardrobe;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.json.JSONObject;
+
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -149,4 +155,126 @@ class JsonWriterTest extends JsonTest {
             fail("Exception should not have been thrown");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testWriterMatchesToJson() throws IOException {
+        wd.addClothing(top1);
+        wd.addClothing(bottom1);
+        wd.addClothing(new Clothing("\"Quoted\" \\ tab\tnew\nline", "jacket", "beige", "tight",
+                "cool", "casual"));
+        File file = File.createTempFile("wardrobe", ".json");
+        try {
+            JsonWriter writer = new JsonWriter(file.getPath());
+            writer.open();
+            writer.write(wd);
+            writer.close();
+
+            String written = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            assertTrue(new JSONObject(written).similar(wd.toJson()));
+            assertTrue(written.startsWith("{\n    \"allClothes\": [\n        {\n            \"id\": "));
+            assertTrue(written.contains("\"bottoms\": [\n        {"));
+            assertTrue(written.endsWith("\"accessories\": []\n}"));
+
+            Wardrobe read = new JsonReader(file.getPath()).read();
+            checkClothing(read.getJackets().get(0), "\"Quoted\" \\ tab\tnew\nline", "jacket", "beige",
+                    "tight", "cool", "casual");
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    void testWriterSkipsNullMembers() throws IOException {
+        wd.addClothing(new Clothing("Plain tee", "top", null, "comfy", null, "casual"));
+        wd.addClothing(top1);
+        File file = File.createTempFile("wardrobe", ".json");
+        try {
+            write(new JsonWriter(file.getPath()));
+
+            String written = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            assertTrue(new JSONObject(written).similar(wd.toJson()));
+            assertFalse(written.contains("\"\""));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    void testWriterVersion2() throws IOException {
+        wd.addClothing(bottom2);
+        wd.addClothing(accessory1);
+        wd.addClothing(jacket1);
+        wd.addClothing(top2);
+        wd.addClothing(bottom1);
+        File compact = File.createTempFile("wardrobe", ".json");
+        File lists = File.createTempFile("wardrobe", ".json");
+        try {
+            write(new JsonWriter(compact.getPath(), JsonWriter.VERSION_2));
+            write(new JsonWriter(lists.getPath()));
+            assertTrue(compact.length() * 2 < lists.length());
+
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(compact.toPath()),
+                    StandardCharsets.UTF_8));
+            assertEquals(2, json.getInt("version"));
+            assertEquals(5, json.getJSONArray("items").length());
+            assertEquals("bottom", json.getJSONArray("values").getString(0));
+            checkVersion2Read(compact);
+        } finally {
+            assertTrue(compact.delete());
+            assertTrue(lists.delete());
+        }
+    }
+
+    // EFFECTS: checks that reading compact gives back the wardrobe
+    //          testWriterVersion2 wrote to it
+    private void checkVersion2Read(File compact) throws IOException {
+        Wardrobe read = new JsonReader(compact.getPath()).read();
+        assertEquals(5, read.getAllClothes().size());
+        checkClothing(read.getAllClothes().get(0), "Uniqlo floral skirt","bottom",
+                "blue","tight","feminine","business casual");
+        checkClothing(read.getAllClothes().get(4), "Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual");
+        assertEquals(2, read.getBottoms().size());
+        assertEquals(1, read.getAccessories().size());
+    }
+
+    @Test
+    void testWriterVersion2NullFields() throws IOException {
+        wd.addClothing(new Clothing("Plain tee", "top", null, "comfy", null, "casual"));
+        wd.addClothing(top1);
+        File compact = File.createTempFile("wardrobe", ".json");
+        try {
+            write(new JsonWriter(compact.getPath(), JsonWriter.VERSION_2));
+            String written = new String(Files.readAllBytes(compact.toPath()), StandardCharsets.UTF_8);
+            assertFalse(written.contains("\"\""));
+
+            for (Wardrobe read : Arrays.asList(new JsonReader(compact.getPath()).read(),
+                    new JsonReader(compact.getPath(), true).read())) {
+                checkClothing(read.getAllClothes().get(0), "Plain tee", "top", null, "comfy", null, "casual");
+                assertEquals(top1, read.getAllClothes().get(1));
+            }
+        } finally {
+            assertTrue(compact.delete());
+        }
+    }
+
+    @Test
+    void testWriterVersion2EmptyWardrobe() throws IOException {
+        File compact = File.createTempFile("wardrobe", ".json");
+        try {
+            write(new JsonWriter(compact.getPath(), JsonWriter.VERSION_2));
+            assertEquals("{\n    \"version\": 2,\n    \"values\": [],\n    \"items\": []\n}",
+                    new String(Files.readAllBytes(compact.toPath()), StandardCharsets.UTF_8));
+            assertEquals(0, new JsonReader(compact.getPath()).read().getAllClothes().size());
+        } finally {
+            assertTrue(compact.delete());
+        }
+    }
+
+    // EFFECTS: writes wd with writer
+    private void write(JsonWriter writer) throws IOException {
+        writer.open();
+        writer.write(wd);
+        writer.close();
+    }
+}
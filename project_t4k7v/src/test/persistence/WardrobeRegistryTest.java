@@ -0,0 +1,205 @@
+package persistence;
+
+import model.Clothing;
+import model.ConcurrentWardrobe;
+import model.Wardrobe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WardrobeRegistryTest extends JsonTest {
+    private File directory;
+    private WardrobeRegistry registry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("wardrobes").toFile();
+        registry = new WardrobeRegistry(directory.getPath(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    void testAcquireNewUser() throws IOException {
+        try (WardrobeRegistry.Lease lease = registry.acquire("cher");
+             WardrobeRegistry.Lease again = registry.acquire("cher")) {
+            assertEquals(0, lease.getWardrobe().getAllClothes().size());
+            assertSame(lease.getWardrobe(), again.getWardrobe());
+        }
+        assertEquals(1, registry.getMisses());
+        assertEquals(1, registry.getHits());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() throws IOException {
+        Wardrobe cher = use("cher");
+        cher.addClothing(new Clothing("Y2K fairy blouse","top","green","tight",
+                "whimsical","casual"));
+        use("dionne");
+        use("cher");
+        use("tai");
+
+        assertEquals(1, registry.getEvictions());
+        assertEquals(2, registry.size());
+        assertFalse(new File(directory, "dionne.json").exists());
+        assertFalse(new File(directory, "cher.json").exists());
+        assertSame(cher, use("cher"));
+
+        use("dionne");
+        assertFalse(new File(directory, "tai.json").exists());
+        use("amber");
+        assertEquals(3, registry.getEvictions());
+        assertTrue(new File(directory, "cher.json").exists());
+    }
+
+    @Test
+    void testHeldWardrobeIsNotEvicted() throws IOException {
+        try (WardrobeRegistry.Lease cher = registry.acquire("cher")) {
+            use("dionne");
+            use("tai");
+            use("amber");
+            assertEquals(2, registry.size());
+            cher.getWardrobe().addClothing(new Clothing("Plaid beret","accessory","brown","comfy",
+                    "chic","cocktail"));
+            assertSame(cher.getWardrobe(), use("cher"));
+        }
+        use("dionne");
+        use("tai");
+        assertEquals(1, new JsonReader(directory.getPath() + "/cher.json").read().getAllClothes().size());
+    }
+
+    @Test
+    void testEvictionFailureKeepsWardrobe() throws IOException {
+        Wardrobe cher = use("cher");
+        cher.addClothing(new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual"));
+        assertTrue(new File(directory, "cher.json.next.tmp").mkdir());
+
+        use("dionne");
+        use("tai");
+        assertEquals(0, registry.getEvictions());
+        assertSame(cher, use("cher"));
+        assertThrows(IOException.class, () -> registry.flush());
+    }
+
+    @Test
+    void testFailedWriteKeepsLastFile() throws IOException {
+        boolean[] failing = {false};
+        registry = new WardrobeRegistry(directory.getPath(), 2, () -> new Wardrobe() {
+            @Override
+            public List<Clothing> getAllClothes() {
+                if (failing[0]) {
+                    throw new UncheckedIOException(new IOException("Disk full"));
+                }
+                return super.getAllClothes();
+            }
+        });
+        Wardrobe cher = use("cher");
+        cher.addClothing(new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual"));
+        registry.flush();
+
+        cher.addClothing(new Clothing("Plaid blazer","jacket","yellow","tight",
+                "preppy","business casual"));
+        failing[0] = true;
+        assertThrows(IOException.class, () -> registry.flush());
+        assertEquals(1, new JsonReader(directory.getPath() + "/cher.json").read().getAllClothes().size());
+
+        failing[0] = false;
+        registry.flush();
+        assertEquals(2, new JsonReader(directory.getPath() + "/cher.json").read().getAllClothes().size());
+    }
+
+    @Test
+    void testConcurrentAcquireLoadsOnce() throws Exception {
+        Wardrobe cher = use("cher");
+        cher.addClothing(new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual"));
+        registry.flush();
+        WardrobeRegistry fresh = new WardrobeRegistry(directory.getPath(), 2);
+        List<Callable<Wardrobe>> tasks = Collections.nCopies(8, () -> {
+            try (WardrobeRegistry.Lease lease = fresh.acquire("cher")) {
+                return lease.getWardrobe();
+            }
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Wardrobe>> results = pool.invokeAll(tasks);
+        pool.shutdown();
+        for (Future<Wardrobe> result : results) {
+            assertSame(results.get(0).get(), result.get());
+        }
+        assertEquals(1, fresh.getMisses());
+    }
+
+    @Test
+    void testReloadAfterEviction() throws IOException {
+        use("cher").addClothing(new Clothing("Farrah jeans","bottom","blue","baggy",
+                "elegant","business casual"));
+        use("dionne");
+        use("tai");
+
+        Wardrobe reloaded = use("cher");
+        assertEquals(1, reloaded.getAllClothes().size());
+        checkClothing(reloaded.getBottoms().get(0), "Farrah jeans", "bottom", "blue",
+                "baggy", "elegant", "business casual");
+        assertEquals(4, registry.getMisses());
+        assertEquals(0, registry.getHits());
+    }
+
+    @Test
+    void testFlushAndStorage() throws IOException {
+        WardrobeRegistry concurrent = new WardrobeRegistry(directory.getPath(), 2,
+                ConcurrentWardrobe::new);
+        try (WardrobeRegistry.Lease lease = concurrent.acquire("cher")) {
+            Wardrobe wd = lease.getWardrobe();
+            assertTrue(wd instanceof ConcurrentWardrobe);
+
+            concurrent.flush();
+            assertFalse(new File(directory, "cher.json").exists());
+
+            wd.addClothing(new Clothing("Plaid beret","accessory","brown","comfy",
+                    "chic","cocktail"));
+            concurrent.flush();
+        }
+        assertTrue(new File(directory, "cher.json").exists());
+        assertEquals(1, new JsonReader(directory.getPath() + "/cher.json").read()
+                .getAccessories().size());
+    }
+
+    @Test
+    void testInvalidUser() {
+        assertThrows(IllegalArgumentException.class, () -> registry.acquire("../cher"));
+        assertThrows(IllegalArgumentException.class, () -> registry.acquire(""));
+    }
+
+    // EFFECTS: acquires the wardrobe of user, releases it and returns it
+    private Wardrobe use(String user) throws IOException {
+        try (WardrobeRegistry.Lease lease = registry.acquire(user)) {
+            return lease.getWardrobe();
+        }
+    }
+}